@@ -32,6 +32,9 @@ import java.io.Closeable;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static oap.testng.Asserts.assertEventually;
@@ -115,6 +118,39 @@ public class KernelSupervisionTest {
         }
     }
 
+    @Test
+    public void testParallelStart() {
+        TestParallel.started.clear();
+        TestParallel.barrier.reset();
+        List<URL> modules = Module.CONFIGURATION.urlsFromClassPath();
+        modules.add( urlOfTestResource( getClass(), "modules/parallel.oap" ) );
+        modules.add( urlOfTestResource( getClass(), "modules/parallel-dependent.oap" ) );
+
+        try( Kernel kernel = new Kernel( modules ) ) {
+            // p1 and p2 only start when both of them are starting at the same time
+            kernel.start( Map.of( "boot.main", "parallel-dependent", "boot.parallelism", 4 ) );
+
+            assertThat( TestParallel.started ).hasSize( 4 );
+            assertThat( TestParallel.started.subList( 0, 2 ) ).containsExactlyInAnyOrder( "p1", "p2" );
+            assertThat( TestParallel.started.subList( 2, 4 ) ).containsExactly( "p3", "p4" );
+        }
+    }
+
+    public static class TestParallel {
+        public static final List<String> started = new CopyOnWriteArrayList<>();
+        public static final CyclicBarrier barrier = new CyclicBarrier( 2 );
+        public final String name;
+
+        public TestParallel( String name ) {
+            this.name = name;
+        }
+
+        public void start() throws Exception {
+            if( name.equals( "p1" ) || name.equals( "p2" ) ) barrier.await( 10, TimeUnit.SECONDS );
+            started.add( name );
+        }
+    }
+
     @Slf4j
     public static class TestCloseable implements Closeable, AutoCloseable {
 
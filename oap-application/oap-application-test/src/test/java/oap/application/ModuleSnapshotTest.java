@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.application;
+
+import com.typesafe.config.ConfigFactory;
+import oap.application.module.Module;
+import oap.io.Files;
+import oap.io.content.ContentReader;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.nio.file.Path;
+
+import static oap.json.Binder.Format.HOCON;
+import static oap.json.Binder.Format.JSON;
+import static oap.testng.Asserts.urlOfTestResource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModuleSnapshotTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public ModuleSnapshotTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    @Test
+    public void testSnapshot() {
+        URL url = urlOfTestResource( KernelTest.class, "modules/m1.oap" );
+        Path directory = testDirectoryFixture.testPath( "snapshot" );
+        String key = ModuleSnapshot.key( ContentReader.read( url, ContentReader.ofString() ) );
+
+        var snapshot = new ModuleSnapshot( directory );
+
+        Module module = snapshot.load( url );
+        assertThat( directory.resolve( key + ".json" ) ).exists();
+        assertThat( module ).isEqualTo( Module.CONFIGURATION.fromUrl( url ) );
+
+        assertThat( snapshot.load( url ) ).isEqualTo( module );
+    }
+
+    @Test
+    public void testSystemPropertiesAreNotStored() {
+        URL url = urlOfTestResource( KernelTest.class, "modules/m1.oap" );
+        Path directory = testDirectoryFixture.testPath( "snapshot" );
+        String key = ModuleSnapshot.key( ContentReader.read( url, ContentReader.ofString() ) );
+
+        System.setProperty( "oap.test.snapshot.secret", "secret-value" );
+        try {
+            new ModuleSnapshot( directory ).load( url );
+        } finally {
+            System.clearProperty( "oap.test.snapshot.secret" );
+        }
+
+        assertThat( Files.readString( directory.resolve( key + ".json" ) ) ).doesNotContain( "secret-value" );
+    }
+
+    @Test
+    public void testSystemPropertiesAreApplied() {
+        URL url = urlOfTestResource( KernelTest.class, "modules/m1.oap" );
+        Path directory = testDirectoryFixture.testPath( "snapshot" );
+
+        new ModuleSnapshot( directory ).load( url );
+
+        System.setProperty( "services.ServiceOneP2.parameters.j", "3" );
+        System.setProperty( "services.ServiceOneP2.parameters.i", "4" );
+        ConfigFactory.invalidateCaches();
+        try {
+            Module module = new ModuleSnapshot( directory ).load( url );
+
+            assertThat( module ).isEqualTo( Module.CONFIGURATION.fromUrl( url ) );
+            assertThat( module.services.get( "ServiceOneP2" ).parameters )
+                .containsEntry( "j", "3" )
+                .containsEntry( "i", 1 );
+        } finally {
+            System.clearProperty( "services.ServiceOneP2.parameters.j" );
+            System.clearProperty( "services.ServiceOneP2.parameters.i" );
+            ConfigFactory.invalidateCaches();
+        }
+    }
+
+    @Test
+    public void testWithoutSnapshots() {
+        URL url = urlOfTestResource( KernelTest.class, "modules/m1.oap" );
+
+        assertThat( new ModuleSnapshot( null ).load( url ) ).isEqualTo( Module.CONFIGURATION.fromUrl( url ) );
+    }
+
+    @Test
+    public void testSubstitutionsAreNotCached() {
+        assertThat( ModuleSnapshot.isStatic( HOCON, "name = m\nservices.s.parameters.p = ${?ENV}" ) ).isFalse();
+        assertThat( ModuleSnapshot.isStatic( HOCON, "include required(classpath(\"a.conf\"))" ) ).isFalse();
+        assertThat( ModuleSnapshot.isStatic( HOCON, "a {\n  include \"b.conf\"\n}" ) ).isFalse();
+        assertThat( ModuleSnapshot.isStatic( HOCON, "name = m" ) ).isTrue();
+        assertThat( ModuleSnapshot.isStatic( HOCON, "name = m\nservices.includeX.parameters.p = \"include ${x}\"" ) ).isTrue();
+        assertThat( ModuleSnapshot.isStatic( JSON, "{\"name\": \"${x}\"}" ) ).isTrue();
+    }
+}
@@ -143,6 +143,7 @@ public final class ApplicationConfiguration {
     @ToString
     public static class ModuleBoot {
         public final LinkedHashSet<String> main = new LinkedHashSet<>();
+        public int parallelism = 1;
     }
 
     @ToString
@@ -88,6 +88,7 @@ public class Kernel implements Closeable, AutoCloseable {
     final String name;
     private final List<URL> moduleConfigurations;
     private final Supervisor supervisor = new Supervisor();
+    private final ModuleSnapshot moduleSnapshot = ModuleSnapshot.fromSystemProperties();
     private ApplicationConfiguration applicationConfiguration = new ApplicationConfiguration();
 
     public Kernel( String name, List<URL> moduleConfigurations ) {
@@ -225,6 +226,9 @@ public class Kernel implements Closeable, AutoCloseable {
         ModuleHelper.init( map, modules, implementations, config.boot.main );
         resolveImplementations( map, implementations );
 
+        long start = System.currentTimeMillis();
+        supervisor.startupReport.clear();
+
         ServiceTree servicesMap = new ServiceTree();
 
         instantiateServices( servicesMap, map );
@@ -232,8 +236,10 @@ public class Kernel implements Closeable, AutoCloseable {
         linkServices( servicesMap );
         startServices( servicesMap );
 
-        supervisor.preStart();
-        supervisor.start();
+        supervisor.preStart( config.boot.parallelism );
+        supervisor.start( config.boot.parallelism );
+
+        supervisor.startupReport.log( System.currentTimeMillis() - start );
 
         log.debug( "application kernel started " + name );
     }
@@ -261,7 +267,7 @@ public class Kernel implements Closeable, AutoCloseable {
 
     private void loadModules( LinkedHashMap<String, ModuleWithLocation> modules ) {
         for( URL moduleConfiguration : moduleConfigurations ) {
-            Module module = Module.CONFIGURATION.fromUrl( moduleConfiguration );
+            Module module = moduleSnapshot.load( moduleConfiguration );
             if( StringUtils.isBlank( module.name ) ) {
                 throw new ApplicationException( moduleConfiguration + ": module.name is blank" );
             }
@@ -306,6 +312,7 @@ public class Kernel implements Closeable, AutoCloseable {
             String implName = serviceItem.serviceName;
 
             log.trace( "instantiating {}.{} as {} class:{} ...", moduleName, implName, serviceItem.serviceName, service.implementation );
+            long start = System.currentTimeMillis();
             try {
                 Reflection reflect = serviceItem.getReflection();
 
@@ -362,6 +369,7 @@ public class Kernel implements Closeable, AutoCloseable {
                 }
 
                 servicesMap.add( serviceItemOriginal );
+                supervisor.startupReport.record( serviceItemOriginal, "instantiate", System.currentTimeMillis() - start );
             } catch( Exception e ) {
                 log.error( "Cannot create/initialize service name = {}.{} class: {}",
                     moduleName, implName, service.implementation );
@@ -33,6 +33,7 @@ import oap.util.Lists;
 import oap.util.Pair;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -436,6 +437,12 @@ class ModuleHelper {
         LinkedHashMap<Reference, ModuleItem.ServiceItem> newMap = new LinkedHashMap<>();
         LinkedList<ModuleItem.ServiceItem> noIncomingEdges = new LinkedList<>();
 
+        for( ModuleItem.ServiceItem serviceItem : graph ) {
+            for( ServiceReference serviceReference : serviceItem.dependsOn ) {
+                serviceItem.startAfter.add( serviceReference.serviceItem );
+            }
+        }
+
         graph.removeIf( serviceItem -> {
             if( serviceItem.dependsOn.isEmpty() ) {
                 noIncomingEdges.add( serviceItem );
@@ -471,12 +478,46 @@ class ModuleHelper {
             throw new ApplicationException( "services cyclic dependency detected" );
         }
 
+        // module dependsOn: services start after the services of the modules their module depends on which precede
+        // them in the sequential order, so all the edges point forward and the graph stays acyclic
+        var order = new HashMap<ModuleItem.ServiceItem, Integer>();
+        for( ModuleItem.ServiceItem serviceItem : newMap.values() ) order.put( serviceItem, order.size() );
+
+        var moduleDependencies = new HashMap<ModuleItem, LinkedHashSet<ModuleItem>>();
+        for( ModuleItem.ServiceItem serviceItem : newMap.values() ) {
+            int position = order.get( serviceItem );
+            for( ModuleItem dModule : moduleDependencies( map, serviceItem.moduleItem, moduleDependencies ) ) {
+                for( ModuleItem.ServiceItem dService : dModule.services.values() ) {
+                    Integer dPosition = order.get( dService );
+                    if( dPosition != null && dPosition < position ) serviceItem.startAfter.add( dService );
+                }
+            }
+        }
+
         map.setServices( newMap.values() );
         log.trace( "services after sort: \n{}",
             String.join( "\n", Lists.map( map.services, e -> "  " + e ) )
         );
     }
 
+    private static LinkedHashSet<ModuleItem> moduleDependencies( ModuleItemTree map, ModuleItem moduleItem,
+                                                                 HashMap<ModuleItem, LinkedHashSet<ModuleItem>> cache ) {
+        LinkedHashSet<ModuleItem> dependencies = cache.get( moduleItem );
+        if( dependencies != null ) return dependencies;
+
+        dependencies = new LinkedHashSet<>();
+        cache.put( moduleItem, dependencies );
+        for( String d : moduleItem.module.dependsOn ) {
+            ModuleItem dModule = map.findModule( moduleItem, d );
+            if( !dModule.isEnabled() ) continue;
+
+            dependencies.add( dModule );
+            dependencies.addAll( moduleDependencies( map, dModule, cache ) );
+        }
+
+        return dependencies;
+    }
+
     private static void initModuleDeps( ModuleItemTree map ) {
         for( ModuleItem moduleItem : map.values() ) {
             for( String d : moduleItem.module.dependsOn ) {
@@ -130,6 +130,8 @@ public class ModuleItem {
         public final Service service;
         public final ServiceEnabledStatus enabled;
         public final LinkedHashSet<ServiceReference> dependsOn = new LinkedHashSet<>();
+        // dependsOn is consumed by the topological sort, startAfter keeps the resolved edges for the supervisor
+        public final LinkedHashSet<ServiceItem> startAfter = new LinkedHashSet<>();
         public Object instance;
         public ServiceItem abstractImplemenetaion;
 
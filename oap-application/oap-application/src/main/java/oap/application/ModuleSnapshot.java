@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.application;
+
+import com.google.common.hash.Hashing;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigIncludeContext;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigIncluderClasspath;
+import com.typesafe.config.ConfigIncluderFile;
+import com.typesafe.config.ConfigIncluderURL;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import oap.application.module.Module;
+import oap.io.Files;
+import oap.io.IoStreams.Encoding;
+import oap.io.content.ContentReader;
+import oap.io.content.ContentWriter;
+import oap.json.Binder;
+import oap.reflect.TypeRef;
+import oap.util.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Module configuration snapshots.
+ * <p>
+ * A module file without substitutions and includes always resolves to the same configuration tree, so the tree is
+ * stored as plain json keyed by the murmur3 hash of the file content and bound with {@link Binder#json} instead of
+ * the hocon parser. System properties are not part of the snapshot, they are merged under it on every boot as
+ * under the module file itself.
+ * <p>
+ * Only the configuration tree is snapshotted: service implementations are still resolved and instantiated
+ * reflectively by the {@link Kernel}.
+ * <p>
+ * Snapshots are looked up on the classpath in <code>META-INF/oap-module-snapshot/&lt;hash&gt;.json</code>
+ * (see <code>oap-application-maven:module-snapshot</code>) and in the directory set by the
+ * <code>oap.application.snapshot</code> system property (or <code>OAP_APPLICATION_SNAPSHOT</code> environment variable),
+ * where missing snapshots are written on the first boot. Without either, modules are loaded
+ * with {@link Module#CONFIGURATION} directly.
+ */
+@Slf4j
+public class ModuleSnapshot {
+    public static final String SNAPSHOT_RESOURCE = "META-INF/oap-module-snapshot/";
+    /**
+     * Written next to the snapshots, lists their keys.
+     */
+    public static final String SNAPSHOT_INDEX = SNAPSHOT_RESOURCE + "snapshots.lst";
+    public static final String SNAPSHOT_PROPERTY = "oap.application.snapshot";
+    public static final String SNAPSHOT_ENV = "OAP_APPLICATION_SNAPSHOT";
+
+    @Nullable
+    private final Path directory;
+    private Boolean classpath;
+
+    public ModuleSnapshot( @Nullable Path directory ) {
+        this.directory = directory;
+    }
+
+    public static ModuleSnapshot fromSystemProperties() {
+        String directory = System.getProperty( SNAPSHOT_PROPERTY, System.getenv( SNAPSHOT_ENV ) );
+
+        return new ModuleSnapshot( directory != null ? Path.of( directory ) : null );
+    }
+
+    public static String key( String content ) {
+        return Hashing.murmur3_128().hashString( content, UTF_8 ).toString();
+    }
+
+    /**
+     * @return true if the module file has neither substitutions nor hocon <code>include</code> directives.
+     * Json and yaml module files are bound without substitutions and are always static.
+     */
+    public static boolean isStatic( Binder.Format format, String content ) {
+        if( format != Binder.Format.HOCON && format != Binder.Format.HOCON_WO_SYSTEM_PROPERTIES ) return true;
+
+        var includer = new IncludeDetector();
+        try {
+            Config config = ConfigFactory.parseString( content, ConfigParseOptions.defaults().setIncluder( includer ) );
+            return !includer.included && config.isResolved();
+        } catch( ConfigException e ) {
+            log.trace( "cannot parse module configuration", e );
+            return false;
+        }
+    }
+
+    @SneakyThrows
+    public Module load( URL url ) {
+        if( directory == null && !classpath() ) {
+            return Module.CONFIGURATION.fromUrl( url );
+        }
+
+        String content = ContentReader.read( url, ContentReader.ofString() );
+        Binder.Format format = Binder.Format.of( url, true );
+        String key = key( content );
+
+        URL snapshot = Thread.currentThread().getContextClassLoader().getResource( SNAPSHOT_RESOURCE + key + ".json" );
+        if( snapshot != null ) {
+            log.trace( "{}: snapshot {}", url, snapshot );
+            return bind( format, Binder.json.unmarshal( new TypeRef<Map<String, Object>>() {}, snapshot ) );
+        }
+
+        if( directory == null ) {
+            return Module.CONFIGURATION.fromUrl( url );
+        }
+
+        Path path = directory.resolve( key + ".json" );
+        if( java.nio.file.Files.exists( path ) ) {
+            log.trace( "{}: snapshot {}", url, path );
+            return bind( format, Binder.json.unmarshal( new TypeRef<Map<String, Object>>() {}, Files.readString( path ) ) );
+        }
+
+        if( !isStatic( format, content ) ) {
+            return Module.CONFIGURATION.fromUrl( url );
+        }
+
+        Map<String, Object> tree = Binder.Format.of( url, false ).binder.unmarshal( new TypeRef<Map<String, Object>>() {}, content );
+
+        log.debug( "{}: writing snapshot {}", url, path );
+        Files.write( path, false, true, Encoding.PLAIN, Binder.json.marshal( tree ), ContentWriter.ofString() );
+
+        return bind( format, tree );
+    }
+
+    private synchronized boolean classpath() {
+        if( classpath == null )
+            classpath = Thread.currentThread().getContextClassLoader().getResource( SNAPSHOT_INDEX ) != null;
+
+        return classpath;
+    }
+
+    /**
+     * Snapshots hold only the module's own tree. For hocon modules system properties are merged under it
+     * on every boot, the same fallback {@link Binder#hocon} applies to the module file.
+     */
+    private static Module bind( Binder.Format format, Map<String, Object> tree ) {
+        if( format != Binder.Format.HOCON ) return Binder.json.unmarshal( Module.class, tree );
+
+        Map<String, Object> systemProperties = ConfigFactory.systemProperties().root().unwrapped();
+        return Binder.json.unmarshal( Module.class, Maps.<String, Object>deepMerge( systemProperties, tree ) );
+    }
+
+    private static class IncludeDetector implements ConfigIncluder, ConfigIncluderFile, ConfigIncluderURL, ConfigIncluderClasspath {
+        private boolean included;
+
+        @Override
+        public ConfigIncluder withFallback( ConfigIncluder fallback ) {
+            return this;
+        }
+
+        @Override
+        public ConfigObject include( ConfigIncludeContext context, String what ) {
+            return empty();
+        }
+
+        @Override
+        public ConfigObject includeFile( ConfigIncludeContext context, File what ) {
+            return empty();
+        }
+
+        @Override
+        public ConfigObject includeURL( ConfigIncludeContext context, URL what ) {
+            return empty();
+        }
+
+        @Override
+        public ConfigObject includeResources( ConfigIncludeContext context, String what ) {
+            return empty();
+        }
+
+        private ConfigObject empty() {
+            included = true;
+            return ConfigFactory.empty().root();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.application.supervision;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import oap.application.ModuleItem;
+import oap.concurrent.Executors;
+import oap.util.Throwables;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Runs an action for every service of the graph. A service is submitted as soon as all the services it
+ * depends on are done, so independent services run concurrently. Dependencies on services which are not part
+ * of the graph (not supervised) are resolved transitively.
+ */
+@Slf4j
+class ServiceDependencyGraph {
+    private final LinkedHashMap<ModuleItem.ServiceItem, LinkedHashSet<ModuleItem.ServiceItem>> dependencies = new LinkedHashMap<>();
+
+    ServiceDependencyGraph( Set<ModuleItem.ServiceItem> services ) {
+        for( var si : services ) {
+            var deps = new LinkedHashSet<ModuleItem.ServiceItem>();
+            collectDependencies( si, services, deps, new HashSet<>() );
+            deps.remove( si );
+            dependencies.put( si, deps );
+        }
+    }
+
+    private static void collectDependencies( ModuleItem.ServiceItem si, Set<ModuleItem.ServiceItem> services,
+                                             LinkedHashSet<ModuleItem.ServiceItem> deps, HashSet<ModuleItem.ServiceItem> visited ) {
+        for( var d : si.startAfter ) {
+            if( !visited.add( d ) ) continue;
+
+            if( services.contains( d ) ) deps.add( d );
+            else collectDependencies( d, services, deps, visited );
+        }
+    }
+
+    public void run( String phase, int parallelism, Consumer<ModuleItem.ServiceItem> action ) {
+        if( dependencies.isEmpty() ) return;
+
+        var remaining = new HashMap<ModuleItem.ServiceItem, Integer>();
+        var dependents = new HashMap<ModuleItem.ServiceItem, List<ModuleItem.ServiceItem>>();
+        var ready = new ArrayList<ModuleItem.ServiceItem>();
+
+        dependencies.forEach( ( si, deps ) -> {
+            remaining.put( si, deps.size() );
+            for( var d : deps ) dependents.computeIfAbsent( d, _ -> new ArrayList<>() ).add( si );
+            if( deps.isEmpty() ) ready.add( si );
+        } );
+
+        ExecutorService executor = Executors.newFixedThreadPool( parallelism,
+            new ThreadFactoryBuilder().setNameFormat( "kernel-" + phase + "-%d" ).build() );
+        try {
+            var completionService = new ExecutorCompletionService<ModuleItem.ServiceItem>( executor );
+            int running = 0;
+            int done = 0;
+            Throwable failure = null;
+
+            for( var si : ready ) {
+                completionService.submit( () -> action.accept( si ), si );
+                running++;
+            }
+
+            while( running > 0 ) {
+                ModuleItem.ServiceItem si;
+                try {
+                    si = completionService.take().get();
+                } catch( ExecutionException e ) {
+                    if( failure == null ) failure = e.getCause();
+                    continue;
+                } finally {
+                    running--;
+                }
+                done++;
+
+                if( failure != null ) continue;
+
+                for( var dependent : dependents.getOrDefault( si, List.of() ) ) {
+                    if( remaining.merge( dependent, -1, Integer::sum ) == 0 ) {
+                        completionService.submit( () -> action.accept( dependent ), dependent );
+                        running++;
+                    }
+                }
+            }
+
+            if( failure != null ) throw Throwables.propagate( failure );
+            if( done != dependencies.size() )
+                throw new IllegalStateException( phase + ": " + ( dependencies.size() - done ) + " services were not started" );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate( e );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.application.supervision;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import oap.application.ModuleItem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per service startup timings (instantiate/preStart/start), reported to the log and to the
+ * <code>kernel_service_startup</code> timer.
+ */
+@Slf4j
+public class StartupReport {
+    private final LinkedHashMap<ModuleItem.ServiceItem, LinkedHashMap<String, Long>> times = new LinkedHashMap<>();
+
+    public synchronized void record( ModuleItem.ServiceItem si, String phase, long durationMs ) {
+        times.computeIfAbsent( si, _ -> new LinkedHashMap<>() ).merge( phase, durationMs, Long::sum );
+
+        Metrics.timer( "kernel_service_startup", Tags.of( "service", si.toString(), "phase", phase ) )
+            .record( durationMs, TimeUnit.MILLISECONDS );
+    }
+
+    public synchronized Map<String, Long> get( ModuleItem.ServiceItem si ) {
+        return new LinkedHashMap<>( times.getOrDefault( si, new LinkedHashMap<>() ) );
+    }
+
+    public synchronized long total( ModuleItem.ServiceItem si ) {
+        long total = 0;
+        for( long ms : times.getOrDefault( si, new LinkedHashMap<>() ).values() ) total += ms;
+        return total;
+    }
+
+    public synchronized void clear() {
+        times.clear();
+    }
+
+    public synchronized void log( long wallTimeMs ) {
+        if( !log.isInfoEnabled() ) return;
+
+        var services = new ArrayList<>( times.keySet() );
+        services.sort( Comparator.comparingLong( this::total ).reversed() );
+
+        var sb = new StringBuilder( "startup report: " ).append( services.size() ).append( " services in " ).append( wallTimeMs ).append( "ms" );
+        for( var si : services ) {
+            sb.append( "\n  " ).append( si ).append( ": " ).append( total( si ) ).append( "ms " ).append( times.get( si ) );
+        }
+
+        log.info( sb.toString() );
+    }
+}
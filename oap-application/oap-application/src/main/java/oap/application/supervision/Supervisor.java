@@ -47,6 +47,7 @@ import java.util.concurrent.TimeoutException;
 public class Supervisor {
     private final LinkedHashMap<ModuleItem.ServiceItem, StartableService> supervised = new LinkedHashMap<>();
     private final LinkedHashMap<ModuleItem.ServiceItem, WrapperService<?>> wrappers = new LinkedHashMap<>();
+    public final StartupReport startupReport = new StartupReport();
 
     private boolean stopped = false;
 
@@ -106,17 +107,18 @@ public class Supervisor {
     }
 
     public synchronized void preStart() {
+        preStart( 1 );
+    }
+
+    public synchronized void preStart( int parallelism ) {
         log.debug( "pre starting..." );
 
-        this.supervised.forEach( ( si, service ) -> {
-            log.debug( "pre starting {}...", si );
-            KernelHelper.setThreadNameSuffix( si.toString() );
-            try {
-                service.preStart();
-            } finally {
-                KernelHelper.restoreThreadName();
-            }
-        } );
+        if( parallelism > 1 ) {
+            new ServiceDependencyGraph( this.supervised.keySet() )
+                .run( "preStart", parallelism, si -> preStartSupervised( si, this.supervised.get( si ) ) );
+        } else {
+            this.supervised.forEach( this::preStartSupervised );
+        }
 
         BiStream.of( this.wrappers )
             .reversed()
@@ -133,20 +135,19 @@ public class Supervisor {
     }
 
     public synchronized void start() {
+        start( 1 );
+    }
+
+    public synchronized void start( int parallelism ) {
         log.debug( "starting..." );
         this.stopped = false;
-        this.supervised.forEach( ( si, service ) -> {
-            log.debug( "starting {}...", si );
-            long start = System.currentTimeMillis();
-            KernelHelper.setThreadNameSuffix( si.toString() );
-            try {
-                service.start();
-            } finally {
-                KernelHelper.restoreThreadName();
-            }
-            long end = System.currentTimeMillis();
-            log.debug( "starting {}... Done. ({}ms)", si, end - start );
-        } );
+
+        if( parallelism > 1 ) {
+            new ServiceDependencyGraph( this.supervised.keySet() )
+                .run( "start", parallelism, si -> startSupervised( si, this.supervised.get( si ) ) );
+        } else {
+            this.supervised.forEach( this::startSupervised );
+        }
 
         this.wrappers.forEach( ( si, service ) -> {
             log.debug( "[{}] starting {}...", service.type(), si );
@@ -158,10 +159,37 @@ public class Supervisor {
                 KernelHelper.restoreThreadName();
             }
             long end = System.currentTimeMillis();
+            startupReport.record( si, "start", end - start );
             log.debug( "[{}] starting {}... Done. ({}ms)", service.type(), si, end - start );
         } );
     }
 
+    private void preStartSupervised( ModuleItem.ServiceItem si, StartableService service ) {
+        log.debug( "pre starting {}...", si );
+        long start = System.currentTimeMillis();
+        KernelHelper.setThreadNameSuffix( si.toString() );
+        try {
+            service.preStart();
+        } finally {
+            KernelHelper.restoreThreadName();
+        }
+        startupReport.record( si, "preStart", System.currentTimeMillis() - start );
+    }
+
+    private void startSupervised( ModuleItem.ServiceItem si, StartableService service ) {
+        log.debug( "starting {}...", si );
+        long start = System.currentTimeMillis();
+        KernelHelper.setThreadNameSuffix( si.toString() );
+        try {
+            service.start();
+        } finally {
+            KernelHelper.restoreThreadName();
+        }
+        long end = System.currentTimeMillis();
+        startupReport.record( si, "start", end - start );
+        log.debug( "starting {}... Done. ({}ms)", si, end - start );
+    }
+
     public synchronized void preStop( ApplicationConfiguration.ModuleShutdown shutdown ) {
         if( !stopped ) {
             try( ShutdownConfiguration shutdownConfiguration = new ShutdownConfiguration( shutdown ) ) {
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.json.Binder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class BinderJsonBenchmark {
+    private Bean bean;
+    private String json;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setup() {
+        bean = new Bean();
+        bean.id = "2b7f1c4e-8a7b-4d0e-9d6c-0f3a1e2b3c4d";
+        bean.count = 42;
+        bean.price = 3.1415;
+        for( int i = 0; i < 10; i++ ) {
+            bean.tags.add( "tag" + i );
+            bean.attributes.put( "key" + i, "value" + i );
+        }
+
+        json = Binder.json.marshal( bean );
+        jsonBytes = json.getBytes( UTF_8 );
+    }
+
+    @Benchmark
+    public String marshal() {
+        return Binder.json.marshal( bean );
+    }
+
+    @Benchmark
+    public Bean unmarshalString() {
+        return Binder.json.unmarshal( Bean.class, json );
+    }
+
+    @Benchmark
+    public Bean unmarshalBytes() {
+        return Binder.json.unmarshal( Bean.class, jsonBytes );
+    }
+
+    public static class Bean {
+        public String id;
+        public int count;
+        public double price;
+        public List<String> tags = new ArrayList<>();
+        public Map<String, String> attributes = new LinkedHashMap<>();
+    }
+}
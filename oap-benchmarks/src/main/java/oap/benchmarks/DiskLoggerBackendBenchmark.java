@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.compression.Compression;
+import oap.io.Files;
+import oap.logstream.Logger;
+import oap.logstream.Timestamp;
+import oap.logstream.disk.DiskLoggerBackend;
+import oap.logstream.formats.rowbinary.RowBinaryUtils;
+import oap.template.TemplateEngine;
+import oap.template.Types;
+import oap.util.Dates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static oap.logstream.disk.DiskLoggerBackend.DEFAULT_BUFFER;
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@Threads( 4 )
+public class DiskLoggerBackendBenchmark {
+    private static final String[] HEADERS = { "REQUEST_ID", "COUNT" };
+    private static final byte[][] TYPES = { { Types.STRING.id }, { Types.INTEGER.id } };
+
+    private Path directory;
+    private DiskLoggerBackend backend;
+    private Logger logger;
+    private byte[] rows;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = java.nio.file.Files.createTempDirectory( "disk-logger-benchmark" );
+        backend = new DiskLoggerBackend( new TemplateEngine( directory.resolve( "template-cache" ), Dates.d( 1 ) ),
+            directory.resolve( "logs" ), Timestamp.BPH_12, DEFAULT_BUFFER, "localhost" );
+        backend.start();
+        logger = new Logger( backend );
+
+        var lines = new ArrayList<List<Object>>();
+        for( int i = 0; i < 100; i++ ) lines.add( List.of( "request-" + i, i ) );
+        rows = Compression.gzip( RowBinaryUtils.lines( lines ) );
+    }
+
+    @TearDown
+    public void tearDown() {
+        backend.close();
+        Files.delete( directory );
+    }
+
+    @Benchmark
+    public String log() {
+        return logger.log( "benchmark", Map.of(), "log", HEADERS, TYPES, rows );
+    }
+}
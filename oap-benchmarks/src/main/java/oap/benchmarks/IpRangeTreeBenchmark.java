@@ -0,0 +1,122 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.net.IpRangeArray;
+import oap.net.IpRangeTree;
+import oap.net.Ipv6RangeArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class IpRangeTreeBenchmark {
+    @Param( { "100000" } )
+    public int ranges;
+
+    private IpRangeTree<Integer> tree;
+    private IpRangeArray<Integer> array;
+    private IpRangeArray<Integer> indexed;
+    private Ipv6RangeArray<Integer> ipv6;
+    private long[] addresses;
+
+    @Setup
+    public void setup() {
+        tree = new IpRangeTree<>( 8 );
+        var arrayBuilder = IpRangeArray.<Integer>builder();
+        var ipv6Builder = Ipv6RangeArray.<Integer>builder();
+
+        long step = ( 1L << 32 ) / ranges;
+        for( int i = 0; i < ranges; i++ ) {
+            tree.addRange( i * step, i * step + step / 2, i );
+            arrayBuilder.addRange( i * step, i * step + step / 2, i );
+            ipv6Builder.addIpv4Range( i * step, i * step + step / 2, i );
+        }
+        array = arrayBuilder.build();
+        indexed = arrayBuilder.build( 16 );
+        ipv6 = ipv6Builder.build();
+
+        var random = new Random( 1 );
+        addresses = new long[1024];
+        for( int i = 0; i < addresses.length; i++ ) addresses[i] = random.nextLong( 1L << 32 );
+    }
+
+    @Benchmark
+    public Integer lookUp() {
+        Integer last = null;
+        for( long address : addresses ) {
+            Integer v = tree.lookUp( address );
+            if( v != null ) last = v;
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Integer lookUpArray() {
+        Integer last = null;
+        for( long address : addresses ) {
+            Integer v = array.lookUp( address );
+            if( v != null ) last = v;
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Integer lookUpArrayIndexed() {
+        Integer last = null;
+        for( long address : addresses ) {
+            Integer v = indexed.lookUp( address );
+            if( v != null ) last = v;
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Integer lookUpIpv6Array() {
+        Integer last = null;
+        for( long address : addresses ) {
+            Integer v = ipv6.lookUpIpv4( address );
+            if( v != null ) last = v;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.http.Http;
+import oap.http.pniov3.PnioController;
+import oap.http.pniov3.PnioHttpHandler;
+import oap.http.pniov3.PnioListenerDefault;
+import oap.http.server.nio.NioHttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Full request cycle through {@link PnioHttpHandler}: undertow io thread, request buffer, compute task and response.
+ * Allocation numbers include the client side of the loopback call.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+@Threads( 8 )
+public class PnioBenchmark {
+    private static final byte[] RESPONSE = "ok".getBytes( UTF_8 );
+
+    private NioHttpServer server;
+    private PnioController controller;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setup() throws IOException {
+        int port;
+        try( var socket = new ServerSocket( 0 ) ) {
+            port = socket.getLocalPort();
+        }
+
+        server = new NioHttpServer( new NioHttpServer.DefaultPort( port ) );
+        server.ioThreads = 4;
+        server.start();
+
+        controller = new PnioController( 4, 1000 );
+        PnioHttpHandler<Object> handler = new PnioHttpHandler<>( "benchmark", exchange -> exchange.complete( response -> {
+            response.status = Http.StatusCode.OK;
+            response.contentType = Http.ContentType.TEXT_PLAIN;
+            response.responseBuffer.setAndResize( RESPONSE );
+        } ), new PnioListenerDefault<>(), controller );
+        server.bind( "/benchmark", exchange -> handler.handleRequest( exchange, 1000, new Object() ), false );
+
+        client = HttpClient.newBuilder().version( HttpClient.Version.HTTP_1_1 ).build();
+        request = HttpRequest.newBuilder( URI.create( "http://localhost:" + port + "/benchmark" ) )
+            .POST( HttpRequest.BodyPublishers.ofString( "{\"id\":\"benchmark\"}" ) )
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        controller.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int request() throws IOException, InterruptedException {
+        return client.send( request, HttpResponse.BodyHandlers.ofByteArray() ).statusCode();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.logstream.formats.rowbinary.RowBinaryInputStream;
+import oap.logstream.formats.rowbinary.RowBinaryOutputStream;
+import oap.template.Types;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.joda.time.DateTimeZone.UTC;
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class RowBinaryBenchmark {
+    private static final String[] HEADERS = { "ID", "COUNT", "TOTAL", "PRICE", "DATETIME" };
+    private static final byte[][] TYPES = {
+        { Types.STRING.id }, { Types.INTEGER.id }, { Types.LONG.id }, { Types.DOUBLE.id }, { Types.DATETIME.id }
+    };
+
+    @Param( { "1000" } )
+    public int rows;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DateTime dateTime = new DateTime( 2024, 1, 10, 12, 0, UTC );
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        data = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        buffer.reset();
+        var out = new RowBinaryOutputStream( buffer );
+        for( int i = 0; i < rows; i++ ) {
+            out.writeString( "id-" + ( i & 0xFF ) );
+            out.writeInt( i );
+            out.writeLong( i * 31L );
+            out.writeDouble( i * 0.5 );
+            out.writeDateTime( dateTime );
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public void read( Blackhole blackhole ) throws IOException {
+        var in = new RowBinaryInputStream( new ByteArrayInputStream( data ), HEADERS, TYPES );
+        List<Object> row;
+        while( ( row = in.readRow() ) != null ) blackhole.consume( row );
+    }
+}
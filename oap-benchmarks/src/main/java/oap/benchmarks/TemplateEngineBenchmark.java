@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.benchmarks;
+
+import oap.reflect.TypeRef;
+import oap.template.Template;
+import oap.template.TemplateAccumulatorString;
+import oap.template.TemplateEngine;
+import oap.util.Dates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static oap.template.TemplateAccumulators.STRING;
+
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TemplateEngineBenchmark {
+    private Template<Row, String, StringBuilder, TemplateAccumulatorString, ?> template;
+    private TemplateAccumulatorString acc;
+    private Row row;
+
+    @Setup
+    public void setup() throws IOException {
+        var engine = new TemplateEngine( Files.createTempDirectory( "template-benchmark" ), Dates.d( 1 ) );
+        template = engine.getTemplate( "benchmark", new TypeRef<Row>() {},
+            "{{ id }}\t{{ count }}\t{{ price }}\t{{ child.id ?? 'unknown' }}\t{{ flag }}", STRING, null, null );
+        acc = template.newAccumulator();
+
+        row = new Row();
+        row.id = "2b7f1c4e-8a7b-4d0e-9d6c-0f3a1e2b3c4d";
+        row.count = 42;
+        row.price = 3.1415;
+        row.flag = true;
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render( row ).get();
+    }
+
+    @Benchmark
+    public String renderTo() {
+        acc.reset();
+        return template.renderTo( row, false, acc ).get();
+    }
+
+    public static class Row {
+        public String id;
+        public int count;
+        public double price;
+        public boolean flag;
+        public Row child;
+    }
+}
@@ -33,6 +33,7 @@ import oap.io.Closeables;
 import oap.logstream.AbstractLoggerBackend;
 import oap.logstream.AvailabilityReport;
 import oap.logstream.LogId;
+import oap.logstream.LogIdCache;
 import oap.logstream.LogStreamProtocol.ProtocolVersion;
 import oap.logstream.net.BufferConfigurationMap;
 import oap.logstream.net.Buffers;
@@ -59,6 +60,8 @@ public class SocketLoggerBackend extends AbstractLoggerBackend {
     private final MessageSender sender;
     private final Scheduled scheduled;
     private final Buffers buffers;
+    @ToString.Exclude
+    private final LogIdCache logIds = new LogIdCache();
     public int maxBuffers = 5000;
     private volatile boolean closed = false;
 
@@ -110,7 +113,7 @@ public class SocketLoggerBackend extends AbstractLoggerBackend {
     @Override
     public String log( ProtocolVersion version, String hostName, String filePreffix, Map<String, String> properties, String logType,
                        String[] headers, byte[][] types, byte[] buffer, int offset, int length ) {
-        LogId logId = new LogId( filePreffix, logType, hostName, properties, headers, types );
+        LogId logId = logIds.get( filePreffix, logType, hostName, properties, headers, types );
         buffers.put( logId, version, buffer, offset, length );
         return logId.toString();
     }
@@ -23,6 +23,9 @@
  */
 package oap.logstream.net.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import lombok.extern.slf4j.Slf4j;
 import oap.logstream.AbstractLoggerBackend;
 import oap.logstream.LogStreamProtocol;
@@ -30,21 +33,41 @@ import oap.logstream.LogStreamProtocol.ProtocolVersion;
 import oap.logstream.LoggerException;
 import oap.message.server.MessageListener;
 
+import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static oap.logstream.LogStreamProtocol.MESSAGE_TYPE;
 
+/**
+ * The frame is parsed in place and the compressed payload is passed to the backend as a slice of the received
+ * message. A client sends the same header block (file prefix, log type, headers, types, properties) with every buffer
+ * of a log, so decoded header blocks are cached by their digest and reused as long as the bytes match.
+ */
 @Slf4j
 public class SocketLoggerServer implements MessageListener, Closeable {
     private final AbstractLoggerBackend backend;
+    @Nullable
+    private final Cache<Long, Header> headerCache;
 
     public SocketLoggerServer( AbstractLoggerBackend backend ) {
+        this( backend, 1024 );
+    }
+
+    /**
+     * @param headerCacheSize number of distinct header blocks to keep decoded, 0 disables the cache
+     */
+    public SocketLoggerServer( AbstractLoggerBackend backend, int headerCacheSize ) {
         this.backend = backend;
+        this.headerCache = headerCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize( headerCacheSize ).build() : null;
     }
 
     @Override
@@ -62,14 +85,14 @@ public class SocketLoggerServer implements MessageListener, Closeable {
         if( !backend.isLoggingAvailable() ) {
             return LogStreamProtocol.STATUS_BACKEND_LOGGER_NOT_AVAILABLE;
         }
-        try( DataInputStream in = new DataInputStream( new ByteArrayInputStream( data ) ) ) {
+        try {
             switch( protocolVersion ) {
-                case 1, 2, 3 -> readBinaryV3( ProtocolVersion.valueOf( protocolVersion ), hostName, in );
+                case 1, 2, 3 -> readBinaryV3( ProtocolVersion.valueOf( protocolVersion ), data );
                 default -> {
                     return LogStreamProtocol.INVALID_VERSION;
                 }
             }
-        } catch( EOFException e ) {
+        } catch( EOFException | BufferUnderflowException e ) {
             log.debug( "[" + hostName + "] " + " ended, closed" );
             throw new LoggerException( e );
         } catch( LoggerException e ) {
@@ -83,39 +106,101 @@ public class SocketLoggerServer implements MessageListener, Closeable {
         return LogStreamProtocol.STATUS_OK;
     }
 
-    private void readBinaryV3( ProtocolVersion version, String hostName, DataInputStream in ) throws IOException {
-        in.readLong(); // digestion control
-        int length = in.readInt();
-        String filePreffix = in.readUTF();
-        String logType = in.readUTF();
-        String clientHostname = in.readUTF();
+    private void readBinaryV3( ProtocolVersion version, byte[] data ) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap( data );
+        in.getLong(); // digestion control
+        int length = in.getInt();
+
+        int headerStart = in.position();
+        skipHeader( in );
+        int headerEnd = in.position();
+
+        if( length > in.remaining() )
+            throw new EOFException( "payload length " + length + ", available " + in.remaining() );
+
+        Header header = header( data, headerStart, headerEnd );
+
+        backend.log( version, header.clientHostname, header.filePreffix, header.properties, header.logType, header.headers, header.types,
+            data, headerEnd, length );
+    }
+
+    private Header header( byte[] data, int start, int end ) throws IOException {
+        if( headerCache == null ) return readHeader( ByteBuffer.wrap( data, start, end - start ), null );
+
+        long digest = Hashing.murmur3_128().hashBytes( data, start, end - start ).asLong();
+        Header header = headerCache.getIfPresent( digest );
+        if( header != null && Arrays.equals( header.raw, 0, header.raw.length, data, start, end ) ) return header;
+
+        header = readHeader( ByteBuffer.wrap( data, start, end - start ), Arrays.copyOfRange( data, start, end ) );
+        headerCache.put( digest, header );
+        return header;
+    }
+
+    private static void skipHeader( ByteBuffer in ) {
+        skipUTF( in ); // file prefix
+        skipUTF( in ); // log type
+        skipUTF( in ); // client hostname
 
-        int headersSize = in.readInt();
+        int headersSize = in.getInt();
+        for( int i = 0; i < headersSize; i++ ) skipUTF( in );
+        for( int i = 0; i < headersSize; i++ ) skip( in, in.get() );
+
+        byte propertiesSize = in.get();
+        for( int i = 0; i < propertiesSize * 2; i++ ) skipUTF( in );
+    }
+
+    private static Header readHeader( ByteBuffer in, byte[] raw ) throws IOException {
+        String filePreffix = readUTF( in );
+        String logType = readUTF( in );
+        String clientHostname = readUTF( in );
+
+        int headersSize = in.getInt();
         String[] headers = new String[headersSize];
         for( int i = 0; i < headersSize; i++ ) {
-            headers[i] = in.readUTF();
+            headers[i] = readUTF( in );
         }
 
         byte[][] types = new byte[headersSize][];
         for( int x = 0; x < headersSize; x++ ) {
-            byte tSize = in.readByte();
-            byte[] t = new byte[tSize];
-            for( int y = 0; y < tSize; y++ ) {
-                t[y] = in.readByte();
-            }
+            byte[] t = new byte[in.get()];
+            in.get( t );
             types[x] = t;
         }
 
-        byte propertiesSize = in.readByte();
-        LinkedHashMap<String, String> properties = new LinkedHashMap<String, String>();
+        byte propertiesSize = in.get();
+        LinkedHashMap<String, String> properties = new LinkedHashMap<>();
         for( int i = 0; i < propertiesSize; i++ ) {
-            properties.put( in.readUTF(), in.readUTF() );
+            properties.put( readUTF( in ), readUTF( in ) );
         }
 
-        byte[] compressedBuffer = new byte[length];
-        in.readFully( compressedBuffer, 0, length );
+        return new Header( raw, filePreffix, logType, clientHostname, headers, types, properties );
+    }
 
-        backend.log( version, clientHostname, filePreffix, properties, logType, headers, types, compressedBuffer, 0, length );
+    private static void skipUTF( ByteBuffer in ) {
+        skip( in, Short.toUnsignedInt( in.getShort() ) );
+    }
+
+    private static void skip( ByteBuffer in, int length ) {
+        if( length < 0 || length > in.remaining() ) throw new BufferUnderflowException();
+        in.position( in.position() + length );
+    }
+
+    /**
+     * Same as {@link DataInputStream#readUTF()}. Modified UTF-8 equals ASCII for bytes 0x01..0x7f, which is what
+     * header names and properties almost always are.
+     */
+    private static String readUTF( ByteBuffer in ) throws IOException {
+        int length = Short.toUnsignedInt( in.getShort() );
+        int start = in.position();
+        skip( in, length );
+
+        byte[] data = in.array();
+        int offset = in.arrayOffset() + start;
+        for( int i = offset; i < offset + length; i++ ) {
+            if( data[i] <= 0 )
+                return new DataInputStream( new ByteArrayInputStream( data, offset - 2, length + 2 ) ).readUTF();
+        }
+        return new String( data, offset, length, ISO_8859_1 );
     }
 
     @Override
@@ -123,4 +208,8 @@ public class SocketLoggerServer implements MessageListener, Closeable {
 //        @ToDo consider closing backend
 //        backend.close();
     }
+
+    private record Header( byte[] raw, String filePreffix, String logType, String clientHostname,
+                           String[] headers, byte[][] types, LinkedHashMap<String, String> properties ) {
+    }
 }
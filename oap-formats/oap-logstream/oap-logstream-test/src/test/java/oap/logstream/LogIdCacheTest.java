@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.logstream;
+
+import oap.template.Types;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogIdCacheTest {
+    @Test
+    public void canonical() {
+        var cache = new LogIdCache( 16 );
+        var headers = new String[] { "h1" };
+        var types = new byte[][] { new byte[] { Types.STRING.id } };
+        var properties = new HashMap<String, String>();
+        properties.put( "p", "1" );
+
+        LogId id = cache.get( "ln", "lt", "chn", properties, headers, types );
+        assertThat( cache.get( "ln", "lt", "chn", Map.of( "p", "1" ), headers, types ) ).isSameAs( id );
+
+        properties.put( "p", "2" );
+        LogId changed = cache.get( "ln", "lt", "chn", properties, headers, types );
+        assertThat( changed ).isNotSameAs( id ).isNotEqualTo( id );
+        assertThat( changed.properties ).containsEntry( "p", "2" );
+
+        LogId otherHost = cache.get( "ln", "lt", "chn2", properties, headers, types );
+        assertThat( otherHost.clientHostname ).isEqualTo( "chn2" );
+        assertThat( otherHost ).isEqualTo( changed );
+
+        LogId copy = cache.get( "ln", "lt", "chn", Map.of( "p", "2" ), new String[] { "h1" }, new byte[][] { new byte[] { Types.STRING.id } } );
+        assertThat( copy ).isEqualTo( changed );
+        assertThat( copy.hashCode() ).isEqualTo( changed.hashCode() );
+        assertThat( copy.getHash() ).isEqualTo( changed.getHash() );
+    }
+}
@@ -64,4 +64,13 @@ public class LogIdTest {
         assertThat( lid1 ).isEqualTo( lid7 );
         assertThat( lid7 ).isNotEqualTo( lid8 );
     }
+
+    @Test
+    public void cachedValues() {
+        var lid = new LogId( "ln", "lt", "chn", Map.of( "p", "v" ), new String[] { "h1" }, new byte[][] { new byte[] { Types.STRING.id } } );
+
+        assertThat( lid.getHash() ).isEqualTo( lid.getHash() );
+        assertThat( lid.toString() ).isSameAs( lid.toString() );
+        assertThat( lid ).hasToString( "LogId(logType=lt, clientHostname=chn, types=[[" + Types.STRING.id + "]], headers=[h1], filePrefixPattern=ln, properties={p=v})" );
+    }
 }
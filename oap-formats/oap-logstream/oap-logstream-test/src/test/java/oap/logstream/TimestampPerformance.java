@@ -24,6 +24,7 @@
 
 package oap.logstream;
 
+import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
 import static oap.benchmark.Benchmark.benchmark;
@@ -37,4 +38,13 @@ public class TimestampPerformance {
             () -> Timestamp.directoryName( "2015-12-03-11-05" ) )
             .run();
     }
+
+    @Test( enabled = false )
+    public void format() {
+        DateTime date = DateTime.now();
+        benchmark( "format",
+            1000000,
+            () -> Timestamp.BPH_12.format( date ) )
+            .run();
+    }
 }
@@ -146,6 +146,45 @@ public class TimestampTest {
             .contains( new DateTime( 2016, 2, 1, 1, 0, UTC ) );
     }
 
+    @Test
+    public void parsePathWithoutTimestamp() {
+        assertThat( Timestamp.BPH_12.parse( Paths.get( "/tmp/test/2016-02/01/file.tsv.gz" ) ) ).isEmpty();
+        assertThat( Timestamp.BPH_12.parse( Paths.get( "/tmp/test/2016-02/01/-2016-02-01-01-00.tsv.gz" ) ) ).isEmpty();
+        assertThat( Timestamp.BPH_12.parse( Paths.get( "/tmp/test/2016-02/01/file-2016-02-01-01-00" ) ) ).isEmpty();
+        assertThat( Timestamp.BPH_12.parse( Paths.get( "/tmp/test/2016-02/01/file-2016-02-01-01-0x.tsv" ) ) ).isEmpty();
+    }
+
+    @Test
+    public void parsePathTakesLastTimestamp() {
+        assertThat( Timestamp.BPH_12.parse( Paths.get( "file-2016-02-01-01-00.x-2017-03-02-02-01.tsv.gz" ) ) )
+            .contains( new DateTime( 2017, 3, 2, 2, 5, UTC ) );
+    }
+
+    @Test
+    public void bucketId() {
+        DateTime date = new DateTime( 2015, 12, 3, 11, 28, 30, UTC );
+        long bucketId = Timestamp.BPH_12.bucketId( date.getMillis() );
+
+        assertThat( bucketId ).isEqualTo( date.getMillis() / 3_600_000L * 12 + 5 );
+        assertThat( Timestamp.BPH_12.bucketId( new DateTime( 2015, 12, 3, 11, 25, UTC ).getMillis() ) ).isEqualTo( bucketId );
+        assertThat( Timestamp.BPH_12.bucketId( new DateTime( 2015, 12, 3, 11, 30, UTC ).getMillis() ) ).isEqualTo( bucketId + 1 );
+        assertThat( Timestamp.BPH_12.format( bucketId ) ).isEqualTo( "2015-12-03-11-05" );
+        assertThat( Timestamp.BPH_12.format( bucketId - 6 ) ).isEqualTo( "2015-12-03-10-11" );
+    }
+
+    @Test
+    public void formatCachedBuckets() {
+        Timestamp timestamp = new Timestamp( 12 );
+        DateTime date = new DateTime( 2015, 12, 3, 11, 28, 30, UTC );
+
+        String current = timestamp.format( date );
+        String previous = timestamp.format( date.minusMinutes( 5 ) );
+        assertThat( timestamp.format( date.plusSeconds( 10 ) ) ).isSameAs( current ).isEqualTo( "2015-12-03-11-05" );
+        assertThat( timestamp.format( date.minusMinutes( 4 ) ) ).isSameAs( previous ).isEqualTo( "2015-12-03-11-04" );
+        assertThat( timestamp.format( date.minusHours( 1 ) ) ).isEqualTo( "2015-12-03-10-05" );
+        assertThat( timestamp.format( date.plusMinutes( 5 ) ) ).isEqualTo( "2015-12-03-11-06" );
+    }
+
     @Test
     public void testToStartOfBucket() {
         assertThat( Timestamp.BPH_6.toStartOfBucket( new DateTime( 2025, 4, 5, 15, 20, 0, 0, UTC ) ) )
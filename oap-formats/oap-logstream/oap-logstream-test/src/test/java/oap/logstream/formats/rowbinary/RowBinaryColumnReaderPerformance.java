@@ -0,0 +1,89 @@
+package oap.logstream.formats.rowbinary;
+
+import oap.io.Files;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static oap.benchmark.Benchmark.benchmark;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.joda.time.DateTimeZone.UTC;
+
+@Test( enabled = false )
+public class RowBinaryColumnReaderPerformance extends Fixtures {
+    private static final int ROWS = 1_000_000;
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public RowBinaryColumnReaderPerformance() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    private Path sample() throws IOException {
+        var baos = new ByteArrayOutputStream();
+        try( var out = new RowBinaryOutputStream( baos, List.of( "a", "b", "c", "dt", "list" ), null ) ) {
+            out.writeString( "String" );
+            out.writeString( "Int32" );
+            out.writeString( "Int64" );
+            out.writeString( "DateTime" );
+            out.writeString( "Array(String)" );
+
+            var dt = new DateTime( 2024, 1, 1, 0, 0, UTC );
+            for( int i = 0; i < ROWS; i++ ) {
+                out.writeString( "value" + ( i % 1000 ) );
+                out.writeInt( i );
+                out.writeLong( i * 7L );
+                out.writeDateTime( dt );
+                out.writeList( List.of( "1", "2" ) );
+            }
+        }
+
+        Path file = testDirectoryFixture.testPath( "data.rb" );
+        Files.write( file, baos.toByteArray() );
+        return file;
+    }
+
+    @Test( enabled = false )
+    public void read() throws IOException {
+        Path file = sample();
+
+        benchmark( "readRow", 10, () -> {
+            long sum = 0;
+            try( InputStream in = new BufferedInputStream( java.nio.file.Files.newInputStream( file ) ) ) {
+                var rb = new RowBinaryInputStream( in );
+                List<Object> row;
+                while( ( row = rb.readRow() ) != null ) sum += ( Integer ) row.get( 1 );
+            }
+            assertThat( sum ).isPositive();
+        } ).experiments( 5 ).run();
+
+        benchmark( "column-stream", 10, () -> {
+            long sum = 0;
+            try( var reader = RowBinaryColumnReader.of( java.nio.file.Files.newInputStream( file ), 4096, "b" ) ) {
+                while( reader.next() ) {
+                    var b = reader.column( 0 );
+                    for( int row = 0; row < reader.size(); row++ ) sum += b.getInt( row );
+                }
+            }
+            assertThat( sum ).isPositive();
+        } ).experiments( 5 ).run();
+
+        benchmark( "column-map", 10, () -> {
+            long sum = 0;
+            try( var reader = RowBinaryColumnReader.map( file, 4096, "b" ) ) {
+                while( reader.next() ) {
+                    var b = reader.column( 0 );
+                    for( int row = 0; row < reader.size(); row++ ) sum += b.getInt( row );
+                }
+            }
+            assertThat( sum ).isPositive();
+        } ).experiments( 5 ).run();
+    }
+}
@@ -0,0 +1,117 @@
+package oap.logstream.formats.rowbinary;
+
+import oap.io.Files;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.joda.time.DateTime;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.joda.time.DateTimeZone.UTC;
+
+public class RowBinaryColumnReaderTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public RowBinaryColumnReaderTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    private static byte[] sample( int rows ) throws IOException {
+        var baos = new ByteArrayOutputStream();
+        try( var out = new RowBinaryOutputStream( baos, List.of( "s", "i", "n", "dt", "l", "d" ), null ) ) {
+            out.writeString( "String" );
+            out.writeString( "Int32" );
+            out.writeString( "Nullable(Int64)" );
+            out.writeString( "DateTime" );
+            out.writeString( "Array(String)" );
+            out.writeString( "Float64" );
+
+            for( int i = 0; i < rows; i++ ) {
+                out.writeString( "str" + i );
+                out.writeInt( i );
+                if( i % 2 == 0 ) {
+                    out.writeBoolean( true );
+                } else {
+                    out.writeBoolean( false );
+                    out.writeLong( i * 10L );
+                }
+                out.writeDateTime( new DateTime( 2024, 1, 1, 0, 0, i % 60, UTC ) );
+                out.writeList( List.of( "a" + i, "b" ) );
+                out.writeDouble( i / 2.0 );
+            }
+        }
+
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testReadAll() throws IOException {
+        byte[] bytes = sample( 10 );
+
+        var rows = new ArrayList<List<Object>>();
+        try( var reader = RowBinaryColumnReader.of( new ByteArrayInputStream( bytes ), 3 ) ) {
+            assertThat( reader.columns() ).isEqualTo( 6 );
+
+            while( reader.next() ) {
+                assertThat( reader.size() ).isLessThanOrEqualTo( 3 );
+                for( int row = 0; row < reader.size(); row++ ) {
+                    var values = new ArrayList<>();
+                    for( int col = 0; col < reader.columns(); col++ ) values.add( reader.column( col ).get( row ) );
+                    rows.add( values );
+                }
+            }
+        }
+
+        assertThat( rows ).isEqualTo( RowBinaryUtils.read( bytes ) );
+    }
+
+    @Test
+    public void testProjection() throws IOException {
+        byte[] bytes = sample( 5 );
+
+        try( var reader = RowBinaryColumnReader.of( new ByteArrayInputStream( bytes ), 100, "d", "n", "s" ) ) {
+            assertThat( reader.next() ).isTrue();
+            assertThat( reader.size() ).isEqualTo( 5 );
+
+            var d = reader.column( "d" );
+            var n = reader.column( 1 );
+            var s = reader.column( "s" );
+
+            assertThat( d.getDouble( 3 ) ).isEqualTo( 1.5 );
+            assertThat( n.isNull( 2 ) ).isTrue();
+            assertThat( n.isNull( 3 ) ).isFalse();
+            assertThat( n.getLong( 3 ) ).isEqualTo( 30L );
+            assertThat( s.getString( 4 ) ).isEqualTo( "str4" );
+            assertThat( s.stringEquals( 4, "str4".getBytes() ) ).isTrue();
+
+            assertThat( reader.next() ).isFalse();
+        }
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        byte[] bytes = sample( 1000 );
+        Path file = testDirectoryFixture.testPath( "data.rb" );
+        Files.write( file, bytes );
+
+        long sum = 0;
+        int count = 0;
+        try( var reader = RowBinaryColumnReader.map( file, 128, "i", "dt" ) ) {
+            while( reader.next() ) {
+                var i = reader.column( "i" );
+                for( int row = 0; row < reader.size(); row++ ) sum += i.getInt( row );
+                count += reader.size();
+            }
+        }
+
+        assertThat( count ).isEqualTo( 1000 );
+        assertThat( sum ).isEqualTo( 999L * 1000 / 2 );
+    }
+}
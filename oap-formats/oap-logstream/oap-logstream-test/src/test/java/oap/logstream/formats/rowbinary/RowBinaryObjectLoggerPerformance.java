@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.logstream.formats.rowbinary;
+
+import oap.dictionary.DictionaryParser;
+import oap.logstream.NullLoggerBackend;
+import oap.logstream.formats.rowbinary.RowBinaryObjectLoggerTest.TestData;
+import oap.reflect.TypeRef;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import oap.util.Dates;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static oap.benchmark.Benchmark.benchmark;
+
+@Test( enabled = false )
+public class RowBinaryObjectLoggerPerformance extends Fixtures {
+    private static final int SAMPLES = 1_000_000;
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public RowBinaryObjectLoggerPerformance() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    private static long allocatedBytes() {
+        return ( ( com.sun.management.ThreadMXBean ) ManagementFactory.getThreadMXBean() ).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test( enabled = false )
+    public void log() {
+        String datamodel = """
+            name = model
+            values {
+              MODEL1 {
+                values {
+                  a {
+                    path = a
+                    type = STRING
+                    default = ""
+                  }
+                  b {
+                    path = b
+                    type = INTEGER
+                    default = 0
+                  }
+                  list {
+                    path = data1.list
+                    type = STRING_ARRAY
+                    default = []
+                  }
+                }
+              }
+            }
+            """;
+
+        var binaryObjectLogger = new RowBinaryObjectLogger( DictionaryParser.parseFromString( datamodel ), new NullLoggerBackend(),
+            testDirectoryFixture.testPath( "file-cache" ), Dates.d( 10 ) );
+        RowBinaryObjectLogger.TypedRowBinaryLogger<TestData> logger = binaryObjectLogger.typed( new TypeRef<>() {}, "MODEL1", false );
+        var data = new TestData( "value", "value2", 12, List.of( "1", "2" ), null, Map.of() );
+
+        benchmark( "log", SAMPLES, () -> logger.log( data, "prefix", Map.of(), "log" ) )
+            .experiments( 5 )
+            .run();
+
+        long start = allocatedBytes();
+        for( int i = 0; i < SAMPLES; i++ ) logger.log( data, "prefix", Map.of(), "log" );
+        System.out.println( "allocated " + ( allocatedBytes() - start ) / SAMPLES + " bytes/row" );
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.logstream.net.server;
+
+import oap.logstream.LogId;
+import oap.logstream.LogStreamProtocol;
+import oap.logstream.LoggerException;
+import oap.logstream.MemoryLoggerBackend;
+import oap.template.Types;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SocketLoggerServerTest {
+    @DataProvider
+    public Object[][] headerCacheSize() {
+        return new Object[][] { { 0 }, { 16 } };
+    }
+
+    @Test( dataProvider = "headerCacheSize" )
+    public void payloadSlice( int headerCacheSize ) throws IOException {
+        MemoryLoggerBackend backend = new MemoryLoggerBackend();
+        SocketLoggerServer server = new SocketLoggerServer( backend, headerCacheSize );
+
+        LogId id1 = new LogId( "prefix", "type", "client", Map.of( "p", "значение" ),
+            new String[] { "h1", "h2" }, new byte[][] { new byte[] { Types.STRING.id }, new byte[] { Types.LIST.id, Types.INTEGER.id } } );
+        LogId id2 = new LogId( "prefix", "type2", "client", Map.of(),
+            new String[] { "h1" }, new byte[][] { new byte[] { Types.STRING.id } } );
+
+        assertThat( run( server, frame( id1, "abc" ) ) ).isEqualTo( LogStreamProtocol.STATUS_OK );
+        assertThat( run( server, frame( id1, "def" ) ) ).isEqualTo( LogStreamProtocol.STATUS_OK );
+        assertThat( run( server, frame( id2, "ghi" ) ) ).isEqualTo( LogStreamProtocol.STATUS_OK );
+
+        assertThat( backend.logs() ).containsOnlyKeys( id1, id2 );
+        assertThat( new String( backend.loggedBytes( id1 ), UTF_8 ) ).isEqualTo( "abcdef" );
+        assertThat( new String( backend.loggedBytes( id2 ), UTF_8 ) ).isEqualTo( "ghi" );
+    }
+
+    @Test
+    public void truncatedFrame() throws IOException {
+        SocketLoggerServer server = new SocketLoggerServer( new MemoryLoggerBackend() );
+
+        LogId id = new LogId( "prefix", "type", "client", Map.of(), new String[] { "h1" }, new byte[][] { new byte[] { Types.STRING.id } } );
+        byte[] frame = frame( id, "abc" );
+        byte[] truncated = new byte[frame.length - 1];
+        System.arraycopy( frame, 0, truncated, 0, truncated.length );
+
+        assertThatThrownBy( () -> run( server, truncated ) ).isInstanceOf( LoggerException.class );
+    }
+
+    private static short run( SocketLoggerServer server, byte[] frame ) {
+        return server.run( LogStreamProtocol.ProtocolVersion.BINARY_V2.version, "localhost", frame.length, frame, "md5" );
+    }
+
+    private static byte[] frame( LogId id, String payload ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+        byte[] data = payload.getBytes( UTF_8 );
+
+        out.writeLong( 1 );
+        out.writeInt( data.length );
+        out.writeUTF( id.filePrefixPattern );
+        out.writeUTF( id.logType );
+        out.writeUTF( id.clientHostname );
+        out.writeInt( id.headers.length );
+        for( String header : id.headers ) out.writeUTF( header );
+        for( byte[] type : id.types ) {
+            out.writeByte( type.length );
+            out.write( type );
+        }
+        out.writeByte( id.properties.size() );
+        for( Map.Entry<String, String> property : id.properties.entrySet() ) {
+            out.writeUTF( property.getKey() );
+            out.writeUTF( property.getValue() );
+        }
+        out.write( data );
+
+        return bytes.toByteArray();
+    }
+}
@@ -26,8 +26,6 @@ package oap.logstream;
 
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
-import lombok.EqualsAndHashCode;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serial;
@@ -35,12 +33,17 @@ import java.io.Serializable;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-
-@ToString
-@EqualsAndHashCode( exclude = "clientHostname" )
+/**
+ * Immutable: {@code headers}, {@code types} and {@code properties} must not be modified after construction.
+ * {@link #hashCode()}, {@link #getHash()} and {@link #toString()} are computed once.
+ * {@code clientHostname} is not part of the identity.
+ *
+ * @see LogIdCache
+ */
 @Slf4j
 public class LogId implements Serializable {
     @Serial
@@ -54,6 +57,10 @@ public class LogId implements Serializable {
     public final String filePrefixPattern;
     public final LinkedHashMap<String, String> properties = new LinkedHashMap<>();
 
+    private transient int hashCode;
+    private transient int hash;
+    private transient String string;
+
     public LogId( String filePrefixPattern, String logType, String clientHostname,
                   Map<String, String> properties,
                   String[] headers,
@@ -69,11 +76,57 @@ public class LogId implements Serializable {
     }
 
     public int getHash() {
-        Hasher hasher = Hashing.murmur3_32_fixed().newHasher();
+        int h = hash;
+        if( h == 0 ) {
+            Hasher hasher = Hashing.murmur3_32_fixed().newHasher();
+
+            for( String header : headers ) hasher.putString( header, UTF_8 );
+            for( byte[] type : types ) hasher.putBytes( type );
 
-        for( String header : headers ) hasher.putString( header, UTF_8 );
-        for( byte[] type : types ) hasher.putBytes( type );
+            hash = h = hasher.hash().asInt();
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if( this == o ) return true;
+        if( !( o instanceof LogId logId ) ) return false;
+
+        return hashCode() == logId.hashCode()
+            && Objects.equals( logType, logId.logType )
+            && Objects.equals( filePrefixPattern, logId.filePrefixPattern )
+            && Arrays.equals( headers, logId.headers )
+            && Arrays.deepEquals( types, logId.types )
+            && properties.equals( logId.properties );
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hashCode;
+        if( h == 0 ) {
+            h = Objects.hashCode( logType );
+            h = h * 31 + Arrays.deepHashCode( types );
+            h = h * 31 + Arrays.hashCode( headers );
+            h = h * 31 + Objects.hashCode( filePrefixPattern );
+            h = h * 31 + properties.hashCode();
+            hashCode = h;
+        }
+        return h;
+    }
 
-        return hasher.hash().asInt();
+    @Override
+    public String toString() {
+        String s = string;
+        if( s == null ) {
+            s = "LogId(logType=" + logType
+                + ", clientHostname=" + clientHostname
+                + ", types=" + Arrays.deepToString( types )
+                + ", headers=" + Arrays.deepToString( headers )
+                + ", filePrefixPattern=" + filePrefixPattern
+                + ", properties=" + properties + ")";
+            string = s;
+        }
+        return s;
     }
 }
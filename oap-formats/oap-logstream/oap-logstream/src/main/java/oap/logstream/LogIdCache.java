@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.logstream;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Returns the same {@link LogId} instance for repeated {@code log} calls with the same arguments, so the hot path
+ * neither builds a new {@link LogId} nor deep-hashes it, and lookups keyed by the canonical instance succeed on the
+ * identity check in {@link LogId#equals(Object)}.
+ * <p>
+ * A direct-mapped table: the slot is chosen by the file prefix, log type and the identity of the {@code headers} array.
+ * {@code headers} and {@code types} are compared by identity (a {@link LogId} keeps them by reference anyway),
+ * {@code properties} by value because callers may reuse a mutable map. A miss or a collision creates a new
+ * {@link LogId} and replaces the slot. Thread-safe without locks: a slot holds an immutable {@link LogId}.
+ */
+public class LogIdCache {
+    private final LogId[] ids;
+    private final int mask;
+
+    public LogIdCache() {
+        this( 256 );
+    }
+
+    /**
+     * @param size number of slots, a power of 2
+     */
+    public LogIdCache( int size ) {
+        Preconditions.checkArgument( size > 0 && Integer.bitCount( size ) == 1, "size must be a power of 2" );
+
+        this.ids = new LogId[size];
+        this.mask = size - 1;
+    }
+
+    public LogId get( String filePreffix, String logType, String clientHostname, Map<String, String> properties,
+                      String[] headers, byte[][] types ) {
+        int h = ( Objects.hashCode( filePreffix ) * 31 + Objects.hashCode( logType ) ) * 31 + System.identityHashCode( headers );
+        int slot = ( h ^ ( h >>> 16 ) ) & mask;
+
+        LogId id = ids[slot];
+        if( id != null
+            && id.headers == headers && id.types == types
+            && Objects.equals( id.filePrefixPattern, filePreffix )
+            && Objects.equals( id.logType, logType )
+            && Objects.equals( id.clientHostname, clientHostname )
+            && id.properties.equals( properties ) ) return id;
+
+        id = new LogId( filePreffix, logType, clientHostname, properties, headers, types );
+        ids[slot] = id;
+        return id;
+    }
+}
@@ -8,10 +8,12 @@ import oap.logstream.LogStreamProtocol.ProtocolVersion;
 import java.util.Map;
 
 public class NullLoggerBackend extends AbstractLoggerBackend {
+    private final LogIdCache logIds = new LogIdCache();
+
     @Override
     public String log( ProtocolVersion protocolVersion, String hostName, String filePreffix, Map<String, String> properties, String logType,
                        String[] headers, byte[][] types, byte[] row, int offset, int length ) {
-        LogId logId = new LogId( filePreffix, logType, hostName, properties, headers, types );
+        LogId logId = logIds.get( filePreffix, logType, hostName, properties, headers, types );
         return logId.toString();
     }
 
@@ -27,22 +27,41 @@ package oap.logstream;
 import oap.net.Inet;
 import oap.template.DictionaryTemplate;
 import oap.template.TemplateAccumulator;
+import oap.util.FastByteArrayOutputStream;
 
 import java.util.Map;
 
 import static oap.logstream.LogStreamProtocol.CURRENT_PROTOCOL_VERSION;
 
 public class TemplateLogger<F, TOut, TMutable, TA extends TemplateAccumulator<TOut, TMutable, TA>> extends Logger {
+    /**
+     * Larger per-thread render buffers are dropped after use instead of being kept for the next row.
+     */
+    public static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
     protected final DictionaryTemplate<F, TOut, TMutable, TA> dictionaryTemplate;
+    private final ThreadLocal<TA> accumulator;
+    private final ThreadLocal<FastByteArrayOutputStream> buffer = ThreadLocal.withInitial( FastByteArrayOutputStream::new );
 
     public TemplateLogger( AbstractLoggerBackend backend, DictionaryTemplate<F, TOut, TMutable, TA> dictionaryTemplate ) {
         super( backend );
         this.dictionaryTemplate = dictionaryTemplate;
+        this.accumulator = ThreadLocal.withInitial( dictionaryTemplate.templateFunction::newAccumulator );
     }
 
     public void log( String filePreffix, Map<String, String> properties, String logType, F obj ) {
-        var row = dictionaryTemplate.templateFunction.render( obj, true ).getBytes();
-        backend.log( CURRENT_PROTOCOL_VERSION, Inet.HOSTNAME, filePreffix, properties, logType, dictionaryTemplate.headers, dictionaryTemplate.types, row );
+        TA acc = accumulator.get();
+        FastByteArrayOutputStream out = buffer.get();
+        acc.reset();
+        out.reset();
+
+        dictionaryTemplate.templateFunction.renderTo( obj, true, acc ).writeTo( out );
+        backend.log( CURRENT_PROTOCOL_VERSION, Inet.HOSTNAME, filePreffix, properties, logType, dictionaryTemplate.headers, dictionaryTemplate.types, out.array, 0, out.length );
+
+        if( out.array.length > MAX_RETAINED_BUFFER ) {
+            buffer.remove();
+            accumulator.remove();
+        }
     }
 
     public boolean isLoggingAvailable() {
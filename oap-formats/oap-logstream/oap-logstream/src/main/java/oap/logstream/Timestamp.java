@@ -24,7 +24,6 @@
 package oap.logstream;
 
 import oap.util.Stream;
-import org.apache.commons.io.FilenameUtils;
 import org.joda.time.DateTime;
 import org.joda.time.base.AbstractInstant;
 import org.joda.time.format.DateTimeFormat;
@@ -33,13 +32,19 @@ import org.joda.time.format.DateTimeFormatter;
 import java.io.Serial;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.Optional;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 import static org.joda.time.DateTimeZone.UTC;
 
+/**
+ * A bucket is identified by a {@code long} id, {@code hours since epoch * bucketsPerHour + bucket of the hour}, computed
+ * from epoch millis with integer arithmetic. Time is always taken in UTC. The formatted timestamps of the two most
+ * recent buckets are cached, so writers formatting the current time get the same string without formatting it again.
+ * File names are parsed without regular expressions.
+ */
 public class Timestamp implements Serializable {
     @Serial
     private static final long serialVersionUID = 2253058730098056001L;
@@ -59,7 +64,16 @@ public class Timestamp implements Serializable {
     public static final Timestamp BPH_2 = new Timestamp( 60 / 30 );
     public static final Timestamp BPH_1 = new Timestamp( 60 / 60 );
 
+    private static final long HOUR = 60L * 60L * 1000L;
+    private static final long MINUTE = 60L * 1000L;
+    /**
+     * yyyy-MM-dd-HH-bb
+     */
+    private static final int TIMESTAMP_LENGTH = 16;
+
     public final int bucketsPerHour;
+    private transient volatile Formatted current;
+    private transient volatile Formatted previous;
 
     public Timestamp( int bucketsPerHour ) {
         this.bucketsPerHour = bucketsPerHour;
@@ -67,26 +81,56 @@ public class Timestamp implements Serializable {
 
     @Deprecated
     public static String parseTimestamp( String fileName ) {
-        final Matcher matcher = FILE_NAME_WITH_TIMESTAMP.matcher( fileName );
-        if( matcher.find() ) return matcher.group( 1 );
+        int index = timestampIndex( fileName );
+        if( index >= 0 ) return fileName.substring( index, index + TIMESTAMP_LENGTH );
         else throw new RuntimeException( "cannot parse template's timestamp from: " + fileName );
     }
 
+    /**
+     * Same as {@link #FILE_NAME_WITH_TIMESTAMP}: the last {@code -yyyy-MM-dd-HH-bb.} preceded and followed by
+     * at least one character.
+     *
+     * @return the index of the timestamp in the file name or -1
+     */
+    static int timestampIndex( String fileName ) {
+        for( int i = fileName.length() - TIMESTAMP_LENGTH - 2; i >= 2; i-- ) {
+            if( fileName.charAt( i - 1 ) == '-' && fileName.charAt( i + TIMESTAMP_LENGTH ) == '.'
+                && isTimestamp( fileName, i ) ) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isTimestamp( String s, int offset ) {
+        for( int i = 0; i < TIMESTAMP_LENGTH; i++ ) {
+            char c = s.charAt( offset + i );
+            if( i == 4 || i == 7 || i == 10 || i == 13 ) {
+                if( c != '-' ) return false;
+            } else if( c < '0' || c > '9' ) return false;
+        }
+        return true;
+    }
+
     public static String directoryName( String timestamp ) {
-        final String yyyy = timestamp.substring( 0, 4 );
-        final String MM = timestamp.substring( 5, 7 );
-        final String dd = timestamp.substring( 8, 10 );
+        return appendDirectoryName( new StringBuilder( 10 ), timestamp ).toString();
+    }
 
-        return yyyy + "-" + MM + "/" + dd;
+    private static StringBuilder appendDirectoryName( StringBuilder sb, String timestamp ) {
+        return sb.append( timestamp, 0, 4 ).append( '-' ).append( timestamp, 5, 7 )
+            .append( SEPARATOR_CHAR ).append( timestamp, 8, 10 );
     }
 
     public static String path( String directory, String timestamp, String filename, String ext ) {
-        String parent = FilenameUtils.getFullPathNoEndSeparator( filename );
-        return ( parent.length() > 0 ? directory
-            + SEPARATOR_CHAR + parent : directory )
-            + SEPARATOR_CHAR + Timestamp.directoryName( timestamp )
-            + SEPARATOR_CHAR + FilenameUtils.getName( filename ) + "-" + timestamp + ( ext.startsWith( "." )
-            ? ext : "." + ext );
+        int separator = Math.max( filename.lastIndexOf( '/' ), filename.lastIndexOf( '\\' ) );
+
+        StringBuilder sb = new StringBuilder( directory.length() + filename.length() + timestamp.length() + ext.length() + 16 );
+        sb.append( directory );
+        if( separator == 0 ) sb.append( SEPARATOR_CHAR ).append( SEPARATOR_CHAR );
+        else if( separator > 0 ) sb.append( SEPARATOR_CHAR ).append( filename, 0, separator );
+        appendDirectoryName( sb.append( SEPARATOR_CHAR ), timestamp )
+            .append( SEPARATOR_CHAR ).append( filename, separator + 1, filename.length() )
+            .append( '-' ).append( timestamp );
+        if( !ext.startsWith( "." ) ) sb.append( '.' );
+        return sb.append( ext ).toString();
     }
 
     public String path( String directory, DateTime date, String filename, String ext ) {
@@ -94,25 +138,86 @@ public class Timestamp implements Serializable {
     }
 
     public DateTime parse( String timestamp ) {
-        return FILE_FORMATTER.parseDateTime( timestamp.substring( 0, 13 ) )
-            .plusMinutes( Integer.parseInt( timestamp.substring( 14, 16 ) ) * 60 / bucketsPerHour );
+        DateTime hour = new DateTime( digits( timestamp, 0, 4 ), digits( timestamp, 5, 7 ), digits( timestamp, 8, 10 ),
+            digits( timestamp, 11, 13 ), 0, UTC );
+        return hour.plusMinutes( digits( timestamp, 14, 16 ) * 60 / bucketsPerHour );
+    }
+
+    private static int digits( String s, int from, int to ) {
+        int value = 0;
+        for( int i = from; i < to; i++ ) {
+            char c = s.charAt( i );
+            if( c < '0' || c > '9' ) throw new IllegalArgumentException( "invalid timestamp: " + s );
+            value = value * 10 + ( c - '0' );
+        }
+        return value;
     }
 
     public Optional<DateTime> parse( Path path ) {
-        final Matcher matcher = FILE_NAME_WITH_TIMESTAMP.matcher( path.getFileName().toString() );
-        if( matcher.find() ) {
-            final String timestamp = matcher.group( 1 );
-            return Optional.of( parse( timestamp ) );
+        String fileName = path.getFileName().toString();
+        int index = timestampIndex( fileName );
+        if( index >= 0 ) {
+            return Optional.of( parse( fileName.substring( index, index + TIMESTAMP_LENGTH ) ) );
         } else return Optional.empty();
     }
 
     public String format( DateTime date ) {
-        int bucket = currentBucket( date );
-        return FILE_FORMATTER.print( date ) + "-" + ( bucket > 9 ? bucket : "0" + bucket );
+        return format( bucketId( date.getMillis() ) );
+    }
+
+    /**
+     * @return {@code yyyy-MM-dd-HH-bb} of the bucket
+     */
+    public String format( long bucketId ) {
+        Formatted current = this.current;
+        if( current != null && current.bucketId() == bucketId ) return current.timestamp();
+        Formatted previous = this.previous;
+        if( previous != null && previous.bucketId() == bucketId ) return previous.timestamp();
+
+        Formatted formatted = new Formatted( bucketId, print( bucketId ) );
+        if( current == null || bucketId > current.bucketId() ) {
+            this.previous = current;
+            this.current = formatted;
+        } else if( previous == null || bucketId > previous.bucketId() ) this.previous = formatted;
+
+        return formatted.timestamp();
+    }
+
+    private String print( long bucketId ) {
+        long hours = Math.floorDiv( bucketId, bucketsPerHour );
+        int bucket = ( int ) Math.floorMod( bucketId, bucketsPerHour );
+        LocalDate date = LocalDate.ofEpochDay( Math.floorDiv( hours, 24 ) );
+
+        char[] chars = new char[TIMESTAMP_LENGTH];
+        print( chars, 0, 4, date.getYear() );
+        chars[4] = '-';
+        print( chars, 5, 2, date.getMonthValue() );
+        chars[7] = '-';
+        print( chars, 8, 2, date.getDayOfMonth() );
+        chars[10] = '-';
+        print( chars, 11, 2, ( int ) Math.floorMod( hours, 24 ) );
+        chars[13] = '-';
+        print( chars, 14, 2, bucket );
+        return new String( chars );
+    }
+
+    private static void print( char[] chars, int offset, int length, int value ) {
+        for( int i = offset + length - 1; i >= offset; i-- ) {
+            chars[i] = ( char ) ( '0' + value % 10 );
+            value /= 10;
+        }
+    }
+
+    /**
+     * @return hours since epoch * {@link #bucketsPerHour} + the bucket of the hour
+     */
+    public long bucketId( long epochMillis ) {
+        int minuteOfHour = ( int ) ( Math.floorMod( epochMillis, HOUR ) / MINUTE );
+        return Math.floorDiv( epochMillis, HOUR ) * bucketsPerHour + minuteOfHour * bucketsPerHour / 60;
     }
 
     public int currentBucket( DateTime date ) {
-        return ( int ) Math.floor( date.getMinuteOfHour() / ( 60d / bucketsPerHour ) );
+        return date.getMinuteOfHour() * bucketsPerHour / 60;
     }
 
     public Stream<String> timestampsBeforeNow( int back ) {
@@ -141,4 +246,6 @@ public class Timestamp implements Serializable {
 
         return new DateTime( dateTime.getMillis() / ms * ms, UTC );
     }
+
+    private record Formatted( long bucketId, String timestamp ) {}
 }
@@ -46,6 +46,7 @@ import oap.io.Files;
 import oap.logstream.AbstractLoggerBackend;
 import oap.logstream.AvailabilityReport;
 import oap.logstream.LogId;
+import oap.logstream.LogIdCache;
 import oap.logstream.LogStreamProtocol.ProtocolVersion;
 import oap.logstream.LoggerException;
 import oap.logstream.Timestamp;
@@ -88,6 +89,7 @@ public class DiskLoggerBackend extends AbstractLoggerBackend implements FileWrit
     public final ScheduledExecutorService pool;
     public final String hostname;
     protected final TemplateEngine templateEngine;
+    private final LogIdCache logIds = new LogIdCache();
     public String filePattern = "{{ YEAR }}-{{ MONTH }}/{{ DAY }}/{{ LOG_TYPE }}_v{{ LOG_VERSION }}_{{ CLIENT_HOST }}-{{ YEAR }}-{{ MONTH }}-{{ DAY }}-{{ HOUR }}-{{ INTERVAL }}.tsv.gz";
     public long requiredFreeSpace = DEFAULT_FREE_SPACE_REQUIRED;
     public int maxVersions = 20;
@@ -174,7 +176,7 @@ public class DiskLoggerBackend extends AbstractLoggerBackend implements FileWrit
 
         Metrics.counter( "logstream_logging_disk_counter", List.of( Tag.of( "from", hostName ) ) ).increment();
         Metrics.summary( "logstream_logging_disk_buffers", List.of( Tag.of( "from", hostName ) ) ).record( length );
-        AbstractWriter writer = writers.get( new LogId( filePreffix, logType, hostName, properties, headers, types ) );
+        AbstractWriter writer = writers.get( logIds.get( filePreffix, logType, hostName, properties, headers, types ) );
 
         log.trace( "logging {} bytes to {}", length, writer );
         try {
@@ -0,0 +1,550 @@
+package oap.logstream.formats.rowbinary;
+
+import com.google.common.base.Preconditions;
+import oap.template.Types;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.joda.time.DateTimeZone.UTC;
+
+/**
+ * Batch (cursor) reader of the RowBinary format.
+ * <p>
+ * Rows are decoded into reusable primitive column vectors, {@link #next()} fills up to <code>batchSize</code> rows.
+ * Only the projected columns are decoded, other columns are skipped in the buffer. Strings are kept as
+ * offsets into a per-column byte arena and materialized on {@link Column#getString(int)}.
+ * <p>
+ * DATETIME and DATE columns are decoded as epoch millis.
+ *
+ * @see RowBinaryInputStream
+ */
+public class RowBinaryColumnReader implements Closeable {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    public final String[] headers;
+    public final byte[][] types;
+    private final int[] fixedLength;
+    private final boolean[] nullable;
+    private final boolean[] datetime32;
+    private final int batchSize;
+    private final Column[] columns;
+    // file column index -> projected column index, -1 if skipped
+    private final int[] projection;
+    @Nullable
+    private final InputStream in;
+    @Nullable
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private int size;
+    private boolean eof;
+
+    private RowBinaryColumnReader( RowBinaryInputStream header, @Nullable InputStream in, @Nullable FileChannel channel,
+                                   ByteBuffer buffer, int batchSize, String[] columns ) {
+        this.headers = header.headers;
+        this.types = header.types;
+        this.fixedLength = header.fixedLength;
+        this.nullable = header.nullable;
+        this.datetime32 = header.datetime32;
+        this.in = in;
+        this.channel = channel;
+        this.buffer = buffer.order( ByteOrder.LITTLE_ENDIAN );
+        this.batchSize = batchSize;
+
+        List<String> projected = columns.length == 0 ? List.of( headers ) : List.of( columns );
+
+        this.projection = new int[headers.length];
+        Arrays.fill( projection, -1 );
+        this.columns = new Column[projected.size()];
+
+        for( int p = 0; p < projected.size(); p++ ) {
+            String name = projected.get( p );
+            int col = Arrays.asList( headers ).indexOf( name );
+            Preconditions.checkArgument( col >= 0, "unknown column " + name + ", headers " + Arrays.toString( headers ) );
+
+            projection[col] = p;
+            this.columns[p] = new Column( name, types[col], nullable[col], batchSize );
+        }
+    }
+
+    /**
+     * @param columns projection, all columns if empty
+     */
+    public static RowBinaryColumnReader of( InputStream in, int batchSize, String... columns ) throws IOException {
+        var header = new RowBinaryInputStream( in );
+
+        return new RowBinaryColumnReader( header, in, null, ByteBuffer.allocate( DEFAULT_BUFFER_SIZE ).flip(), batchSize, columns );
+    }
+
+    public static RowBinaryColumnReader of( InputStream in, String[] headers, byte[][] types, int batchSize, String... columns ) throws IOException {
+        var header = new RowBinaryInputStream( in, headers, types );
+
+        return new RowBinaryColumnReader( header, in, null, ByteBuffer.allocate( DEFAULT_BUFFER_SIZE ).flip(), batchSize, columns );
+    }
+
+    /**
+     * Memory-mapped reader of an uncompressed RowBinary file (up to 2GB).
+     *
+     * @param columns projection, all columns if empty
+     */
+    public static RowBinaryColumnReader map( Path file, int batchSize, String... columns ) throws IOException {
+        FileChannel channel = FileChannel.open( file, StandardOpenOption.READ );
+        try {
+            long fileSize = channel.size();
+            Preconditions.checkArgument( fileSize <= Integer.MAX_VALUE, file + ": file is too big to be mapped, " + fileSize );
+
+            ByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, fileSize );
+            var header = new RowBinaryInputStream( new ByteBufferInputStream( buffer ) );
+
+            return new RowBinaryColumnReader( header, null, channel, buffer, batchSize, columns );
+        } catch( IOException | RuntimeException e ) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Column column( String name ) {
+        for( var column : columns ) {
+            if( column.name.equals( name ) ) return column;
+        }
+
+        throw new IllegalArgumentException( "column " + name + " is not projected" );
+    }
+
+    /**
+     * @param index index in the projection
+     */
+    public Column column( int index ) {
+        return columns[index];
+    }
+
+    public int columns() {
+        return columns.length;
+    }
+
+    /**
+     * @return number of rows in the current batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reads the next batch.
+     *
+     * @return false if there are no more rows
+     */
+    public boolean next() throws IOException {
+        for( var column : columns ) column.reset();
+        size = 0;
+
+        while( size < batchSize && !eof ) {
+            if( !ensure( 1 ) ) {
+                eof = true;
+                break;
+            }
+
+            for( int col = 0; col < headers.length; col++ ) {
+                int p = projection[col];
+                if( p >= 0 ) read( col, columns[p], size );
+                else skip( col );
+            }
+
+            size++;
+        }
+
+        return size > 0;
+    }
+
+    private void read( int col, Column column, int row ) throws IOException {
+        if( nullable[col] ) {
+            require( 1 );
+            boolean isNull = buffer.get() == 1;
+            column.nulls[row] = isNull;
+            if( isNull ) return;
+        }
+
+        byte[] type = types[col];
+        switch( Types.valueOf( type[0] ) ) {
+            case BOOLEAN, BYTE -> {
+                require( 1 );
+                column.bytes[row] = buffer.get();
+            }
+            case SHORT -> {
+                require( 2 );
+                column.shorts[row] = buffer.getShort();
+            }
+            case INTEGER -> {
+                require( 4 );
+                column.ints[row] = buffer.getInt();
+            }
+            case LONG -> {
+                require( 8 );
+                column.longs[row] = buffer.getLong();
+            }
+            case FLOAT -> {
+                require( 4 );
+                column.floats[row] = buffer.getFloat();
+            }
+            case DOUBLE -> {
+                require( 8 );
+                column.doubles[row] = buffer.getDouble();
+            }
+            case DATETIME -> {
+                require( 4 );
+                column.longs[row] = buffer.getInt() * 1000L;
+            }
+            case DATE -> {
+                if( datetime32[col] ) {
+                    require( 4 );
+                    column.longs[row] = buffer.getInt() * 24L * 60L * 60L * 1000L;
+                } else {
+                    require( 2 );
+                    column.longs[row] = buffer.getShort() * 24L * 60L * 60L * 1000L;
+                }
+            }
+            case STRING -> {
+                int length = fixedLength[col] > 0 ? fixedLength[col] : readVarInt();
+                require( length );
+                int end = length;
+                if( fixedLength[col] > 0 ) {
+                    while( end > 0 && buffer.get( buffer.position() + end - 1 ) == 0 ) end--;
+                }
+                column.putString( row, buffer, end );
+                buffer.position( buffer.position() + length - end );
+            }
+            case LIST -> column.objects[row] = readList( Types.valueOf( type[1] ), col );
+            default -> throw new IllegalArgumentException( "unknown type " + Arrays.toString( type ) );
+        }
+    }
+
+    private void skip( int col ) throws IOException {
+        if( nullable[col] ) {
+            require( 1 );
+            if( buffer.get() == 1 ) return;
+        }
+
+        byte[] type = types[col];
+        Types t = Types.valueOf( type[0] );
+        if( t == Types.LIST ) {
+            Types itemType = Types.valueOf( type[1] );
+            int count = readVarInt();
+            for( int i = 0; i < count; i++ ) skipValue( itemType, col );
+        } else {
+            skipValue( t, col );
+        }
+    }
+
+    private void skipValue( Types type, int col ) throws IOException {
+        int length = switch( type ) {
+            case BOOLEAN, BYTE -> 1;
+            case SHORT -> 2;
+            case INTEGER, FLOAT, DATETIME -> 4;
+            case LONG, DOUBLE -> 8;
+            case DATE -> datetime32[col] ? 4 : 2;
+            case STRING -> fixedLength[col] > 0 ? fixedLength[col] : readVarInt();
+            default -> throw new IllegalArgumentException( "unknown type " + type );
+        };
+
+        require( length );
+        buffer.position( buffer.position() + length );
+    }
+
+    private List<Object> readList( Types itemType, int col ) throws IOException {
+        int count = readVarInt();
+        var list = new ArrayList<>( count );
+
+        for( int i = 0; i < count; i++ ) {
+            list.add( switch( itemType ) {
+                case BOOLEAN -> {
+                    require( 1 );
+                    yield buffer.get() == 1;
+                }
+                case BYTE -> {
+                    require( 1 );
+                    yield buffer.get();
+                }
+                case SHORT -> {
+                    require( 2 );
+                    yield buffer.getShort();
+                }
+                case INTEGER -> {
+                    require( 4 );
+                    yield buffer.getInt();
+                }
+                case LONG -> {
+                    require( 8 );
+                    yield buffer.getLong();
+                }
+                case FLOAT -> {
+                    require( 4 );
+                    yield buffer.getFloat();
+                }
+                case DOUBLE -> {
+                    require( 8 );
+                    yield buffer.getDouble();
+                }
+                case DATETIME -> {
+                    require( 4 );
+                    yield new DateTime( buffer.getInt() * 1000L, UTC );
+                }
+                case DATE -> {
+                    if( datetime32[col] ) {
+                        require( 4 );
+                        yield new Date( buffer.getInt() * 24L * 60L * 60L * 1000L );
+                    }
+                    require( 2 );
+                    yield new Date( buffer.getShort() * 24L * 60L * 60L * 1000L );
+                }
+                case STRING -> {
+                    int length = fixedLength[col] > 0 ? fixedLength[col] : readVarInt();
+                    require( length );
+                    int end = length;
+                    if( fixedLength[col] > 0 ) {
+                        while( end > 0 && buffer.get( buffer.position() + end - 1 ) == 0 ) end--;
+                    }
+                    byte[] bytes = new byte[end];
+                    buffer.get( bytes );
+                    buffer.position( buffer.position() + length - end );
+                    yield new String( bytes, UTF_8 );
+                }
+                default -> throw new IllegalArgumentException( "unknown type " + itemType );
+            } );
+        }
+
+        return list;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+
+        for( int i = 0; i < 10; i++ ) {
+            require( 1 );
+            byte b = buffer.get();
+            value |= ( b & 0x7F ) << ( 7 * i );
+
+            if( ( b & 0x80 ) == 0 ) {
+                break;
+            }
+        }
+
+        return value;
+    }
+
+    private void require( int length ) throws IOException {
+        if( !ensure( length ) ) throw new EOFException( "End of stream reached before reading all data" );
+    }
+
+    /**
+     * @return false if the stream ended before <code>length</code> bytes are available
+     */
+    private boolean ensure( int length ) throws IOException {
+        if( buffer.remaining() >= length ) return true;
+        if( in == null ) return false;
+
+        if( buffer.capacity() < length ) {
+            ByteBuffer newBuffer = ByteBuffer.allocate( Math.max( length, buffer.capacity() * 2 ) ).order( ByteOrder.LITTLE_ENDIAN );
+            newBuffer.put( buffer );
+            buffer = newBuffer;
+        } else {
+            buffer.compact();
+        }
+
+        while( buffer.position() < length ) {
+            int read = in.read( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+            if( read < 0 ) break;
+            buffer.position( buffer.position() + read );
+        }
+        buffer.flip();
+
+        return buffer.remaining() >= length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( in != null ) in.close();
+        if( channel != null ) channel.close();
+    }
+
+    public static final class Column {
+        public final String name;
+        public final Types type;
+        @Nullable
+        public final Types itemType;
+        public final boolean nullable;
+        private final boolean[] nulls;
+        private byte[] bytes;
+        private short[] shorts;
+        private int[] ints;
+        private long[] longs;
+        private float[] floats;
+        private double[] doubles;
+        private int[] offsets;
+        private int[] lengths;
+        private byte[] arena;
+        private int arenaLength;
+        private Object[] objects;
+
+        private Column( String name, byte[] type, boolean nullable, int batchSize ) {
+            this.name = name;
+            this.type = Types.valueOf( type[0] );
+            this.itemType = type.length > 1 ? Types.valueOf( type[1] ) : null;
+            this.nullable = nullable;
+            this.nulls = new boolean[batchSize];
+
+            switch( this.type ) {
+                case BOOLEAN, BYTE -> bytes = new byte[batchSize];
+                case SHORT -> shorts = new short[batchSize];
+                case INTEGER -> ints = new int[batchSize];
+                case LONG, DATETIME, DATE -> longs = new long[batchSize];
+                case FLOAT -> floats = new float[batchSize];
+                case DOUBLE -> doubles = new double[batchSize];
+                case STRING -> {
+                    offsets = new int[batchSize];
+                    lengths = new int[batchSize];
+                    arena = new byte[batchSize * 16];
+                }
+                case LIST -> objects = new Object[batchSize];
+                default -> throw new IllegalArgumentException( "unknown type " + this.type );
+            }
+        }
+
+        private void reset() {
+            if( nullable ) Arrays.fill( nulls, false );
+            arenaLength = 0;
+            if( objects != null ) Arrays.fill( objects, null );
+        }
+
+        private void putString( int row, ByteBuffer buffer, int length ) {
+            if( arenaLength + length > arena.length ) {
+                arena = Arrays.copyOf( arena, Math.max( arena.length * 2, arenaLength + length ) );
+            }
+            buffer.get( arena, arenaLength, length );
+            offsets[row] = arenaLength;
+            lengths[row] = length;
+            arenaLength += length;
+        }
+
+        public boolean isNull( int row ) {
+            return nulls[row];
+        }
+
+        public boolean getBoolean( int row ) {
+            return bytes[row] == 1;
+        }
+
+        public byte getByte( int row ) {
+            return bytes[row];
+        }
+
+        public short getShort( int row ) {
+            return shorts[row];
+        }
+
+        public int getInt( int row ) {
+            return ints[row];
+        }
+
+        /**
+         * LONG, DATETIME and DATE (epoch millis) columns
+         */
+        public long getLong( int row ) {
+            return longs[row];
+        }
+
+        public float getFloat( int row ) {
+            return floats[row];
+        }
+
+        public double getDouble( int row ) {
+            return doubles[row];
+        }
+
+        public String getString( int row ) {
+            return new String( arena, offsets[row], lengths[row], UTF_8 );
+        }
+
+        /**
+         * Raw UTF-8 bytes of a STRING value: {@link #stringArena()} from {@link #stringOffset(int)}, {@link #stringLength(int)} bytes.
+         */
+        public byte[] stringArena() {
+            return arena;
+        }
+
+        public int stringOffset( int row ) {
+            return offsets[row];
+        }
+
+        public int stringLength( int row ) {
+            return lengths[row];
+        }
+
+        public boolean stringEquals( int row, byte[] utf8 ) {
+            return Arrays.equals( arena, offsets[row], offsets[row] + lengths[row], utf8, 0, utf8.length );
+        }
+
+        @SuppressWarnings( "unchecked" )
+        public List<Object> getList( int row ) {
+            return ( List<Object> ) objects[row];
+        }
+
+        /**
+         * Boxed value, same as {@link RowBinaryInputStream#readRow()} returns.
+         */
+        @Nullable
+        public Object get( int row ) {
+            if( nulls[row] ) return null;
+
+            return switch( type ) {
+                case BOOLEAN -> getBoolean( row );
+                case BYTE -> getByte( row );
+                case SHORT -> getShort( row );
+                case INTEGER -> getInt( row );
+                case LONG -> getLong( row );
+                case FLOAT -> getFloat( row );
+                case DOUBLE -> getDouble( row );
+                case DATETIME -> new DateTime( getLong( row ), UTC );
+                case DATE -> new Date( getLong( row ) );
+                case STRING -> getString( row );
+                case LIST -> getList( row );
+                default -> throw new IllegalArgumentException( "unknown type " + type );
+            };
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream( ByteBuffer buffer ) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) {
+            if( !buffer.hasRemaining() ) return -1;
+            int n = Math.min( len, buffer.remaining() );
+            buffer.get( b, off, n );
+            return n;
+        }
+    }
+}
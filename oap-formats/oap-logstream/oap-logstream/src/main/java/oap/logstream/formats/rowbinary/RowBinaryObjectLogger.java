@@ -31,6 +31,7 @@ import oap.dictionary.DictionaryRoot;
 import oap.logstream.AbstractLoggerBackend;
 import oap.logstream.AvailabilityReport;
 import oap.logstream.LogStreamProtocol;
+import oap.logstream.TemplateLogger;
 import oap.net.Inet;
 import oap.reflect.TypeRef;
 import oap.template.Template;
@@ -289,17 +290,24 @@ public class RowBinaryObjectLogger {
         public final String[] headers;
         public final byte[][] types;
         private final Template<D, byte[], FastByteArrayOutputStream, TemplateAccumulatorRowBinary, ?> renderer;
+        private final ThreadLocal<TemplateAccumulatorRowBinary> accumulator;
 
         public TypedRowBinaryLogger( Template<D, byte[], FastByteArrayOutputStream, TemplateAccumulatorRowBinary, ?> renderer, String[] headers, byte[][] types ) {
             this.renderer = renderer;
+            this.accumulator = ThreadLocal.withInitial( renderer::newAccumulator );
 
             this.headers = headers;
             this.types = types;
         }
 
         public void log( D data, String filePreffix, Map<String, String> properties, String logType ) {
-            byte[] bytes = renderer.render( data, true ).getBytes();
-            backend.log( LogStreamProtocol.ProtocolVersion.ROW_BINARY_V3, Inet.HOSTNAME, filePreffix, properties, logType, headers, types, bytes );
+            TemplateAccumulatorRowBinary acc = accumulator.get();
+            acc.reset();
+
+            renderer.renderTo( data, true, acc );
+            backend.log( LogStreamProtocol.ProtocolVersion.ROW_BINARY_V3, Inet.HOSTNAME, filePreffix, properties, logType, headers, types, acc.baos.array, 0, acc.baos.length );
+
+            if( acc.baos.array.length > TemplateLogger.MAX_RETAINED_BUFFER ) accumulator.remove();
         }
     }
 }
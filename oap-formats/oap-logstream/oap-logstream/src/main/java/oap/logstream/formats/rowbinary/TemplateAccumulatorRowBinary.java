@@ -227,4 +227,10 @@ public class TemplateAccumulatorRowBinary implements TemplateAccumulator<byte[],
     public byte[] getBytes() {
         return get();
     }
+
+    @SneakyThrows
+    @Override
+    public void writeTo( FastByteArrayOutputStream out ) {
+        out.write( baos.array, 0, baos.length );
+    }
 }
@@ -93,4 +93,11 @@ public class JavaTemplate<TIn, TOut, TOutMutable, TA extends TemplateAccumulator
 
         return newAcc.addEol( eol );
     }
+
+    @Override
+    public TA renderTo( TIn obj, boolean eol, TA acc ) {
+        cons.accept( obj, Map.of(), acc );
+
+        return acc.addEol( eol );
+    }
 }
@@ -69,4 +69,16 @@ public class RuntimeTemplate<TIn, TOut, TOutMutable, TA extends TemplateAccumula
         }
         return newAcc.addEol( eol );
     }
+
+    @Override
+    public TA renderTo( TIn obj, boolean eol, TA acc ) {
+        try {
+            ast.interpret( RuntimeContext.root( obj, acc ) );
+        } catch( TemplateException e ) {
+            throw e;
+        } catch( Exception e ) {
+            throw new TemplateException( e );
+        }
+        return acc.addEol( eol );
+    }
 }
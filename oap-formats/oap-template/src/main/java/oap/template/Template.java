@@ -47,4 +47,14 @@ public abstract class Template<TIn, TOut, TOutMutable, TA extends TemplateAccumu
     public TA render( TIn obj, TOutMutable out ) {
         return render( obj, false, out );
     }
+
+    public TA newAccumulator() {
+        return acc.newInstance();
+    }
+
+    /**
+     * Renders into an accumulator owned by the caller (see {@link #newAccumulator()}).
+     * The accumulator is not reset, so it can be reused after {@link TemplateAccumulator#reset()}.
+     */
+    public abstract TA renderTo( TIn obj, boolean eol, TA acc );
 }
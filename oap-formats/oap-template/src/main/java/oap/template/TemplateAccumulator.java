@@ -24,6 +24,8 @@
 
 package oap.template;
 
+import lombok.SneakyThrows;
+import oap.util.FastByteArrayOutputStream;
 import org.joda.time.DateTime;
 
 import java.util.Collection;
@@ -116,6 +118,15 @@ public interface TemplateAccumulator<T, TMutable, TTemplateAccumulator extends T
 
     byte[] getBytes();
 
+    /**
+     * Appends {@link #getBytes()} to out without the intermediate array where the accumulator allows it.
+     */
+    @SneakyThrows
+    default void writeTo( FastByteArrayOutputStream out ) {
+        byte[] bytes = getBytes();
+        out.write( bytes, 0, bytes.length );
+    }
+
     TTemplateAccumulator addEol( boolean eol );
 
     void reset();
@@ -24,8 +24,10 @@
 
 package oap.template;
 
+import lombok.SneakyThrows;
 import oap.dictionary.Dictionary;
 import oap.util.Dates;
+import oap.util.FastByteArrayOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
@@ -208,6 +210,35 @@ public class TemplateAccumulatorString implements TemplateAccumulator<String, St
         return get().getBytes( UTF_8 );
     }
 
+    /**
+     * UTF-8 encodes the builder straight into out, unpaired surrogates are replaced with '?' as {@link String#getBytes} does.
+     */
+    @SneakyThrows
+    @Override
+    public void writeTo( FastByteArrayOutputStream out ) {
+        for( int i = 0, length = sb.length(); i < length; i++ ) {
+            char c = sb.charAt( i );
+            if( c < 0x80 ) {
+                out.write( c );
+            } else if( c < 0x800 ) {
+                out.write( 0xC0 | ( c >> 6 ) );
+                out.write( 0x80 | ( c & 0x3F ) );
+            } else if( Character.isHighSurrogate( c ) && i + 1 < length && Character.isLowSurrogate( sb.charAt( i + 1 ) ) ) {
+                int cp = Character.toCodePoint( c, sb.charAt( ++i ) );
+                out.write( 0xF0 | ( cp >> 18 ) );
+                out.write( 0x80 | ( ( cp >> 12 ) & 0x3F ) );
+                out.write( 0x80 | ( ( cp >> 6 ) & 0x3F ) );
+                out.write( 0x80 | ( cp & 0x3F ) );
+            } else if( Character.isSurrogate( c ) ) {
+                out.write( '?' );
+            } else {
+                out.write( 0xE0 | ( c >> 12 ) );
+                out.write( 0x80 | ( ( c >> 6 ) & 0x3F ) );
+                out.write( 0x80 | ( c & 0x3F ) );
+            }
+        }
+    }
+
     public void acceptStringWithSingleQuote( String item ) {
         String escapeItem = item;
         escapeItem = StringUtils.replace( escapeItem, "\\", "\\\\" );
@@ -24,11 +24,14 @@
 
 package oap.template;
 
+import oap.util.FastByteArrayOutputStream;
 import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 public class TemplateAccumulatorStringTest {
@@ -45,4 +48,15 @@ public class TemplateAccumulatorStringTest {
         ta.accept( List.of( new DateTime( 2022, 12, 16, 8, 44, 12 ) ) );
         assertThat( ta.get() ).isEqualTo( "['2022--']" );
     }
+
+    @Test
+    public void testWriteTo() {
+        TemplateAccumulatorString ta = new TemplateAccumulatorString();
+        ta.accept( "a\u00e9\u20ac\uD83D\uDE00\uD83Dz" );
+
+        var out = new FastByteArrayOutputStream();
+        ta.writeTo( out );
+
+        assertThat( out.toByteArray() ).isEqualTo( ta.get().getBytes( UTF_8 ) );
+    }
 }
@@ -27,6 +27,9 @@ package oap.tsv;
 import org.apache.commons.lang3.StringUtils;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static oap.benchmark.Benchmark.benchmark;
 import static oap.tsv.Tokenizer.parse;
 import static oap.tsv.Tsv.DELIMITER_TAB;
@@ -43,6 +46,13 @@ public class TokenizerPerformance {
             .run();
         benchmark( "tokenizer", 1000000, () -> parse( tsv, DELIMITER_TAB ) )
             .run();
+
+        byte[] lines = ( tsv + "\n" ).repeat( 1000 ).getBytes( UTF_8 );
+        benchmark( "reader", 1000, () -> {
+            try( var reader = new TsvReader( new ByteArrayInputStream( lines ) ) ) {
+                while( reader.next() ) reader.getString( 17 );
+            }
+        } ).run();
     }
 
 }
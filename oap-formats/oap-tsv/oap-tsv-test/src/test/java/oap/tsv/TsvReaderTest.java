@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.tsv;
+
+import oap.io.Files;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvReaderTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public TsvReaderTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    private static List<List<String>> readAll( TsvReader reader ) throws IOException {
+        var lines = new ArrayList<List<String>>();
+        while( reader.next() ) lines.add( reader.toList() );
+        return lines;
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        var data = "a\tb\tc\n1\t\t3\r\nlong value with spaces\tx\\ty\t\nlast";
+
+        try( var reader = new TsvReader( new ByteArrayInputStream( data.getBytes( UTF_8 ) ), '\t', 16 ) ) {
+            assertThat( readAll( reader ) ).containsExactly(
+                List.of( "a", "b", "c" ),
+                List.of( "1", "", "3" ),
+                List.of( "long value with spaces", "x\\ty", "" ),
+                List.of( "last" ) );
+        }
+    }
+
+    @Test
+    public void testSplitCompatibility() throws IOException {
+        for( var line : List.of( "1", "", "1\t5\tttt", "1\\t5\t\\r\\nttt", "start\t\tend", "start\t\t", "a\\\\\tb" ) ) {
+            var expected = new ArrayList<String>();
+            TsvInputStream.split( line, expected );
+
+            try( var reader = new TsvReader( new ByteArrayInputStream( ( line + "\n" ).getBytes( UTF_8 ) ) ) ) {
+                assertThat( reader.next() ).isTrue();
+                assertThat( reader.toList() ).as( line ).isEqualTo( expected );
+            }
+        }
+    }
+
+    @Test
+    public void testProjection() throws IOException {
+        var data = "id\tname\tcount\n1\tn1\t10\n2\tn2\t-20\n";
+
+        try( var reader = new TsvReader( new ByteArrayInputStream( data.getBytes( UTF_8 ) ) ) ) {
+            reader.withHeaders().select( "count", "id" );
+            assertThat( reader.headers() ).containsExactly( "id", "name", "count" );
+
+            assertThat( reader.next() ).isTrue();
+            assertThat( reader.size() ).isEqualTo( 2 );
+            assertThat( reader.getLong( 0 ) ).isEqualTo( 10L );
+            assertThat( reader.getInt( 1 ) ).isEqualTo( 1 );
+            assertThat( reader.equals( 1, "1".getBytes( UTF_8 ) ) ).isTrue();
+
+            assertThat( reader.next() ).isTrue();
+            assertThat( reader.getLong( 0 ) ).isEqualTo( -20L );
+            assertThat( reader.getString( 1 ) ).isEqualTo( "2" );
+
+            assertThat( reader.next() ).isFalse();
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        byte[] bytes = "0123456789abcdef\tz".getBytes( UTF_8 );
+        for( int i = 0; i < bytes.length; i++ ) {
+            assertThat( TsvReader.indexOf( bytes, 0, bytes.length, 0x0101010101010101L * bytes[i], bytes[i] ) ).isEqualTo( i );
+        }
+        assertThat( TsvReader.indexOf( bytes, 0, bytes.length, 0x0101010101010101L * '\n', ( byte ) '\n' ) ).isEqualTo( -1 );
+    }
+
+    @Test
+    public void testParallel() throws IOException {
+        var sb = new StringBuilder( "id\tvalue\n" );
+        long expected = 0;
+        for( int i = 0; i < 10000; i++ ) {
+            sb.append( i ).append( '\t' ).append( "value" ).append( i ).append( '\n' );
+            expected += i;
+        }
+        Path file = testDirectoryFixture.testPath( "data.tsv" );
+        Files.write( file, sb.toString().getBytes( UTF_8 ) );
+
+        List<long[]> results = TsvReader.parallel( file, 7, '\t', true, reader -> {
+            reader.select( 0 );
+            long sum = 0;
+            long count = 0;
+            while( reader.next() ) {
+                sum += reader.getLong( 0 );
+                count++;
+            }
+            return new long[] { sum, count };
+        } );
+
+        assertThat( results ).isNotEmpty();
+        assertThat( results.stream().mapToLong( r -> r[0] ).sum() ).isEqualTo( expected );
+        assertThat( results.stream().mapToLong( r -> r[1] ).sum() ).isEqualTo( 10000L );
+    }
+}
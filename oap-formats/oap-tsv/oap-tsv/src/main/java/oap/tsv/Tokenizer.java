@@ -24,7 +24,7 @@
 
 package oap.tsv;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Tokenizer {
@@ -37,14 +37,14 @@ public class Tokenizer {
     }
 
     public static List<String> parse( String line, char delimiter, int limit, boolean quoted ) {
-        List<String> tokens = new LinkedList<>();
+        List<String> tokens = new ArrayList<>();
         int beginIndex = 0;
         boolean inQuote = false;
         for( int i = 0; i < line.length(); i++ ) {
             char c = line.charAt( i );
             if( c == delimiter && !inQuote ) {
                 if( quoted && line.charAt( beginIndex ) == '"' && line.charAt( i - 1 ) == '"' )
-                    tokens.add( line.substring( beginIndex + 1, i - 1 ).replaceAll( "\"\"", "\"" ) );
+                    tokens.add( unquote( line, beginIndex + 1, i - 1 ) );
                 else tokens.add( line.substring( beginIndex, i ) );
                 beginIndex = i + 1;
             }
@@ -53,9 +53,23 @@ public class Tokenizer {
             if( tokens.size() == limit ) return tokens;
         }
         if( quoted && line.charAt( beginIndex ) == '"' && line.charAt( line.length() - 1 ) == '"' )
-            tokens.add( line.substring( beginIndex + 1, line.length() - 1 ).replaceAll( "\"\"", "\"" ) );
+            tokens.add( unquote( line, beginIndex + 1, line.length() - 1 ) );
         else tokens.add( line.substring( beginIndex ) );
 
         return tokens;
     }
+
+    private static String unquote( String line, int begin, int end ) {
+        int quote = line.indexOf( '"', begin );
+        if( quote < 0 || quote >= end ) return line.substring( begin, end );
+
+        var sb = new StringBuilder( end - begin );
+        for( int i = begin; i < end; i++ ) {
+            char c = line.charAt( i );
+            sb.append( c );
+            if( c == '"' && i + 1 < end && line.charAt( i + 1 ) == '"' ) i++;
+        }
+
+        return sb.toString();
+    }
 }
@@ -0,0 +1,398 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.tsv;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import oap.concurrent.Executors;
+import oap.util.Throwables;
+import oap.util.function.Try;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.tsv.Tsv.DELIMITER_TAB;
+
+/**
+ * Byte level TSV cursor.
+ * <p>
+ * Lines are read into a reusable buffer, cells are exposed as offsets into it and are materialized
+ * to strings only on {@link #getString(int)}. Cell splitting follows {@link TsvInputStream}:
+ * an escaped delimiter does not split the cell and the cell content is not unescaped.
+ * <p>
+ * With a projection ({@link #select(int...)}) only the selected cells are addressed and the line is not scanned
+ * past the last selected column.
+ * <p>
+ * The reader is not thread safe, see {@link #parallel(Path, int, char, boolean, Try.ThrowingFunction)} for large files.
+ */
+public class TsvReader implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final byte NEWLINE = '\n';
+    private static final byte ESCAPE = '\\';
+
+    private final InputStream in;
+    private final byte delimiter;
+    private final long delimiters;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+    // absolute offset of buffer[0] in the stream
+    private long bufferOffset;
+    private long maxLineStart = Long.MAX_VALUE;
+
+    private int lineStart;
+    private int lineEnd;
+    private int[] cellStart = new int[16];
+    private int[] cellEnd = new int[16];
+    private int cells;
+    private int[] columns;
+    private int maxCells = Integer.MAX_VALUE;
+    private List<String> headers = List.of();
+
+    public TsvReader( InputStream in ) {
+        this( in, DELIMITER_TAB, DEFAULT_BUFFER_SIZE );
+    }
+
+    public TsvReader( InputStream in, char delimiter, int bufferSize ) {
+        Preconditions.checkArgument( delimiter < 0x80, "delimiter must be an ascii character" );
+
+        this.in = in;
+        this.delimiter = ( byte ) delimiter;
+        this.delimiters = ONES * ( delimiter & 0xFF );
+        this.buffer = new byte[Math.max( bufferSize, 16 )];
+    }
+
+    /**
+     * Splits the file into <code>chunks</code> byte ranges aligned to line boundaries and reads them in parallel,
+     * each with its own reader.
+     *
+     * @param skipHeader skip the first line of the file
+     * @return the task results in the chunk order
+     */
+    public static <R> List<R> parallel( Path file, int chunks, char delimiter, boolean skipHeader,
+                                        Try.ThrowingFunction<TsvReader, R> task ) throws IOException {
+        Preconditions.checkArgument( chunks > 0 );
+
+        long size = java.nio.file.Files.size( file );
+        long chunkSize = Math.max( 1, ( size + chunks - 1 ) / chunks );
+
+        ExecutorService executor = Executors.newFixedThreadPool( chunks,
+            new ThreadFactoryBuilder().setNameFormat( "tsv-" + file.getFileName() + "-%d" ).build() );
+        try {
+            var futures = new ArrayList<Future<R>>();
+            for( long start = 0; start < size || start == 0; start += chunkSize ) {
+                long chunkStart = start;
+                long chunkEnd = Math.min( size, start + chunkSize );
+                futures.add( executor.submit( () -> {
+                    try( var reader = openChunk( file, chunkStart, chunkEnd, delimiter, skipHeader ) ) {
+                        return task.apply( reader );
+                    }
+                } ) );
+            }
+
+            var results = new ArrayList<R>( futures.size() );
+            for( var future : futures ) results.add( future.get() );
+            return results;
+        } catch( ExecutionException e ) {
+            throw Throwables.propagate( e.getCause() );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate( e );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TsvReader openChunk( Path file, long start, long end, char delimiter, boolean skipHeader ) throws IOException {
+        FileChannel channel = FileChannel.open( file, StandardOpenOption.READ );
+        long position = start > 0 ? start - 1 : 0;
+        channel.position( position );
+
+        var reader = new TsvReader( Channels.newInputStream( channel ), delimiter, DEFAULT_BUFFER_SIZE );
+        reader.bufferOffset = position;
+
+        // a line belongs to the chunk its first byte is in, the line crossing <code>start</code> is read by the previous chunk
+        if( start > 0 || skipHeader ) reader.nextLine();
+        reader.maxLineStart = end;
+
+        return reader;
+    }
+
+    /**
+     * Reads the first line as headers.
+     */
+    public TsvReader withHeaders() throws IOException {
+        var list = new ArrayList<String>();
+        int saved = maxCells;
+        maxCells = Integer.MAX_VALUE;
+        if( nextLine() ) {
+            split();
+            for( int i = 0; i < cells; i++ ) list.add( string( i ) );
+        }
+        maxCells = saved;
+        headers = List.copyOf( list );
+
+        return this;
+    }
+
+    public List<String> headers() {
+        return headers;
+    }
+
+    public TsvReader select( int... columns ) {
+        this.columns = columns.clone();
+        this.maxCells = Arrays.stream( columns ).max().orElse( -1 ) + 1;
+
+        return this;
+    }
+
+    /**
+     * @see #withHeaders()
+     */
+    public TsvReader select( String... headers ) {
+        int[] indices = new int[headers.length];
+        for( int i = 0; i < headers.length; i++ ) {
+            indices[i] = this.headers.indexOf( headers[i] );
+            Preconditions.checkArgument( indices[i] >= 0, "unknown header " + headers[i] + ", headers " + this.headers );
+        }
+
+        return select( indices );
+    }
+
+    /**
+     * @return false at the end of the stream (or the chunk)
+     */
+    public boolean next() throws IOException {
+        if( !nextLine() ) return false;
+
+        split();
+        return true;
+    }
+
+    /**
+     * @return number of addressable cells in the current line
+     */
+    public int size() {
+        return columns != null ? columns.length : cells;
+    }
+
+    private int cell( int index ) {
+        int cell = columns != null ? columns[index] : index;
+        if( cell >= cells ) throw new IndexOutOfBoundsException( "cell " + cell + ", line has " + cells + " cells" );
+
+        return cell;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int offset( int index ) {
+        return cellStart[cell( index )];
+    }
+
+    public int length( int index ) {
+        int cell = cell( index );
+        return cellEnd[cell] - cellStart[cell];
+    }
+
+    public String getString( int index ) {
+        return string( cell( index ) );
+    }
+
+    public boolean isEmpty( int index ) {
+        return length( index ) == 0;
+    }
+
+    public boolean equals( int index, byte[] value ) {
+        int cell = cell( index );
+        return Arrays.equals( buffer, cellStart[cell], cellEnd[cell], value, 0, value.length );
+    }
+
+    public long getLong( int index ) {
+        int cell = cell( index );
+        int i = cellStart[cell];
+        int end = cellEnd[cell];
+        if( i == end ) throw new NumberFormatException( "empty cell " + cell );
+
+        boolean negative = buffer[i] == '-';
+        if( negative || buffer[i] == '+' ) i++;
+        if( i == end ) throw new NumberFormatException( string( cell ) );
+
+        long value = 0;
+        for( ; i < end; i++ ) {
+            int digit = buffer[i] - '0';
+            if( digit < 0 || digit > 9 ) throw new NumberFormatException( string( cell ) );
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    public int getInt( int index ) {
+        return Math.toIntExact( getLong( index ) );
+    }
+
+    public double getDouble( int index ) {
+        return Double.parseDouble( getString( index ) );
+    }
+
+    /**
+     * Materializes the selected cells of the current line.
+     */
+    public List<String> toList() {
+        var list = new ArrayList<String>( size() );
+        for( int i = 0; i < size(); i++ ) list.add( getString( i ) );
+        return list;
+    }
+
+    private String string( int cell ) {
+        return new String( buffer, cellStart[cell], cellEnd[cell] - cellStart[cell], UTF_8 );
+    }
+
+    private boolean nextLine() throws IOException {
+        int from = position;
+
+        while( true ) {
+            int nl = indexOf( buffer, from, limit, ONES * NEWLINE, NEWLINE );
+            if( nl < 0 ) {
+                if( !eof ) {
+                    int scanned = limit - position;
+                    fill();
+                    from = position + scanned;
+                    continue;
+                }
+                if( position >= limit ) return false;
+                nl = limit;
+            }
+
+            if( bufferOffset + position >= maxLineStart ) return false;
+
+            lineStart = position;
+            lineEnd = nl > position && buffer[nl - 1] == '\r' ? nl - 1 : nl;
+            position = Math.min( nl + 1, limit );
+
+            return true;
+        }
+    }
+
+    private void fill() throws IOException {
+        if( position > 0 ) {
+            System.arraycopy( buffer, position, buffer, 0, limit - position );
+            bufferOffset += position;
+            limit -= position;
+            position = 0;
+        }
+        if( limit == buffer.length ) buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+
+        int read = in.read( buffer, limit, buffer.length - limit );
+        if( read < 0 ) eof = true;
+        else limit += read;
+    }
+
+    private void split() {
+        cells = 0;
+
+        if( indexOf( buffer, lineStart, lineEnd, ONES * ESCAPE, ESCAPE ) < 0 ) {
+            int start = lineStart;
+            while( cells < maxCells ) {
+                int d = indexOf( buffer, start, lineEnd, delimiters, delimiter );
+                if( d < 0 ) {
+                    addCell( start, lineEnd );
+                    return;
+                }
+                addCell( start, d );
+                start = d + 1;
+            }
+            return;
+        }
+
+        int start = lineStart;
+        boolean escape = false;
+        for( int i = lineStart; i < lineEnd && cells < maxCells; i++ ) {
+            byte ch = buffer[i];
+            if( ch == ESCAPE ) escape = !escape;
+            else if( ch == delimiter ) {
+                if( !escape ) {
+                    addCell( start, i );
+                    start = i + 1;
+                }
+                escape = false;
+            } else escape = false;
+        }
+        if( cells < maxCells ) addCell( start, lineEnd );
+    }
+
+    private void addCell( int start, int end ) {
+        if( cells == cellStart.length ) {
+            cellStart = Arrays.copyOf( cellStart, cells * 2 );
+            cellEnd = Arrays.copyOf( cellEnd, cells * 2 );
+        }
+        cellStart[cells] = start;
+        cellEnd[cells] = end;
+        cells++;
+    }
+
+    /**
+     * Word at a time search: eight bytes are compared per step.
+     */
+    static int indexOf( byte[] bytes, int from, int to, long pattern, byte value ) {
+        int i = from;
+        for( ; i + Long.BYTES <= to; i += Long.BYTES ) {
+            long word = ( long ) LONG.get( bytes, i ) ^ pattern;
+            long found = ( word - ONES ) & ~word & HIGHS;
+            if( found != 0 ) return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+        }
+        for( ; i < to; i++ ) {
+            if( bytes[i] == value ) return i;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -24,7 +24,7 @@
 
 package oap.http.prometheus;
 
-import io.micrometer.core.instrument.Measurement;
+import com.google.common.collect.Iterables;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.prometheusmetrics.PrometheusConfig;
@@ -33,21 +33,39 @@ import lombok.extern.slf4j.Slf4j;
 import oap.http.server.nio.HttpHandler;
 import oap.http.server.nio.HttpServerExchange;
 import oap.http.server.nio.NioHttpServer;
+import org.joda.time.DateTimeUtils;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.net.HttpURLConnection.HTTP_OK;
 
 @Slf4j
 public class PrometheusExporter implements HttpHandler {
     public static final PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry( PrometheusConfig.DEFAULT );
     public static final String CONTENT_TYPE_TEXT_004 = "text/plain; version=0.0.4; charset=utf-8";
-    private static long metricCount = 0L;
+    private static final ConcurrentHashMap<Meter.Id, Integer> measurementsByMeter = new ConcurrentHashMap<>();
+    private static final LongAdder metricCount = new LongAdder();
 
     static {
+        prometheusRegistry.config()
+            .onMeterAdded( PrometheusExporter::meterAdded )
+            .onMeterRemoved( PrometheusExporter::meterRemoved );
+
         Metrics.addRegistry( prometheusRegistry );
 
-        Metrics.gauge( "system_metrics", prometheusRegistry, _ -> metricCount );
+        Metrics.gauge( "system_metrics", prometheusRegistry, _ -> metricCount.sum() );
     }
 
+    /**
+     * how long a scrape result is shared between scrapers, ms. 0 streams a fresh scrape on every request.
+     */
+    public long cacheTtl = 0;
+
+    private volatile Scrape cached;
+
     public PrometheusExporter( NioHttpServer server ) {
         server.bind( "/metrics", this );
     }
@@ -56,24 +74,50 @@ public class PrometheusExporter implements HttpHandler {
         server.bind( "/metrics", this, port );
     }
 
-    private static long getMetricCount() {
-        long count = 0;
+    private static void meterAdded( Meter meter ) {
+        int count = Iterables.size( meter.measure() );
 
-        List<Meter> meters = prometheusRegistry.getMeters();
-        for( Meter meter : meters ) {
-            for( Measurement measurement : meter.measure() ) {
-                count++;
-            }
-        }
+        Integer old = measurementsByMeter.put( meter.getId(), count );
+        metricCount.add( count - ( old != null ? old : 0 ) );
+    }
 
-        return count;
+    private static void meterRemoved( Meter meter ) {
+        Integer count = measurementsByMeter.remove( meter.getId() );
+        if( count != null ) metricCount.add( -count );
     }
 
     @Override
     public void handleRequest( HttpServerExchange exchange ) throws Exception {
-        metricCount = getMetricCount();
+        if( cacheTtl <= 0 ) {
+            exchange.setStatusCode( HTTP_OK );
+            exchange.setResponseHeader( "Content-Type", CONTENT_TYPE_TEXT_004 );
+            try( OutputStream out = exchange.getOutputStream() ) {
+                prometheusRegistry.scrape( out );
+            }
+            return;
+        }
 
-        var response = prometheusRegistry.scrape();
-        exchange.responseOk( response, CONTENT_TYPE_TEXT_004 );
+        exchange.responseOk( scrape().body, CONTENT_TYPE_TEXT_004 );
+    }
+
+    private Scrape scrape() throws Exception {
+        Scrape scrape = cached;
+        if( scrape != null && scrape.isFresh( cacheTtl ) ) return scrape;
+
+        synchronized( this ) {
+            scrape = cached;
+            if( scrape != null && scrape.isFresh( cacheTtl ) ) return scrape;
+
+            var out = new ByteArrayOutputStream( scrape != null ? scrape.body.length : 64 * 1024 );
+            prometheusRegistry.scrape( out );
+            cached = scrape = new Scrape( out.toByteArray(), DateTimeUtils.currentTimeMillis() );
+            return scrape;
+        }
+    }
+
+    private record Scrape( byte[] body, long time ) {
+        boolean isFresh( long ttl ) {
+            return DateTimeUtils.currentTimeMillis() - time < ttl;
+        }
     }
 }
@@ -32,6 +32,7 @@ import io.micrometer.core.instrument.search.Search;
 import oap.http.server.nio.NioHttpServer;
 import oap.testng.Fixtures;
 import oap.testng.Ports;
+import oap.util.Dates;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
@@ -42,6 +43,7 @@ import static oap.http.test.HttpAsserts.assertGet;
 public class PrometheusExporterTest extends Fixtures {
     private static void clear() {
         for( Meter meter : Search.in( PrometheusExporter.prometheusRegistry ).meters() ) {
+            if( "system_metrics".equals( meter.getId().getName() ) ) continue;
             PrometheusExporter.prometheusRegistry.remove( meter );
         }
     }
@@ -73,6 +75,34 @@ public class PrometheusExporterTest extends Fixtures {
         }
     }
 
+    @Test
+    public void cachedScrape() throws Exception {
+        int port = Ports.getFreePort( getClass() );
+        try( NioHttpServer server = new NioHttpServer( new NioHttpServer.DefaultPort( port ) ) ) {
+            PrometheusExporter exporter = new PrometheusExporter( server );
+            exporter.cacheTtl = Dates.m( 10 );
+
+            Counter metric = Metrics.counter( "test3" );
+
+            server.start();
+
+            metric.increment( 2 );
+            assertGet( "http://localhost:" + port + "/metrics" )
+                .body()
+                .contains( "test3_total 2.0" );
+
+            metric.increment( 3 );
+            assertGet( "http://localhost:" + port + "/metrics" )
+                .body()
+                .contains( "test3_total 2.0" );
+
+            exporter.cacheTtl = 0;
+            assertGet( "http://localhost:" + port + "/metrics" )
+                .body()
+                .contains( "test3_total 5.0" );
+        }
+    }
+
     @AfterMethod
     public void beforeMethod() {
         clear();
@@ -95,6 +95,12 @@ public interface Http {
         String AUTHORIZATION = io.undertow.util.Headers.AUTHORIZATION_STRING;
         String DATE = io.undertow.util.Headers.DATE_STRING;
         String CONNECTION = io.undertow.util.Headers.CONNECTION_STRING;
+        String ETAG = io.undertow.util.Headers.ETAG_STRING;
+        String IF_NONE_MATCH = io.undertow.util.Headers.IF_NONE_MATCH_STRING;
+        String RANGE = io.undertow.util.Headers.RANGE_STRING;
+        String CONTENT_RANGE = io.undertow.util.Headers.CONTENT_RANGE_STRING;
+        String ACCEPT_RANGES = io.undertow.util.Headers.ACCEPT_RANGES_STRING;
+        String VARY = io.undertow.util.Headers.VARY_STRING;
     }
 
     @SuppressWarnings( "checkstyle:InterfaceIsType" )
@@ -40,4 +40,18 @@ public class Https {
             throw new RuntimeException( "Couldnt replace host in url, originalUrl=" + url + ", newHost=" + newHost );
         }
     }
+
+    /**
+     * @param ifNoneMatch value of the {@code If-None-Match} header
+     * @param etag        quoted entity tag of the current representation
+     * @return true if the header lists the tag (weak comparison) or is {@code *}, i.e. the client copy is current
+     */
+    public static boolean ifNoneMatch( String ifNoneMatch, String etag ) {
+        for( String value : ifNoneMatch.split( "," ) ) {
+            String tag = value.trim();
+            if( tag.startsWith( "W/" ) ) tag = tag.substring( 2 );
+            if( tag.equals( "*" ) || tag.equals( etag ) ) return true;
+        }
+        return false;
+    }
 }
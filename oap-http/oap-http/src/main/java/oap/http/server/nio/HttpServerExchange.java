@@ -40,12 +40,15 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.xnio.IoUtils;
 import org.xnio.XnioWorker;
+import org.xnio.channels.Channels;
+import org.xnio.channels.StreamSinkChannel;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.Deque;
 import java.util.List;
@@ -398,6 +401,24 @@ public class HttpServerExchange {
         exchange.getResponseSender().send( ByteBuffer.wrap( bytes, offset, length ) );
     }
 
+    /**
+     * Sends {@code count} bytes of the file starting at {@code position} and ends the exchange. Uses sendfile when the
+     * connection allows it, otherwise copies through a pooled buffer. Requires a blocking exchange.
+     */
+    public void send( FileChannel channel, long position, long count ) throws IOException {
+        exchange.setResponseContentLength( count );
+        StreamSinkChannel sink = exchange.getResponseChannel();
+
+        long sent = 0;
+        while( sent < count ) {
+            long transferred = Channels.transferBlocking( sink, channel, position + sent, count - sent );
+            if( transferred <= 0 ) throw new IOException( "unexpected end of file, sent " + sent + " of " + count );
+            sent += transferred;
+        }
+
+        Channels.shutdownWritesBlocking( sink );
+    }
+
     public void closeConnection() {
         IoUtils.safeClose( exchange.getConnection() );
     }
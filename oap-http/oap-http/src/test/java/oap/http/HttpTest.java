@@ -27,4 +27,12 @@ public class HttpTest {
         assertThat( Https.replaceHostInUrl( "HTTP://WWW.TEST.COM:443/ME/OUT?IT=5&TEST=5", "SUPERDUPER:443" ) ).isEqualTo( "http://SUPERDUPER:443/ME/OUT?IT=5&TEST=5" );
         assertThat( Https.replaceHostInUrl( "HTTPS://WWW.TEST.COM:22/ME/OUT?IT=5&TEST=5", "SUPERDUPER:23" ) ).isEqualTo( "https://SUPERDUPER:23/ME/OUT?IT=5&TEST=5" );
     }
+
+    @Test
+    public void testIfNoneMatch() {
+        assertThat( Https.ifNoneMatch( "\"a-1\"", "\"a-1\"" ) ).isTrue();
+        assertThat( Https.ifNoneMatch( "\"b-1\", W/\"a-1\"", "\"a-1\"" ) ).isTrue();
+        assertThat( Https.ifNoneMatch( "*", "\"a-1\"" ) ).isTrue();
+        assertThat( Https.ifNoneMatch( "\"b-1\"", "\"a-1\"" ) ).isFalse();
+    }
 }
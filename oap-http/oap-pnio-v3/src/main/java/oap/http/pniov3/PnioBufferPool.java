@@ -0,0 +1,115 @@
+package oap.http.pniov3;
+
+import com.google.common.base.Preconditions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.ToString;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Striped pool of equally sized {@code byte[]} buffers. A thread starts looking for a buffer or a free slot in its own
+ * stripe (selected by thread id), so io threads rarely contend, and falls back to the other stripes. An empty pool is
+ * a miss and allocates a new buffer, a full pool drops the returned buffer (overflow). The pool never blocks.
+ */
+@ToString( onlyExplicitlyIncluded = true )
+public class PnioBufferPool {
+    @ToString.Include
+    public final int bufferSize;
+    public final Counter hit;
+    public final Counter miss;
+    public final Counter overflow;
+    private final AtomicInteger borrowed = new AtomicInteger();
+    private final Gauge borrowedGauge;
+    private final AtomicReferenceArray<byte[]> slots;
+    private final int stripeMask;
+    private final int stripeSize;
+
+    /**
+     * @param bufferSize size of each buffer
+     * @param capacity   maximum number of idle buffers kept by the pool
+     */
+    public PnioBufferPool( String id, String type, int bufferSize, int capacity ) {
+        Preconditions.checkArgument( bufferSize > 0, "bufferSize must be greater than 0" );
+        Preconditions.checkArgument( capacity > 0, "capacity must be greater than 0" );
+
+        this.bufferSize = bufferSize;
+
+        int stripes = Math.min( Integer.highestOneBit( Runtime.getRuntime().availableProcessors() * 2 - 1 ), Integer.highestOneBit( capacity ) );
+        this.stripeMask = stripes - 1;
+        this.stripeSize = Math.max( 1, capacity / stripes );
+        this.slots = new AtomicReferenceArray<>( stripes * stripeSize );
+
+        hit = Metrics.counter( "pnio_buffer_pool", Tags.of( "type", "hit", "buffer", type, "id", id ) );
+        miss = Metrics.counter( "pnio_buffer_pool", Tags.of( "type", "miss", "buffer", type, "id", id ) );
+        overflow = Metrics.counter( "pnio_buffer_pool", Tags.of( "type", "overflow", "buffer", type, "id", id ) );
+        borrowedGauge = Gauge.builder( "pnio_buffer_pool_borrowed", borrowed, AtomicInteger::get )
+            .tags( Tags.of( "buffer", type, "id", id ) )
+            .register( Metrics.globalRegistry );
+    }
+
+    private int stripeStart() {
+        return ( ( int ) Thread.currentThread().threadId() & stripeMask ) * stripeSize;
+    }
+
+    public byte[] borrow() {
+        borrowed.incrementAndGet();
+
+        int length = slots.length();
+        int start = stripeStart();
+        for( int n = 0; n < length; n++ ) {
+            int i = ( start + n ) % length;
+            if( slots.getPlain( i ) != null ) {
+                byte[] buffer = slots.getAndSet( i, null );
+                if( buffer != null ) {
+                    hit.increment();
+                    return buffer;
+                }
+            }
+        }
+
+        miss.increment();
+        return new byte[bufferSize];
+    }
+
+    /**
+     * The caller must not touch the buffer afterwards. Buffers of a different size are dropped.
+     */
+    public void release( byte[] buffer ) {
+        borrowed.decrementAndGet();
+
+        if( buffer.length != bufferSize ) return;
+
+        int length = slots.length();
+        int start = stripeStart();
+        for( int n = 0; n < length; n++ ) {
+            int i = ( start + n ) % length;
+            if( slots.getPlain( i ) == null && slots.compareAndSet( i, null, buffer ) ) {
+                return;
+            }
+        }
+
+        overflow.increment();
+    }
+
+    /**
+     * @return buffers currently borrowed and not yet returned, for leak detection
+     */
+    public int borrowed() {
+        return borrowed.get();
+    }
+
+    /**
+     * Unregisters the metrics, so a replacement pool with the same id and type reports its own.
+     * The pool keeps working, buffers still borrowed may be released.
+     */
+    public void close() {
+        Metrics.globalRegistry.remove( hit );
+        Metrics.globalRegistry.remove( miss );
+        Metrics.globalRegistry.remove( overflow );
+        Metrics.globalRegistry.remove( borrowedGauge );
+    }
+}
@@ -23,6 +23,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -63,6 +64,9 @@ public class PnioExchange<RequestState> {
     public final RequestState requestState;
     protected final HttpServerExchange oapExchange;
     private final PnioMetrics metrics;
+    private final PnioBufferPool responseBufferPool;
+    private final byte[] pooledResponseBuffer;
+    private final AtomicInteger responseBufferReferences = new AtomicInteger( 1 );
     public long timeoutNano;
     public volatile Throwable throwable;
     public volatile int processState;
@@ -76,12 +80,34 @@ public class PnioExchange<RequestState> {
                          PnioListener<RequestState> pnioListener,
                          RequestState requestState,
                          PnioMetrics metrics ) {
+        this( handlerName, requestBuffer, responseSize, null, controller, task, oapExchange, timeout, pnioListener, requestState, metrics );
+    }
+
+    /**
+     * @param responseBufferPool if not null, the response buffer is borrowed from the pool instead of allocating
+     *                           {@code responseSize} bytes. It goes back to the pool once every reference taken by
+     *                           {@link #retainResponseBuffer()} plus the initial one is released with
+     *                           {@link #releaseResponseBuffer()}.
+     */
+    public PnioExchange( String handlerName,
+                         byte[] requestBuffer, int responseSize,
+                         PnioBufferPool responseBufferPool,
+                         PnioController controller,
+                         ComputeTask<RequestState> task,
+                         HttpServerExchange oapExchange, long timeout,
+                         PnioListener<RequestState> pnioListener,
+                         RequestState requestState,
+                         PnioMetrics metrics ) {
         this.handlerName = handlerName;
         this.requestState = requestState;
         this.metrics = metrics;
         this.startTimeNano = System.nanoTime();
         this.requestBuffer = requestBuffer;
-        httpResponse = new HttpResponse( new PnioResponseBuffer( responseSize ) );
+        this.responseBufferPool = responseBufferPool;
+        this.pooledResponseBuffer = responseBufferPool != null ? responseBufferPool.borrow() : null;
+        httpResponse = new HttpResponse( pooledResponseBuffer != null
+            ? new PnioResponseBuffer( pooledResponseBuffer )
+            : new PnioResponseBuffer( responseSize ) );
 
         this.controller = controller;
 
@@ -191,6 +217,20 @@ public class PnioExchange<RequestState> {
         }
     }
 
+    public void retainResponseBuffer() {
+        responseBufferReferences.incrementAndGet();
+    }
+
+    /**
+     * Returns the pooled response buffer after the last reference is released. The response must be fully sent by then:
+     * {@link #send()} hands the buffer to undertow without copying.
+     */
+    public void releaseResponseBuffer() {
+        if( responseBufferReferences.decrementAndGet() == 0 && pooledResponseBuffer != null ) {
+            responseBufferPool.release( pooledResponseBuffer );
+        }
+    }
+
     public void onDone( Runnable onDoneRunnable ) {
         Preconditions.checkArgument( this.onDoneRunnable == null );
 
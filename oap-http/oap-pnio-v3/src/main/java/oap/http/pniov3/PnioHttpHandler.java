@@ -26,7 +26,12 @@ public class PnioHttpHandler<RequestState> implements PnioHttpHandlerReference {
     public int requestSize = 64 * 1024;
     public int responseSize = 32 * 1024;
     public boolean important = false;
+    /**
+     * Maximum number of idle response buffers kept for reuse, 0 disables pooling.
+     */
+    public int responseBufferPoolSize = 1024;
     public ComputeTask<RequestState> task;
+    private volatile PnioBufferPool responseBufferPool;
 
     public PnioHttpHandler( String uniqueName,
                             ComputeTask<RequestState> task,
@@ -57,25 +62,29 @@ public class PnioHttpHandler<RequestState> implements PnioHttpHandlerReference {
 
         oapExchange.exchange.getRequestReceiver().receiveFullBytes( ( _, message ) -> {
             oapExchange.exchange.dispatch( SameThreadExecutor.INSTANCE, () -> {
-                PnioExchange<RequestState> pnioExchange = new PnioExchange<>( uniqueName, message, responseSize, pnioController, task, oapExchange, timeout, pnioListener, requestState, metrics );
+                PnioExchange<RequestState> pnioExchange = newExchange( message, oapExchange, timeout, requestState );
                 pnioExchange.onDone( () -> exchanges.remove( pnioExchange.id ) );
                 exchanges.put( pnioExchange.id, pnioExchange );
 
+                // the worker task holds a response buffer reference until it finishes, release it if the task never runs
+                PnioWorkerTask<RequestState, ComputeTask<RequestState>> workerTask = new PnioWorkerTask<>( pnioExchange, task );
                 try {
-                    pnioController.pushTask( new PnioWorkerTask<>( pnioExchange, task ), _ -> {
+                    pnioController.pushTask( workerTask, _ -> {
                         exchanges.remove( pnioExchange.id );
                         pnioExchange.completeWithRejected();
                         pnioExchange.response();
+                        pnioExchange.releaseResponseBuffer();
                     }, important );
                 } catch( Exception e ) {
                     exchanges.remove( pnioExchange.id );
                     pnioExchange.completeWithFail( e );
                     pnioExchange.response();
+                    pnioExchange.releaseResponseBuffer();
                 }
             } );
         }, ( _, e ) -> {
             oapExchange.exchange.dispatch( SameThreadExecutor.INSTANCE, () -> {
-                PnioExchange<RequestState> pnioExchange = new PnioExchange<>( uniqueName, null, responseSize, pnioController, task, oapExchange, timeout, pnioListener, requestState, metrics );
+                PnioExchange<RequestState> pnioExchange = newExchange( null, oapExchange, timeout, requestState );
                 exchanges.put( pnioExchange.id, pnioExchange );
                 try {
 
@@ -93,6 +102,43 @@ public class PnioHttpHandler<RequestState> implements PnioHttpHandlerReference {
         } );
     }
 
+    private PnioExchange<RequestState> newExchange( byte[] message, HttpServerExchange oapExchange, long timeout, RequestState requestState ) {
+        PnioExchange<RequestState> pnioExchange = new PnioExchange<>( uniqueName, message, responseSize, getResponseBufferPool(),
+            pnioController, task, oapExchange, timeout, pnioListener, requestState, metrics );
+
+        // undertow sends the response buffer asynchronously, it can be reused only after the exchange is complete
+        oapExchange.exchange.addExchangeCompleteListener( ( _, nl ) -> {
+            pnioExchange.releaseResponseBuffer();
+            if( nl != null ) {
+                nl.proceed();
+            }
+        } );
+
+        return pnioExchange;
+    }
+
+    /**
+     * @return pool for the current {@link #responseSize}, null if pooling is disabled
+     */
+    public PnioBufferPool getResponseBufferPool() {
+        if( responseBufferPoolSize <= 0 ) return null;
+
+        PnioBufferPool pool = responseBufferPool;
+        if( pool == null || pool.bufferSize != responseSize ) {
+            synchronized( this ) {
+                pool = responseBufferPool;
+                if( pool == null || pool.bufferSize != responseSize ) {
+                    // the meters are shared by name and tags, the old pool's would shadow the new one's
+                    if( pool != null ) pool.close();
+                    pool = new PnioBufferPool( uniqueName, "response", responseSize, responseBufferPoolSize );
+                    responseBufferPool = pool;
+                }
+            }
+        }
+
+        return pool;
+    }
+
     @Override
     public PnioHttpHandler<?> getPnioHttpHandler() {
         return this;
@@ -38,7 +38,11 @@ public class PnioResponseBuffer {
     public byte[] buffer;
 
     public PnioResponseBuffer( int capacity ) {
-        this.buffer = new byte[capacity];
+        this( new byte[capacity] );
+    }
+
+    public PnioResponseBuffer( byte[] buffer ) {
+        this.buffer = buffer;
         this.length = 0;
     }
 
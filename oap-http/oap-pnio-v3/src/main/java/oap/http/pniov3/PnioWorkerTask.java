@@ -22,6 +22,8 @@ public class PnioWorkerTask<RequestState, R extends ComputeTask<RequestState>> {
         this.pnioExchange = pnioExchange;
         this.computeTask = computeTask;
         id = counter.incrementAndGet();
+
+        pnioExchange.retainResponseBuffer();
     }
 
     @SuppressWarnings( "checkstyle:CatchParameterName" )
@@ -44,6 +46,8 @@ public class PnioWorkerTask<RequestState, R extends ComputeTask<RequestState>> {
                 log.trace( e.getMessage(), e );
             }
             pnioExchange.response();
+        } finally {
+            pnioExchange.releaseResponseBuffer();
         }
         state.set( COMPLETED );
     }
@@ -0,0 +1,51 @@
+package oap.http.pniov3;
+
+import io.micrometer.core.instrument.Metrics;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PnioBufferPoolTest {
+    @Test
+    public void testReuse() {
+        PnioBufferPool pool = new PnioBufferPool( "test-reuse", "response", 16, 4 );
+
+        byte[] buffer = pool.borrow();
+        assertThat( buffer ).hasSize( 16 );
+        assertThat( pool.borrowed() ).isEqualTo( 1 );
+
+        pool.release( buffer );
+        assertThat( pool.borrowed() ).isZero();
+        assertThat( pool.borrow() ).isSameAs( buffer );
+    }
+
+    @Test
+    public void testOverflow() {
+        PnioBufferPool pool = new PnioBufferPool( "test-overflow", "response", 16, 1 );
+
+        byte[] first = pool.borrow();
+        byte[] second = pool.borrow();
+        assertThat( second ).isNotSameAs( first );
+
+        pool.release( first );
+        pool.release( second );
+        pool.release( pool.borrow() );
+        assertThat( pool.borrowed() ).isZero();
+
+        assertThat( pool.borrow() ).isSameAs( first );
+    }
+
+    @Test
+    public void testCloseUnregistersMetrics() {
+        PnioBufferPool pool = new PnioBufferPool( "test-close", "response", 16, 1 );
+        assertThat( Metrics.globalRegistry.find( "pnio_buffer_pool_borrowed" ).tag( "id", "test-close" ).gauge() ).isNotNull();
+
+        pool.close();
+        assertThat( Metrics.globalRegistry.find( "pnio_buffer_pool_borrowed" ).tag( "id", "test-close" ).gauge() ).isNull();
+        assertThat( Metrics.globalRegistry.find( "pnio_buffer_pool" ).tag( "id", "test-close" ).counters() ).isEmpty();
+
+        PnioBufferPool replacement = new PnioBufferPool( "test-close", "response", 32, 1 );
+        assertThat( replacement.hit ).isNotSameAs( pool.hit );
+        replacement.close();
+    }
+}
@@ -55,6 +55,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.zip.GZIPOutputStream;
 
@@ -62,6 +63,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static oap.http.Http.StatusCode.OK;
 import static oap.http.Http.StatusCode.TOO_MANY_REQUESTS;
 import static oap.http.test.HttpAsserts.assertPost;
+import static oap.testng.Asserts.assertEventually;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @Slf4j
@@ -265,12 +267,33 @@ public class PnioHttpHandlerTest extends Fixtures {
         assertThat( runAfterTimeout.get() ).isEqualTo( 0 );
     }
 
+    @Test
+    public void testResponseBufferPool() throws IOException {
+        ComputeTask<TestState> task = TestHandler.compute( "cpu-2" );
+
+        runWithWorkflow( 1024, 1024, 2, 1000, Dates.s( 100 ), task, ( port, handler ) -> {
+            for( int i = 0; i < 20; i++ ) {
+                assertPost( "http://localhost:" + port + "/test", "{}" )
+                    .hasCode( OK );
+            }
+
+            PnioBufferPool pool = handler.getResponseBufferPool();
+            assertThat( pool.bufferSize ).isEqualTo( 1024 );
+            assertEventually( 50, 100, () -> assertThat( pool.borrowed() ).isZero() );
+        } );
+    }
+
     private void runWithWorkflow( ComputeTask<TestState> task, Consumer<Integer> cons ) throws IOException {
         runWithWorkflow( 1024, 1024, 10, 1000, Dates.s( 100 ), task, cons );
     }
 
     private void runWithWorkflow( int requestSize, int responseSize, int ioThreads,
                                   int maxThreads, long timeout, ComputeTask<TestState> task, Consumer<Integer> cons ) throws IOException {
+        runWithWorkflow( requestSize, responseSize, ioThreads, maxThreads, timeout, task, ( port, _ ) -> cons.accept( port ) );
+    }
+
+    private void runWithWorkflow( int requestSize, int responseSize, int ioThreads, int maxThreads, long timeout,
+                                  ComputeTask<TestState> task, BiConsumer<Integer, PnioHttpHandler<TestState>> cons ) throws IOException {
         int port = Ports.getFreePort( getClass() );
 
         try( NioHttpServer httpServer = new NioHttpServer( new NioHttpServer.DefaultPort( port ) ) ) {
@@ -284,7 +307,9 @@ public class PnioHttpHandlerTest extends Fixtures {
                 httpServer.bind( "/test",
                     exchange -> httpHandler.handleRequest( exchange, timeout, new TestState() ), false );
 
-                cons.accept( port );
+                cons.accept( port, httpHandler );
+
+                assertEventually( 50, 100, () -> assertThat( httpHandler.getResponseBufferPool().borrowed() ).isZero() );
             }
         }
     }
@@ -27,8 +27,13 @@ package oap.jpath;
 import lombok.ToString;
 import oap.reflect.Reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
 @ToString
 public abstract class AbstractPathNode {
+    static final MethodType ACCESSOR_TYPE = MethodType.methodType( Object.class, Object.class );
+
     public final PathType type;
     public final String name;
 
@@ -38,4 +43,9 @@ public abstract class AbstractPathNode {
     }
 
     public abstract Object evaluate( Object v, Reflection reflect );
+
+    /**
+     * @return handle of type {@code (Object)Object} resolving this node against receivers of the given class
+     */
+    abstract MethodHandle accessor( Reflection reflect ) throws PathNotFoundException;
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package oap.jpath;
+
+import lombok.ToString;
+import oap.reflect.Reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+
+/**
+ * Immutable, thread-safe form of a parsed expression. Every path segment keeps the accessor resolved for the
+ * last receiver class seen (inline cache) in front of a per-class table, so repeated evaluation against the same
+ * object shapes skips reflection lookups entirely.
+ *
+ * @see JPath#compile(String)
+ */
+@ToString( of = "expression" )
+public final class CompiledJPath {
+    public final String expression;
+    public final IdentifierType type;
+    private final Segment[] segments;
+
+    CompiledJPath( String expression, Expression parsed ) {
+        this.expression = expression;
+        this.type = parsed.type;
+        this.segments = parsed.path.list.stream().map( Segment::new ).toArray( Segment[]::new );
+    }
+
+    public void evaluate( Map<String, Object> variables, JPathOutput output ) {
+        output.write( Pointer.get( get( variables ) ) );
+    }
+
+    public Object get( Map<String, Object> variables ) {
+        Object v = variables;
+        for( var segment : segments ) {
+            if( v == null ) return null;
+            v = segment.get( v );
+        }
+        return v;
+    }
+
+    private static final class Segment {
+        private final AbstractPathNode node;
+        private final ClassValue<MethodHandle> accessors = new ClassValue<>() {
+            @Override
+            protected MethodHandle computeValue( Class<?> type ) {
+                return node.accessor( Reflect.reflect( type ) );
+            }
+        };
+        private volatile InlineCache cache;
+
+        private Segment( AbstractPathNode node ) {
+            this.node = node;
+        }
+
+        private Object get( Object v ) {
+            if( node.type == PathType.FIELD && v instanceof Map<?, ?> map ) return map.get( node.name );
+
+            var receiver = v.getClass();
+            var c = cache;
+            if( c == null || c.receiver != receiver ) cache = c = new InlineCache( receiver, accessors.get( receiver ) );
+
+            try {
+                return c.accessor.invokeExact( v );
+            } catch( RuntimeException | Error e ) {
+                throw e;
+            } catch( Throwable e ) {
+                throw new ReflectionException( ( Exception ) e );
+            }
+        }
+    }
+
+    private record InlineCache( Class<?> receiver, MethodHandle accessor ) {}
+}
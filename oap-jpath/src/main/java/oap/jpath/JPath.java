@@ -24,13 +24,21 @@
 
 package oap.jpath;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.BufferedTokenStream;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class JPath {
+    private static final Cache<String, CompiledJPath> compiled = CacheBuilder.newBuilder()
+        .maximumSize( 10_000 )
+        .build();
+
     public final Map<String, Object> variables = new HashMap<>();
 
 
@@ -38,13 +46,27 @@ public class JPath {
         this.variables.putAll( variables );
     }
 
+    /**
+     * Parses the expression once and caches the result by its text.
+     */
+    public static CompiledJPath compile( String expression ) {
+        try {
+            return compiled.get( expression, () -> {
+                JPathParser jPathParser = new JPathParser( new BufferedTokenStream( new JPathLexer( new ANTLRInputStream( expression ) ) ) );
+
+                return new CompiledJPath( expression, jPathParser.expr().expression );
+            } );
+        } catch( ExecutionException | UncheckedExecutionException e ) {
+            if( e.getCause() instanceof RuntimeException re ) throw re;
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
     public static void evaluate( String expression, Map<String, Object> variables, JPathOutput output ) {
-        new JPath( variables ).evaluate( expression, output );
+        compile( expression ).evaluate( variables, output );
     }
 
     public void evaluate( String expression, JPathOutput output ) {
-        JPathParser jPathParser = new JPathParser( new BufferedTokenStream( new JPathLexer( new ANTLRInputStream( expression ) ) ) );
-
-        jPathParser.expr().expression.evaluate( variables, output );
+        compile( expression ).evaluate( variables, output );
     }
 }
@@ -28,12 +28,25 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import oap.reflect.Reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.util.List;
 
 @ToString( callSuper = true )
 @Slf4j
 public class PathNodeArray extends AbstractPathNode {
+    private static final MethodHandle LIST_GET;
+
+    static {
+        try {
+            LIST_GET = MethodHandles.publicLookup().findVirtual( List.class, "get", MethodType.methodType( Object.class, int.class ) );
+        } catch( ReflectiveOperationException e ) {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
     private final int index;
 
     protected PathNodeArray( String name, int index ) {
@@ -55,4 +68,28 @@ public class PathNodeArray extends AbstractPathNode {
 
         throw new PathNotFoundException( "Field not found: " + name );
     }
+
+    @Override
+    MethodHandle accessor( Reflection reflect ) throws PathNotFoundException {
+        var field = reflect.field( name ).orElse( null );
+        if( field == null ) throw new PathNotFoundException( "Field not found: " + name );
+
+        try {
+            var type = field.underlying.getType();
+            var getter = MethodHandles.lookup().unreflectGetter( field.underlying );
+            MethodHandle element;
+            if( type.isArray() ) {
+                element = MethodHandles.insertArguments( MethodHandles.arrayElementGetter( type ), 1, index );
+            } else if( type.isAssignableFrom( List.class ) ) {
+                getter = getter.asType( getter.type().changeReturnType( List.class ) );
+                element = MethodHandles.insertArguments( LIST_GET, 1, index );
+            } else {
+                throw new PathNotFoundException( "Field not found: " + name );
+            }
+
+            return MethodHandles.filterReturnValue( getter, element ).asType( ACCESSOR_TYPE );
+        } catch( IllegalAccessException e ) {
+            throw new ReflectionException( e );
+        }
+    }
 }
@@ -28,6 +28,9 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import oap.reflect.Reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
 @ToString( callSuper = true )
 @Slf4j
 public class PathNodeField extends AbstractPathNode {
@@ -42,4 +45,15 @@ public class PathNodeField extends AbstractPathNode {
         if( field == null ) throw new PathNotFoundException( "Field not found: " + name );
         return field.get( v );
     }
+
+    @Override
+    MethodHandle accessor( Reflection reflect ) throws PathNotFoundException {
+        var field = reflect.field( name ).orElse( null );
+        if( field == null ) throw new PathNotFoundException( "Field not found: " + name );
+        try {
+            return MethodHandles.lookup().unreflectGetter( field.underlying ).asType( ACCESSOR_TYPE );
+        } catch( IllegalAccessException e ) {
+            throw new ReflectionException( e );
+        }
+    }
 }
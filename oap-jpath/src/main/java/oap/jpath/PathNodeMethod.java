@@ -28,6 +28,9 @@ import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import oap.reflect.Reflection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Modifier;
 import java.util.List;
 
 @ToString( callSuper = true )
@@ -43,21 +46,46 @@ public class PathNodeMethod extends AbstractPathNode {
     @Override
     public Object evaluate( Object v, Reflection reflect ) {
         log.trace( "method -> {}", name );
-        var method = reflect.method( m -> m.name().equals( name ) && equals( m.parameters, arguments ) ).orElse( null );
+        var method = find( reflect );
         if( method == null ) throw new PathNotFoundException( "method " + name + " not found on object of class " + v.getClass().getCanonicalName() );
         try {
             method.underlying.setAccessible( true );
         } catch ( Exception ex ) {
             throw new ReflectionException( ex );
         }
-        return method.invoke( v, arguments.toArray( new Object[0] ) );
+        return method.invoke( v, convert( method.parameters, arguments ) );
     }
 
-    private boolean equals( List<Reflection.Parameter> parameters, List<Object> arguments ) {
-        if( parameters.size() != arguments.size() ) return false;
+    @Override
+    MethodHandle accessor( Reflection reflect ) throws PathNotFoundException {
+        var method = find( reflect );
+        if( method == null ) throw new PathNotFoundException( "method " + name + " not found on object of class " + reflect.name() );
+        try {
+            method.underlying.setAccessible( true );
+            var handle = MethodHandles.lookup().unreflect( method.underlying ).asFixedArity();
+            var args = convert( method.parameters, arguments );
+            if( Modifier.isStatic( method.underlying.getModifiers() ) )
+                return MethodHandles.dropArguments( MethodHandles.insertArguments( handle, 0, args ), 0, Object.class ).asType( ACCESSOR_TYPE );
+            return MethodHandles.insertArguments( handle, 1, args ).asType( ACCESSOR_TYPE );
+        } catch( Exception e ) {
+            throw new ReflectionException( e );
+        }
+    }
+
+    private Reflection.Method find( Reflection reflect ) {
+        return reflect.method( m -> m.name().equals( name ) && convert( m.parameters, arguments ) != null ).orElse( null );
+    }
+
+    /**
+     * @return arguments converted to the parameter types, or {@code null} if they do not match.
+     * The parsed argument list is shared between callers and is never modified.
+     */
+    private static Object[] convert( List<Reflection.Parameter> parameters, List<Object> arguments ) {
+        if( parameters.size() != arguments.size() ) return null;
 
-        for( var i = 0; i < parameters.size(); i++ ) {
-            var arg = arguments.get( i );
+        var ret = arguments.toArray( new Object[0] );
+        for( var i = 0; i < ret.length; i++ ) {
+            var arg = ret[i];
             var parameter = parameters.get( i );
 
             if( arg == null ) continue;
@@ -67,27 +95,27 @@ public class PathNodeMethod extends AbstractPathNode {
 
             if( Number.class.isAssignableFrom( argType ) ) {
                 if( int.class.equals( parameterType ) || Integer.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).intValue() );
+                    ret[i] = ( ( Number ) arg ).intValue();
                 } else if( long.class.equals( parameterType ) || Long.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).longValue() );
+                    ret[i] = ( ( Number ) arg ).longValue();
                 } else if( float.class.equals( parameterType ) || Float.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).floatValue() );
+                    ret[i] = ( ( Number ) arg ).floatValue();
                 } else if( short.class.equals( parameterType ) || Short.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).shortValue() );
+                    ret[i] = ( ( Number ) arg ).shortValue();
                 } else if( byte.class.equals( parameterType ) || Byte.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).byteValue() );
+                    ret[i] = ( ( Number ) arg ).byteValue();
                 } else if( double.class.equals( parameterType ) || Double.class.equals( parameterType ) ) {
-                    arguments.set( i, ( ( Number ) arg ).doubleValue() );
+                    ret[i] = ( ( Number ) arg ).doubleValue();
                 } else {
-                    return false;
+                    return null;
                 }
 
                 continue;
             }
 
-            if( !parameterType.equals( argType ) ) return false;
+            if( !parameterType.equals( argType ) ) return null;
         }
 
-        return true;
+        return ret;
     }
 }
@@ -116,6 +116,48 @@ public class JPathTest {
         assertThat( output.toString() ).hasToString( "str4" );
     }
 
+    @Test
+    public void testCompileCached() {
+        var compiled = JPath.compile( "${test.getStringInt(\"str\", 2)}" );
+        assertThat( JPath.compile( "${test.getStringInt(\"str\", 2)}" ) ).isSameAs( compiled );
+
+        assertThat( compiled.get( Map.of( "test", new TestBean( "val1", null, null ) ) ) ).isEqualTo( "str2" );
+        assertThat( compiled.get( Map.of( "test", new TestBean( "val2", null, null ) ) ) ).isEqualTo( "str2" );
+        assertThat( compiled.get( Map.of() ) ).isNull();
+    }
+
+    @Test
+    public void testCompiledPolymorphicReceiver() {
+        var compiled = JPath.compile( "${test.val}" );
+
+        for( var i = 0; i < 3; i++ ) {
+            assertThat( compiled.get( Map.of( "test", new TestBean( "bean" + i, null, null ) ) ) ).isEqualTo( "bean" + i );
+            assertThat( compiled.get( Map.of( "test", new OtherBean( i ) ) ) ).isEqualTo( i );
+            assertThat( compiled.get( Map.of( "test", Map.of( "val", "map" + i ) ) ) ).isEqualTo( "map" + i );
+        }
+    }
+
+    @Test
+    public void testCompiledMethodArgumentsPerReceiver() {
+        var compiled = JPath.compile( "${test.getStringLong(\"str\", 5)}" );
+
+        assertThat( compiled.get( Map.of( "test", new TestBean( "val1", null, null ) ) ) ).isEqualTo( "str5" );
+        assertThat( compiled.get( Map.of( "test", new OtherBean( 1 ) ) ) ).isEqualTo( "str5.0" );
+        assertThat( compiled.get( Map.of( "test", new TestBean( "val1", null, null ) ) ) ).isEqualTo( "str5" );
+    }
+
+    public static class OtherBean {
+        public int val;
+
+        public OtherBean( int val ) {
+            this.val = val;
+        }
+
+        public String getStringLong( String str, double d ) {
+            return str + d;
+        }
+    }
+
     @ToString
     public static class TestBean {
         public String val;
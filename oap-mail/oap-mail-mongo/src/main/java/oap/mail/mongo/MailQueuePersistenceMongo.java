@@ -1,5 +1,6 @@
 package oap.mail.mongo;
 
+import com.google.common.collect.MapMaker;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Filters;
@@ -13,9 +14,14 @@ import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentMap;
 
 public class MailQueuePersistenceMongo implements MailQueuePersistence {
     private final MongoCollection<MessageData> collection;
+    /**
+     * document ids of messages handed out by {@link #add(Message)} and {@link #iterator()}, weak identity keys
+     */
+    private final ConcurrentMap<Message, String> ids = new MapMaker().weakKeys().makeMap();
 
     public MailQueuePersistenceMongo( MongoClient mongoClient, String collectionName ) {
         CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
@@ -29,7 +35,15 @@ public class MailQueuePersistenceMongo implements MailQueuePersistence {
 
     @Override
     public void add( Message message ) {
-        collection.insertOne( new MessageData( Cuid.UNIQUE.next(), message ) );
+        String id = Cuid.UNIQUE.next();
+        collection.insertOne( new MessageData( id, message ) );
+        ids.put( message, id );
+    }
+
+    @Override
+    public void remove( Message message ) {
+        String id = ids.remove( message );
+        if( id != null ) collection.deleteOne( Filters.eq( "_id", id ) );
     }
 
     @Override
@@ -51,11 +65,13 @@ public class MailQueuePersistenceMongo implements MailQueuePersistence {
             @Override
             public Message next() {
                 messageData = iterator.next();
+                ids.put( messageData.message, messageData.id );
                 return messageData.message;
             }
 
             @Override
             public void remove() {
+                ids.remove( messageData.message );
                 collection.deleteOne( Filters.eq( "_id", messageData.id ) );
             }
         };
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package oap.mail;
+
+import oap.json.Binder;
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import oap.util.Lists;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MailQueuePersistenceFileTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public MailQueuePersistenceFileTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    @Test
+    public void replay() {
+        Path location = testDirectoryFixture.testPath( "queue" );
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            persistence.add( new Message( "subj1", "body", Lists.empty() ) );
+            Message message = new Message( "subj2", "body", Lists.empty() );
+            persistence.add( message );
+            persistence.add( new Message( "subj3", "body", Lists.empty() ) );
+            persistence.remove( message );
+        }
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj3" );
+
+            persistence.add( new Message( "subj4", "body", Lists.empty() ) );
+        }
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj3", "subj4" );
+        }
+    }
+
+    @Test
+    public void tornRecord() throws IOException {
+        Path location = testDirectoryFixture.testPath( "queue" );
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            persistence.add( new Message( "subj1", "body", Lists.empty() ) );
+            persistence.add( new Message( "subj2", "body", Lists.empty() ) );
+        }
+        Files.writeString( location.resolve( "mail.journal" ), "A 2 {\"subject\":\"subj", APPEND );
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2" );
+
+            persistence.add( new Message( "subj3", "body", Lists.empty() ) );
+        }
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2", "subj3" );
+        }
+    }
+
+    @Test
+    public void brokenRecordInTheMiddle() throws IOException {
+        Path location = testDirectoryFixture.testPath( "queue" );
+        Path journal = location.resolve( "mail.journal" );
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            persistence.add( new Message( "subj1", "body", Lists.empty() ) );
+        }
+        Files.writeString( journal, "A 1 {\"subject\":\"subj\n", APPEND );
+        Files.writeString( journal, "X\n", APPEND );
+        Files.writeString( journal, "A 2 " + Binder.json.marshal( new Message( "subj2", "body", Lists.empty() ) ) + "\n", APPEND );
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2" );
+            assertThat( Files.readAllLines( journal ) ).hasSize( 2 );
+
+            persistence.add( new Message( "subj3", "body", Lists.empty() ) );
+        }
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2", "subj3" );
+        }
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        Path location = testDirectoryFixture.testPath( "queue" );
+        Path journal = location.resolve( "mail.journal" );
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            persistence.compactionThreshold = 10;
+            for( int i = 0; i < 20; i++ ) persistence.add( new Message( "subj" + i, "body", Lists.empty() ) );
+            assertThat( Files.readAllLines( journal ) ).hasSize( 20 );
+
+            Iterator<Message> iterator = persistence.iterator();
+            for( int i = 0; i < 12; i++ ) {
+                iterator.next();
+                iterator.remove();
+            }
+
+            assertThat( Files.readAllLines( journal ) ).hasSize( 10 + 2 );
+            assertThat( persistence.size() ).isEqualTo( 8 );
+        }
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj12", "subj13", "subj14", "subj15", "subj16", "subj17", "subj18", "subj19" );
+            assertThat( Files.readAllLines( journal ) ).hasSize( 8 );
+        }
+    }
+
+    @Test
+    public void importLegacySnapshot() {
+        Path location = testDirectoryFixture.testPath( "queue" );
+        Binder.json.marshal( location.resolve( "mail.gz" ), List.of(
+            new Message( "subj1", "body", Lists.empty() ),
+            new Message( "subj2", "body", Lists.empty() ) ) );
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2" );
+        }
+        assertThat( location.resolve( "mail.gz" ) ).doesNotExist();
+
+        try( MailQueuePersistenceFile persistence = new MailQueuePersistenceFile( location ) ) {
+            assertThat( subjects( persistence ) ).containsExactly( "subj1", "subj2" );
+        }
+    }
+
+    private static List<String> subjects( MailQueuePersistence persistence ) {
+        List<String> subjects = new ArrayList<>();
+        for( Message message : persistence ) subjects.add( message.subject );
+        return subjects;
+    }
+}
@@ -50,7 +50,7 @@ public class MailQueueTest extends Fixtures {
         Path location = testDirectoryFixture.testPath( "queue" );
         MailQueue queue = prepareQueue( location );
         queue.processing( reject() );
-        assertThat( location.resolve( "mail.gz" ) ).exists();
+        assertThat( location.resolve( "mail.journal" ) ).exists();
         MailQueue queue2 = new MailQueue( new MailQueuePersistenceFile( location ) );
         assertMessages( queue2.messages() )
             .hasSize( 2 )
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.mail;
+
+import oap.util.Lists;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static oap.testng.Asserts.assertEventually;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MailmanTest {
+    @Test
+    public void parallelDeliveryWithRetry() throws InterruptedException {
+        Set<String> sent = ConcurrentHashMap.newKeySet();
+        Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+        Transport transport = message -> {
+            if( message.subject.endsWith( "0" ) && failedOnce.add( message.subject ) )
+                throw new MailException( "temporary failure" );
+            sent.add( message.subject );
+        };
+
+        MailQueue queue = new MailQueue();
+        Mailman mailman = new Mailman( transport, queue, 100 );
+        mailman.workers = 4;
+        mailman.domainRateLimit = 1000;
+
+        Thread thread = new Thread( mailman );
+        thread.start();
+        try {
+            for( int i = 0; i < 100; i++ ) {
+                Message message = new Message( "subj" + i, "body", Lists.empty() );
+                message.to.add( new MailAddress( "user" + i + "@example.com" ) );
+                mailman.send( message );
+            }
+
+            assertEventually( 100, 50, () -> {
+                assertThat( sent ).hasSize( 100 );
+                assertThat( queue.size() ).isZero();
+            } );
+            assertThat( failedOnce ).hasSize( 10 );
+        } finally {
+            thread.interrupt();
+            thread.join();
+            mailman.close();
+        }
+    }
+}
@@ -41,7 +41,7 @@ public class MailQueue {
     }
 
     public MailQueue() {
-        this( null );
+        this( new MailQueuePersistenceMemory() );
     }
 
     public void add( Message message ) {
@@ -49,15 +49,23 @@ public class MailQueue {
         mailQueuePersistence.add( message );
     }
 
+    public void remove( Message message ) {
+        log.trace( "removing {}", message );
+        mailQueuePersistence.remove( message );
+    }
+
+    public boolean isExpired( Message message ) {
+        return message.created.isBefore( DateTime.now().minus( brokenMessageTTL ) );
+    }
+
     public void processing( Predicate<Message> processor ) {
-        DateTime ttl = DateTime.now().minus( brokenMessageTTL );
         Iterator<Message> iterator = mailQueuePersistence.iterator();
         while( iterator.hasNext() ) {
             Message message = iterator.next();
 
             if( processor.test( message ) ) {
                 iterator.remove();
-            } else if( message.created.isBefore( ttl ) ) {
+            } else if( isExpired( message ) ) {
                 log.debug( "removing expired message: {}", message );
                 iterator.remove();
             }
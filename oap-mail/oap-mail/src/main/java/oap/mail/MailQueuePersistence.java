@@ -1,7 +1,22 @@
 package oap.mail;
 
+import java.util.Iterator;
+
 public interface MailQueuePersistence extends Iterable<Message> {
     void add( Message message );
 
+    /**
+     * Removes a message previously added or returned by {@link #iterator()}. Messages are compared by identity.
+     */
+    default void remove( Message message ) {
+        Iterator<Message> iterator = iterator();
+        while( iterator.hasNext() ) {
+            if( iterator.next() == message ) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
     int size();
 }
@@ -1,37 +1,293 @@
 package oap.mail;
 
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import oap.io.Files;
 import oap.json.Binder;
 import oap.reflect.TypeRef;
 import oap.util.Lists;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only journal in {@code <location>/mail.journal}, one record per line:
+ * <pre>
+ * A &lt;id&gt; &lt;message json&gt;
+ * R &lt;id&gt;
+ * </pre>
+ * The journal is compacted on open and whenever records of removed messages outnumber live ones
+ * (and exceed {@link #compactionThreshold}). A final record without its newline is the tail torn by a crash and
+ * is dropped; complete but unreadable records are skipped with a warning and recovery goes on, so later records
+ * survive the compaction on open. Concurrent writers share one
+ * fsync (group commit). A legacy {@code mail.gz} snapshot is imported into a new journal and deleted.
+ */
 @Slf4j
-public class MailQueuePersistenceFile extends MailQueuePersistenceMemory {
-    private final Path location;
+@ToString( of = "journal" )
+public class MailQueuePersistenceFile extends MailQueuePersistenceMemory implements Closeable {
+    private final Path journal;
+    private final Path legacy;
+    private final Map<Message, Long> ids = new HashMap<>();
+    private final Object syncLock = new Object();
+    public boolean fsync = true;
+    public int compactionThreshold = 1000;
+    private FileChannel channel;
+    private long nextId;
+    private long written;
+    private long synced;
+    private int garbage;
 
     public MailQueuePersistenceFile( Path location ) {
-        this.location = location.resolve( "mail.gz" );
+        this.journal = location.resolve( "mail.journal" );
+        this.legacy = location.resolve( "mail.gz" );
         load();
     }
 
     private void load() {
         log.debug( "loading queue..." );
-        queue.addAll( Binder.json.unmarshal( new TypeRef<List<Message>>() {}, location ).orElse( Lists.empty() ) );
+        Files.ensureDirectory( journal.getParent() );
+
+        synchronized( syncLock ) {
+            synchronized( this ) {
+                try {
+                    boolean exists = java.nio.file.Files.exists( journal );
+                    if( exists ) replay();
+
+                    if( !exists && java.nio.file.Files.exists( legacy ) ) {
+                        List<Message> messages = Binder.json.unmarshal( new TypeRef<List<Message>>() {}, legacy ).orElse( Lists.empty() );
+                        log.info( "importing {} messages from {}", messages.size(), legacy );
+                        for( Message message : messages ) {
+                            ids.put( message, nextId++ );
+                            queue.add( message );
+                        }
+                    }
+
+                    compact();
+
+                    if( java.nio.file.Files.exists( legacy ) ) Files.delete( legacy );
+                } catch( IOException e ) {
+                    throw new oap.io.IOException( "cannot load " + journal, e );
+                }
+            }
+        }
+
         log.debug( "{} messages loaded", size() );
     }
 
-    private synchronized void persist() {
-        Binder.json.marshal( location, this.queue );
+    private void replay() throws IOException {
+        Map<Long, Message> live = new LinkedHashMap<>();
+        long records = 0;
+        long broken = 0;
+
+        try( InputStream in = new BufferedInputStream( java.nio.file.Files.newInputStream( journal ) ) ) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while( ( b = in.read() ) >= 0 ) {
+                if( b != '\n' ) {
+                    line.write( b );
+                    continue;
+                }
+                records++;
+                if( !apply( line.toString( UTF_8 ), live ) ) {
+                    broken++;
+                    log.warn( "{}: skipping broken record #{}", journal, records );
+                }
+                line.reset();
+            }
+            if( line.size() > 0 )
+                log.warn( "{}: dropping incomplete record #{} at the end of the journal", journal, records + 1 );
+        }
+
+        live.forEach( ( id, message ) -> {
+            ids.put( message, id );
+            queue.add( message );
+        } );
+        log.debug( "{}: {} records replayed, {} broken", journal, records, broken );
+    }
+
+    private boolean apply( String record, Map<Long, Message> live ) {
+        try {
+            switch( record.charAt( 0 ) ) {
+                case 'A' -> {
+                    int space = record.indexOf( ' ', 2 );
+                    long id = Long.parseLong( record.substring( 2, space ) );
+                    live.put( id, Binder.json.unmarshal( Message.class, record.substring( space + 1 ) ) );
+                    nextId = Math.max( nextId, id + 1 );
+                }
+                case 'R' -> live.remove( Long.parseLong( record.substring( 2 ) ) );
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch( RuntimeException e ) {
+            log.trace( "broken record {}", record, e );
+            return false;
+        }
+    }
+
+    @Override
+    public void add( Message message ) {
+        byte[] json = Binder.json.marshal( message ).getBytes( UTF_8 );
+
+        long position;
+        synchronized( this ) {
+            long id = nextId++;
+            position = write( record( 'A', id, json ) );
+            ids.put( message, id );
+            queue.add( message );
+        }
+
+        sync( position );
+    }
+
+    @Override
+    public void remove( Message message ) {
+        remove( message, () -> queue.remove( message ) );
+    }
+
+    private void remove( Message message, Runnable dequeue ) {
+        long position;
+        boolean compact;
+        synchronized( this ) {
+            Long id = ids.remove( message );
+            if( id == null ) return;
+
+            dequeue.run();
+            position = write( record( 'R', id, null ) );
+            garbage++;
+            compact = garbage >= compactionThreshold && garbage >= ids.size();
+        }
+
+        sync( position );
+
+        if( compact ) {
+            synchronized( syncLock ) {
+                synchronized( this ) {
+                    if( garbage >= compactionThreshold && garbage >= ids.size() ) compactUnchecked();
+                }
+            }
+        }
+    }
+
+    private static byte[] record( char type, long id, byte[] json ) {
+        byte[] header = ( type + " " + id + ( json != null ? " " : "\n" ) ).getBytes( UTF_8 );
+        if( json == null ) return header;
+
+        byte[] record = new byte[header.length + json.length + 1];
+        System.arraycopy( header, 0, record, 0, header.length );
+        System.arraycopy( json, 0, record, header.length, json.length );
+        record[record.length - 1] = '\n';
+        return record;
+    }
+
+    /**
+     * @return the journal position after the record, to be passed to {@link #sync(long)}
+     */
+    private synchronized long write( byte[] record ) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap( record );
+            while( buffer.hasRemaining() ) channel.write( buffer );
+            return written += record.length;
+        } catch( IOException e ) {
+            throw new oap.io.IOException( "cannot write to " + journal, e );
+        }
+    }
+
+    /**
+     * Group commit: writers that arrive while another fsync is in progress wait for it and find their records already
+     * covered by the next one, so a burst of N writers costs about two fsyncs instead of N.
+     */
+    private void sync( long position ) {
+        if( !fsync ) return;
+
+        synchronized( syncLock ) {
+            if( synced >= position ) return;
+
+            FileChannel channel;
+            long target;
+            synchronized( this ) {
+                channel = this.channel;
+                target = written;
+            }
+
+            try {
+                channel.force( false );
+            } catch( IOException e ) {
+                throw new oap.io.IOException( "cannot sync " + journal, e );
+            }
+            synced = target;
+        }
+    }
+
+    private void compactUnchecked() {
+        try {
+            compact();
+        } catch( IOException e ) {
+            throw new oap.io.IOException( "cannot compact " + journal, e );
+        }
+    }
+
+    /**
+     * Rewrites the live messages to a new journal and atomically replaces the old one.
+     * The caller holds both {@link #syncLock} and {@code this}.
+     */
+    private void compact() throws IOException {
+        log.trace( "compacting {}: {} live, {} removed", journal, ids.size(), garbage );
+
+        Path tmp = journal.resolveSibling( journal.getFileName() + ".tmp" );
+        try( FileOutputStream file = new FileOutputStream( tmp.toFile() );
+             OutputStream out = new BufferedOutputStream( file ) ) {
+            for( Message message : queue ) {
+                Long id = ids.get( message );
+                if( id != null ) out.write( record( 'A', id, Binder.json.marshal( message ).getBytes( UTF_8 ) ) );
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+
+        if( channel != null ) channel.close();
+        Files.rename( tmp, journal );
+        syncDirectory();
+
+        channel = FileChannel.open( journal, WRITE, APPEND );
+        garbage = 0;
+        synced = written;
+    }
+
+    private void syncDirectory() {
+        try( FileChannel directory = FileChannel.open( journal.getParent(), READ ) ) {
+            directory.force( true );
+        } catch( IOException e ) {
+            log.trace( "directory sync is not supported: {}", e.getMessage() );
+        }
     }
 
     @Override
     public Iterator<Message> iterator() {
         Iterator<Message> iterator = queue.iterator();
         return new Iterator<>() {
+            private Message current;
+
             @Override
             public boolean hasNext() {
                 return iterator.hasNext();
@@ -39,15 +295,32 @@ public class MailQueuePersistenceFile extends MailQueuePersistenceMemory {
 
             @Override
             public Message next() {
-                return iterator.next();
+                return current = iterator.next();
             }
 
             @Override
             public void remove() {
-                iterator.remove();
+                if( current == null ) throw new IllegalStateException();
 
-                persist();
+                MailQueuePersistenceFile.this.remove( current, iterator::remove );
+                current = null;
             }
         };
     }
+
+    @Override
+    public void close() {
+        synchronized( syncLock ) {
+            synchronized( this ) {
+                try {
+                    if( channel != null ) {
+                        channel.force( false );
+                        channel.close();
+                    }
+                } catch( IOException e ) {
+                    log.error( "cannot close {}", journal, e );
+                }
+            }
+        }
+    }
 }
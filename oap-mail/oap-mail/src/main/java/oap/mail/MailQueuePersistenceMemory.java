@@ -25,6 +25,11 @@ public class MailQueuePersistenceMemory implements MailQueuePersistence {
         queue.add( message );
     }
 
+    @Override
+    public void remove( Message message ) {
+        queue.remove( message );
+    }
+
     @Override
     public Iterator<Message> iterator() {
         return queue.iterator();
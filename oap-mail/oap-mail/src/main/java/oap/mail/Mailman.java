@@ -24,39 +24,91 @@
 package oap.mail;
 
 
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
+import oap.concurrent.Executors;
 import oap.concurrent.scheduler.Scheduled;
 import oap.concurrent.scheduler.Scheduler;
 import oap.io.Closeables;
 
 import java.io.Closeable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Delivers queued messages with {@link #workers} parallel senders.
+ * <ul>
+ *     <li>new messages and messages already persisted on start go straight to the senders</li>
+ *     <li>a failed message is retried once {@code retryPeriod} has passed; only due retries are picked up, the queue
+ *     is not rescanned</li>
+ *     <li>{@link #domainRateLimit} / {@link #domainRateLimits} cap the messages per second sent to a recipient domain</li>
+ * </ul>
+ */
 @Slf4j
 public class Mailman implements Runnable, Closeable {
     private final Transport transport;
     private final MailQueue queue;
+    private final long retryPeriod;
     private final Semaphore semaphore = new Semaphore( 0 );
     private final Scheduled scheduled;
+    private final ConcurrentLinkedQueue<Message> ready = new ConcurrentLinkedQueue<>();
+    private final DelayQueue<Retry> retries = new DelayQueue<>();
+    private final ConcurrentHashMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    /**
+     * number of parallel senders, the transport must be thread-safe when greater than 1
+     */
+    public int workers = 1;
+    /**
+     * messages per second per recipient domain, 0 - unlimited
+     */
+    public double domainRateLimit = 0;
+    /**
+     * per domain overrides of {@link #domainRateLimit}
+     */
+    public Map<String, Double> domainRateLimits = new HashMap<>();
+    private volatile ExecutorService executor;
 
     public Mailman( Transport transport, MailQueue queue, long retryPeriod ) {
         super();
         this.transport = transport;
         this.queue = queue;
+        this.retryPeriod = retryPeriod;
+
+        for( Message message : queue.messages() ) ready.add( message );
 
         scheduled = Scheduler.scheduleWithFixedDelay( retryPeriod, TimeUnit.MILLISECONDS, semaphore::release );
     }
 
     public void run() {
+        executor = Executors.newFixedThreadPool( workers,
+            new ThreadFactoryBuilder().setNameFormat( "mailman-%d" ).setDaemon( true ).build() );
+
         var done = false;
         while( !done ) {
             try {
                 semaphore.acquire();
 
-                log.debug( "sending {} messages from queue ...", queue.size() );
-                queue.processing( this::sendMessage );
-            } catch( InterruptedException e ) {
+                Retry retry;
+                while( ( retry = retries.poll() ) != null ) ready.add( retry.message );
+
+                log.debug( "sending {} messages, {} waiting for retry ...", ready.size(), retries.size() );
+                Message message;
+                while( ( message = ready.poll() ) != null ) {
+                    Message m = message;
+                    executor.execute( () -> deliver( m ) );
+                }
+            } catch( InterruptedException | RejectedExecutionException e ) {
                 done = true;
             } catch( Exception e ) {
                 log.error( e.getMessage(), e );
@@ -64,20 +116,47 @@ public class Mailman implements Runnable, Closeable {
         }
     }
 
-    private boolean sendMessage( Message message ) {
+    private void deliver( Message message ) {
         try {
+            acquireDomains( message );
             transport.send( message );
-            return true;
+            queue.remove( message );
         } catch( Exception e ) {
             log.error( "Cannot send a message: {}", message, e );
-            return false;
+
+            if( queue.isExpired( message ) ) {
+                log.debug( "removing expired message: {}", message );
+                queue.remove( message );
+            } else {
+                retries.add( new Retry( message, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( retryPeriod ) ) );
+            }
+        }
+    }
+
+    private void acquireDomains( Message message ) {
+        if( domainRateLimit <= 0 && domainRateLimits.isEmpty() ) return;
+
+        var domains = new HashSet<String>();
+        for( MailAddress address : message.to ) domains.add( domain( address ) );
+        for( MailAddress address : message.cc ) domains.add( domain( address ) );
+        for( MailAddress address : message.bcc ) domains.add( domain( address ) );
+
+        for( String domain : domains ) {
+            double rate = domainRateLimits.getOrDefault( domain, domainRateLimit );
+            if( rate > 0 ) rateLimiters.computeIfAbsent( domain, _ -> RateLimiter.create( rate ) ).acquire();
         }
     }
 
+    private static String domain( MailAddress address ) {
+        int at = address.mail.lastIndexOf( '@' );
+        return address.mail.substring( at + 1 ).toLowerCase( Locale.ROOT );
+    }
+
     public void send( Message message ) {
         log.debug( "enqueue message {}", message );
 
         this.queue.add( message );
+        ready.add( message );
 
         semaphore.release();
     }
@@ -85,5 +164,28 @@ public class Mailman implements Runnable, Closeable {
     @Override
     public void close() {
         Closeables.close( scheduled );
+
+        if( executor != null ) {
+            executor.shutdown();
+            try {
+                if( !executor.awaitTermination( 1, TimeUnit.MINUTES ) ) {
+                    log.warn( "senders did not finish in time" );
+                }
+            } catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record Retry( Message message, long at ) implements Delayed {
+        @Override
+        public long getDelay( TimeUnit unit ) {
+            return unit.convert( at - System.nanoTime(), TimeUnit.NANOSECONDS );
+        }
+
+        @Override
+        public int compareTo( Delayed o ) {
+            return Long.compare( at, ( ( Retry ) o ).at );
+        }
     }
 }
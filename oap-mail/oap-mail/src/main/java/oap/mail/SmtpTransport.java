@@ -33,20 +33,30 @@ import javax.activation.DataHandler;
 import javax.activation.MailcapCommandMap;
 import javax.mail.Authenticator;
 import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
 import javax.mail.Session;
 import javax.mail.Transport;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
+import java.io.Closeable;
 import java.net.MalformedURLException;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@ToString
+/**
+ * Thread-safe. Authenticated SMTP connections are reused for up to {@link #maxMessagesPerConnection} messages and
+ * at most {@link #maxIdleConnections} of them are kept open between sends. A send that fails on a reused
+ * (possibly timed out) connection is repeated once on a new one.
+ */
+@ToString( exclude = { "session", "idle" } )
 @Slf4j
-public class SmtpTransport implements oap.mail.Transport {
+public class SmtpTransport implements oap.mail.Transport, Closeable {
+    private static final Pattern CID = Pattern.compile( "[\"']cid:(.+)[\"']" );
+
     static {
         MailcapCommandMap mc = ( MailcapCommandMap ) CommandMap.getDefaultCommandMap();
         mc.addMailcap( "text/html;; x-java-content-handler=com.sun.mail.handlers.text_html" );
@@ -61,7 +71,11 @@ public class SmtpTransport implements oap.mail.Transport {
     public final int port;
     public final boolean tls;
     public final Authenticator authenticator;
+    public int maxIdleConnections = 4;
+    public int maxMessagesPerConnection = 100;
     private final Properties properties = new Properties();
+    private final Session session;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
 
     public SmtpTransport( String host, int port, boolean tls, Authenticator authenticator ) {
         this( host, port, tls, authenticator, "TLSv1.2" );
@@ -79,11 +93,12 @@ public class SmtpTransport implements oap.mail.Transport {
             properties.put( "mail.smtp.ssl.protocols", tlsVersion );
         }
         properties.put( "mail.smtp.auth", String.valueOf( authenticator != null ) );
+
+        session = Session.getInstance( properties, authenticator );
     }
 
     public void send( Message message ) {
         log.debug( "sending {}", message );
-        Session session = Session.getInstance( properties, authenticator );
         MimeMessage mimeMessage = new MimeMessage( session );
         try {
             mimeMessage.setFrom( message.from.toInternetAddress() );
@@ -103,7 +118,7 @@ public class SmtpTransport implements oap.mail.Transport {
                 if( "text/html".equalsIgnoreCase( message.contentType ) ) {
                     multipart = new Attachments.HtmlMimeMultipart();
                     try {
-                        Matcher m = Pattern.compile( "[\"']cid:(.+)[\"']" ).matcher( message.body );
+                        Matcher m = CID.matcher( message.body );
                         while( m.find() )
                             cidIds.add( m.group( 1 ) );
                     } catch( Exception e ) {
@@ -138,7 +153,8 @@ public class SmtpTransport implements oap.mail.Transport {
                 }
                 mimeMessage.setContent( multipart );
             }
-            Transport.send( mimeMessage );
+            mimeMessage.saveChanges();
+            send( mimeMessage );
             log.debug( "message {} is sent", message );
         } catch( MessagingException e ) {
             throw new MailException( e );
@@ -146,4 +162,70 @@ public class SmtpTransport implements oap.mail.Transport {
 
     }
 
+    private void send( MimeMessage mimeMessage ) throws MessagingException {
+        Connection connection = idle.pollFirst();
+        if( connection != null ) {
+            try {
+                connection.send( mimeMessage );
+                release( connection );
+                return;
+            } catch( SendFailedException e ) {
+                release( connection );
+                throw e;
+            } catch( MessagingException e ) {
+                log.debug( "reused connection failed, reconnecting: {}", e.getMessage() );
+                connection.close();
+            }
+        }
+
+        connection = new Connection( session.getTransport( "smtp" ) );
+        try {
+            connection.send( mimeMessage );
+        } catch( SendFailedException e ) {
+            release( connection );
+            throw e;
+        } catch( MessagingException e ) {
+            connection.close();
+            throw e;
+        }
+        release( connection );
+    }
+
+    private void release( Connection connection ) {
+        if( connection.sent >= maxMessagesPerConnection || idle.size() >= maxIdleConnections ) {
+            connection.close();
+        } else {
+            idle.offerFirst( connection );
+        }
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while( ( connection = idle.pollFirst() ) != null ) connection.close();
+    }
+
+    private static final class Connection {
+        private final Transport transport;
+        private int sent;
+
+        private Connection( Transport transport ) {
+            this.transport = transport;
+        }
+
+        private void send( MimeMessage mimeMessage ) throws MessagingException {
+            // isConnected() costs a NOOP round trip, a dropped connection fails the send instead
+            if( sent == 0 ) transport.connect();
+            sent++;
+            transport.sendMessage( mimeMessage, mimeMessage.getAllRecipients() );
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch( MessagingException e ) {
+                log.trace( "close: {}", e.getMessage() );
+            }
+        }
+    }
 }
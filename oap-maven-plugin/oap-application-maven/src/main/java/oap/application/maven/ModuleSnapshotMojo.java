@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.application.maven;
+
+import oap.application.ModuleSnapshot;
+import oap.io.Files;
+import oap.json.Binder;
+import oap.reflect.TypeRef;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes json snapshots of the static module configurations (see {@link ModuleSnapshot}) into
+ * <code>META-INF/oap-module-snapshot</code> and a class list of the service implementations usable as an AppCDS
+ * <code>-XX:SharedClassListFile</code>.
+ * <p>
+ * The class list holds only the implementation classes named in the module files, not the classes they load
+ * while starting. A complete list comes from a training run with <code>-XX:DumpLoadedClassList</code>.
+ */
+@Mojo( name = "module-snapshot", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.RUNTIME )
+public class ModuleSnapshotMojo extends AbstractMojo {
+    @Parameter( defaultValue = "${project.build.outputDirectory}" )
+    private String outputDirectory;
+
+    @Parameter( defaultValue = "${project.runtimeClasspathElements}", readonly = true )
+    private List<String> classpathElements;
+
+    @Parameter( defaultValue = "${project.build.directory}/oap/classes.lst" )
+    private String classList;
+
+    @Parameter( defaultValue = "true" )
+    private boolean generateClassList;
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public void execute() {
+        var classes = new TreeSet<String>();
+        var keys = new TreeSet<String>();
+
+        try( URLClassLoader classLoader = new URLClassLoader( urls(), getClass().getClassLoader() ) ) {
+            for( Path module : Files.wildcard( Paths.get( outputDirectory, "META-INF" ), "oap-module.*" ) ) {
+                String content;
+                try {
+                    content = java.nio.file.Files.readString( module );
+                } catch( IOException e ) {
+                    throw new UncheckedIOException( e );
+                }
+
+                Binder.Format format = Binder.Format.of( module.toString(), false );
+                Map<String, Object> tree = format.binder
+                    .unmarshal( new TypeRef<Map<String, Object>>() {}, content );
+
+                Object services = tree.containsKey( "services" ) ? tree.get( "services" ) : tree.get( "service" );
+                if( generateClassList && services instanceof Map<?, ?> map ) {
+                    for( Object service : map.values() ) {
+                        if( service instanceof Map<?, ?> s && s.get( "implementation" ) instanceof String implementation ) {
+                            Class<?> clazz = classForName( classLoader, implementation );
+                            if( clazz != null ) classes.add( clazz.getName().replace( '.', '/' ) );
+                            else getLog().warn( module + ": " + implementation + " not found, skipped in the class list" );
+                        }
+                    }
+                }
+
+                if( !ModuleSnapshot.isStatic( format, content ) ) {
+                    getLog().info( module + ": substitutions or includes, snapshot skipped" );
+                    continue;
+                }
+
+                String key = ModuleSnapshot.key( content );
+                Path snapshot = Paths.get( outputDirectory, ModuleSnapshot.SNAPSHOT_RESOURCE, key + ".json" );
+                getLog().info( module + " -> " + snapshot );
+                Files.writeString( snapshot, Binder.json.marshal( tree ) );
+                keys.add( key );
+            }
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+
+        if( !keys.isEmpty() ) {
+            Files.writeString( Paths.get( outputDirectory, ModuleSnapshot.SNAPSHOT_INDEX ), String.join( "\n", keys ) + "\n" );
+        }
+
+        if( generateClassList ) {
+            Files.writeString( Paths.get( classList ), String.join( "\n", classes ) + "\n" );
+        }
+    }
+
+    private URL[] urls() {
+        var urls = new ArrayList<URL>();
+        try {
+            urls.add( Paths.get( outputDirectory ).toUri().toURL() );
+            if( classpathElements != null )
+                for( String element : classpathElements ) urls.add( Paths.get( element ).toUri().toURL() );
+        } catch( MalformedURLException e ) {
+            throw new IllegalArgumentException( e );
+        }
+        return urls.toArray( new URL[0] );
+    }
+
+    /**
+     * Module files may name nested classes either by the binary (<code>a.B$C</code>) or the canonical
+     * (<code>a.B.C</code>) name, as the kernel does.
+     */
+    private static Class<?> classForName( ClassLoader classLoader, String name ) {
+        try {
+            return Class.forName( name, false, classLoader );
+        } catch( ClassNotFoundException | LinkageError e ) {
+            int lastDot = name.lastIndexOf( '.' );
+            return lastDot > 0 ? classForName( classLoader, name.substring( 0, lastDot ) + "$" + name.substring( lastDot + 1 ) ) : null;
+        }
+    }
+}
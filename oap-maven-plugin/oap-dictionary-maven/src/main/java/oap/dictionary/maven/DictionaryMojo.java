@@ -61,6 +61,7 @@ import static org.apache.commons.lang3.StringUtils.split;
 
 @Mojo( name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES )
 public class DictionaryMojo extends AbstractMojo {
+    private static final int MAX_ARRAY_LOOKUP_LENGTH = 1 << 16;
 
     @Parameter( defaultValue = "${project.build.directory}/generated-sources/dictionary" )
     public String outputDirectory;
@@ -179,28 +180,23 @@ public class DictionaryMojo extends AbstractMojo {
                     out.append( "    this." + property + " = " + property + ";\n" );
                 }
 
-                out
-                    .append( "  }\n\n"
-                        + "  public static " + dict.name + " valueOf( int externalId ) {\n"
-                        + "    switch( externalId ) {\n" );
-
-                dict.values.forEach( d -> {
-                    out.append( "      case " ).append( d.getExternalId() ).append( ": return " ).append( d.getId() ).append( ";\n" );
-                } );
+                out.append( "  }\n\n" );
 
-                out.append( "      default: " );
+                String notFound = dict.containsValueWithId( "UNKNOWN" )
+                    ? "return UNKNOWN"
+                    : "throw new java.lang.IllegalArgumentException( \"Unknown id \" + externalId )";
 
-                if( dict.containsValueWithId( "UNKNOWN" ) ) {
-                    out.append( "return UNKNOWN" );
+                if( gc.arrayLookup && isArrayLookupApplicable( dict ) ) {
+                    appendArrayValueOf( out, dict, notFound );
                 } else {
-                    out.append( "throw new java.lang.IllegalArgumentException( \"Unknown id \" + externalId )" );
+                    if( gc.arrayLookup ) {
+                        getLog().warn( dict.name + ": external ids out of [0, " + MAX_ARRAY_LOOKUP_LENGTH + "), using switch" );
+                    }
+                    appendSwitchValueOf( out, dict, notFound );
                 }
 
                 out.append(
-                        ";\n"
-                            + "    }\n"
-                            + "  }\n"
-                            + "\n"
+                        "\n"
                             + """
                               @Override
                                 public int getOrDefault( String id, int defaultValue ) {
@@ -304,6 +300,46 @@ public class DictionaryMojo extends AbstractMojo {
         }
     }
 
+    private static boolean isArrayLookupApplicable( Generator.DictionaryConf dict ) {
+        if( dict.values.isEmpty() ) return false;
+
+        for( var d : dict.values ) {
+            if( d.getExternalId() < 0 || d.getExternalId() >= MAX_ARRAY_LOOKUP_LENGTH ) return false;
+        }
+
+        return true;
+    }
+
+    private static void appendSwitchValueOf( StringBuilder out, Generator.DictionaryConf dict, String notFound ) {
+        out.append( "  public static " + dict.name + " valueOf( int externalId ) {\n"
+            + "    switch( externalId ) {\n" );
+
+        dict.values.forEach( d -> {
+            out.append( "      case " ).append( d.getExternalId() ).append( ": return " ).append( d.getId() ).append( ";\n" );
+        } );
+
+        out.append( "      default: " ).append( notFound ).append( ";\n"
+            + "    }\n"
+            + "  }\n" );
+    }
+
+    /**
+     * values() indexed by external id, filled once in a static initializer.
+     */
+    private static void appendArrayValueOf( StringBuilder out, Generator.DictionaryConf dict, String notFound ) {
+        int length = dict.values.stream().mapToInt( Dictionary::getExternalId ).max().orElse( -1 ) + 1;
+
+        out.append( "  private static final " + dict.name + "[] BY_EXTERNAL_ID = new " + dict.name + "[" + length + "];\n\n"
+            + "  static {\n"
+            + "    for( " + dict.name + " value : values() ) BY_EXTERNAL_ID[value.externalId] = value;\n"
+            + "  }\n\n"
+            + "  public static " + dict.name + " valueOf( int externalId ) {\n"
+            + "    " + dict.name + " value = externalId >= 0 && externalId < BY_EXTERNAL_ID.length ? BY_EXTERNAL_ID[externalId] : null;\n"
+            + "    if( value != null ) return value;\n"
+            + "    " + notFound + ";\n"
+            + "  }\n" );
+    }
+
     private String properties( Map<String, Object> properties, Set<String> names, Map<String, Boolean> optional, Map<String, Class<?>> types ) {
         final String res = names.stream().map( n -> {
             final Object value = properties.get( n );
@@ -356,6 +392,11 @@ public class DictionaryMojo extends AbstractMojo {
         public final ArrayList<Child> children = new ArrayList<>();
         @JsonProperty( "$externalIdAs" )
         public ExternalIdType externalIdAs = ExternalIdType.integer;
+        /**
+         * generate valueOf( int ) as an array lookup instead of a switch, for external ids in [0, 65536)
+         */
+        @JsonProperty( "$arrayLookup" )
+        public boolean arrayLookup = false;
         @JsonProperty( "$name" )
         private String name;
 
@@ -57,5 +57,7 @@ public class DictionaryMojoTest extends Fixtures {
             .hasSameContentAs( pathOfTestResource( getClass(), "Child2.java" ) );
         assertFile( testDirectoryFixture.testPath( "dictionary/test/TestDictionaryNoEid.java" ) )
             .hasSameContentAs( pathOfTestResource( getClass(), "TestDictionaryNoEid.java" ) );
+        assertFile( testDirectoryFixture.testPath( "dictionary/test/TestDictionaryArrayLookup.java" ) )
+            .hasSameContentAs( pathOfTestResource( getClass(), "TestDictionaryArrayLookup.java" ) );
     }
 }
@@ -0,0 +1,129 @@
+package test;
+
+import oap.dictionary.Dictionary;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Arrays.asList;
+
+public enum TestDictionaryArrayLookup implements Dictionary {
+  UNKNOWN(0, true),
+  id1(1, true),
+  id3(3, false);
+
+  private final int externalId;
+  private final boolean enabled;
+
+
+
+  TestDictionaryArrayLookup( int externalId, boolean enabled ) {
+    this.externalId = externalId;
+    this.enabled = enabled;
+  }
+
+  private static final TestDictionaryArrayLookup[] BY_EXTERNAL_ID = new TestDictionaryArrayLookup[4];
+
+  static {
+    for( TestDictionaryArrayLookup value : values() ) BY_EXTERNAL_ID[value.externalId] = value;
+  }
+
+  public static TestDictionaryArrayLookup valueOf( int externalId ) {
+    TestDictionaryArrayLookup value = externalId >= 0 && externalId < BY_EXTERNAL_ID.length ? BY_EXTERNAL_ID[externalId] : null;
+    if( value != null ) return value;
+    return UNKNOWN;
+  }
+
+  @Override
+    public int getOrDefault( String id, int defaultValue ) {
+      return defaultValue;
+    }
+
+    @Override
+    public Integer get( String id ) {
+      return null;
+    }
+
+    @Override
+    public String getOrDefault( int externlId, String defaultValue ) {
+      return defaultValue;
+    }
+
+    @Override
+    public boolean containsValueWithId( String id ) {
+      return false;
+    }
+
+    @Override
+    public List<String> ids() {
+      return emptyList();
+    }
+
+    @Override
+    public int[] externalIds() {
+      return new int[0];
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+      return emptyMap();
+    }
+
+    @Override
+    public Optional<? extends Dictionary> getValueOpt( String name ) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Dictionary getValue( String name ) {
+      return null;
+    }
+
+    @Override
+    public Dictionary getValue( int externalId ) {
+      return null;
+    }
+
+    @Override
+    public List<? extends Dictionary> getValues() {
+      return emptyList();
+    }
+
+    @Override
+    public String getId() {
+      return name();
+    }
+
+    @Override
+    public Optional<Object> getProperty( String name ) {
+      return Optional.empty();
+    }
+
+    @Override
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    @Override
+    public int getExternalId() {
+      return externalId;
+    }
+
+    @Override
+    public boolean containsProperty( String name ) {
+      return false;
+    }
+
+  @Override
+  public TestDictionaryArrayLookup cloneDictionary() {
+    return this;
+  }
+
+  public int externalId() {
+    return externalId;
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  * Copyright (c) Xenoss
+ *  * Unauthorized copying of this file, via any medium is strictly prohibited
+ *  * Proprietary and confidential
+ *
+ *
+ */
+
+
+package oap.mcp;
+
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class McpServiceTest extends AbstractMcpTest {
+    @Test
+    public void timeout() {
+        try( var client = createClient() ) {
+            McpSchema.CallToolResult result = client.callTool( new McpSchema.CallToolRequest( "sleep", Map.of( "millis", "5000" ) ) );
+            assertThat( result.isError() ).isTrue();
+            assertThat( text( result ) ).contains( "timed out" );
+
+            result = client.callTool( new McpSchema.CallToolRequest( "sleep", Map.of( "millis", "1" ) ) );
+            assertThat( result.isError() ).isFalse();
+            assertThat( text( result ) ).isEqualTo( "slept" );
+        }
+    }
+
+    @Test
+    public void concurrentToolCallsOfOneSession() {
+        try( var client = createClient() ) {
+            CompletableFuture<McpSchema.CallToolResult> first = CompletableFuture.supplyAsync( () -> rendezvous( client ) );
+            McpSchema.CallToolResult second = rendezvous( client );
+
+            assertThat( text( second ) ).isEqualTo( "met" );
+            assertThat( text( first.join() ) ).isEqualTo( "met" );
+        }
+    }
+
+    private static McpSchema.CallToolResult rendezvous( McpSyncClient client ) {
+        return client.callTool( new McpSchema.CallToolRequest( "rendezvous", Map.of() ) );
+    }
+
+    private static String text( McpSchema.CallToolResult result ) {
+        return ( ( McpSchema.TextContent ) result.content().getFirst() ).text();
+    }
+}
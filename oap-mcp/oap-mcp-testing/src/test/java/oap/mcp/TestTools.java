@@ -0,0 +1,33 @@
+/*
+ *
+ *  * Copyright (c) Xenoss
+ *  * Unauthorized copying of this file, via any medium is strictly prohibited
+ *  * Proprietary and confidential
+ *
+ *
+ */
+
+
+package oap.mcp;
+
+import oap.mcp.annotations.McpTool;
+import oap.mcp.annotations.McpToolParam;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+public class TestTools {
+    private final CyclicBarrier barrier = new CyclicBarrier( 2 );
+
+    @McpTool( name = "sleep", description = "Sleeps for the given number of milliseconds", timeout = 200 )
+    public String sleep( @McpToolParam( name = "millis", description = "milliseconds" ) String millis ) throws InterruptedException {
+        Thread.sleep( Long.parseLong( millis ) );
+        return "slept";
+    }
+
+    @McpTool( name = "rendezvous", description = "Returns once a second call arrives", timeout = 5000 )
+    public String rendezvous() throws Exception {
+        barrier.await( 5, TimeUnit.SECONDS );
+        return "met";
+    }
+}
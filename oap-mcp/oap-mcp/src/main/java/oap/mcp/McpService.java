@@ -30,7 +30,9 @@ import reactor.core.publisher.Mono;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
@@ -40,12 +42,28 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import static dev.khbd.interp4j.core.Interpolations.s;
 import static java.nio.charset.StandardCharsets.UTF_8;
-
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Messages of a session are handled on virtual threads in the order they arrive, except tool calls: a tool call is
+ * started in order, but the messages after it do not wait for its result, so long tool calls of a session run
+ * concurrently. Every tool call is limited by a timeout and a number of concurrent calls of the tool, both can be set
+ * per tool in {@link McpTool} and default to {@link #toolTimeout} and {@link #maxToolConcurrency}.
+ */
 @Slf4j
 public class McpService implements McpServerTransportProvider, Closeable {
     public static final String MESSAGE_EVENT_TYPE = "message";
@@ -53,8 +71,11 @@ public class McpService implements McpServerTransportProvider, Closeable {
     public final ArrayList<Object> tools = new ArrayList<>();
     public final String name;
     public final String version;
+    public long toolTimeout = 60_000;
+    public int maxToolConcurrency = 16;
     private final McpJsonMapper jsonMapper;
     private final ConcurrentHashMap<String, McpSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
     private McpSyncServer server;
     private volatile McpServerSession.Factory sessionFactory;
 
@@ -85,27 +106,20 @@ public class McpService implements McpServerTransportProvider, Closeable {
 
         McpSchema.Prompt prompt = new McpSchema.Prompt( name, description, arguments );
 
+        Invoker invoker = Invoker.of( method, obj, p -> {
+            McpPromptParam pp = p.getAnnotation( McpPromptParam.class );
+            return pp != null ? pp.name() : null;
+        } );
+
         return new McpServerFeatures.SyncPromptSpecification( prompt, ( exchange, request ) -> {
-            Object[] args = Arrays.stream( method.getParameters() )
-                .map( p -> {
-                    McpPromptParam pp = p.getAnnotation( McpPromptParam.class );
-                    return pp != null ? request.arguments().get( pp.name() ) : null;
-                } )
-                .toArray();
-            try {
-                String text = ( String ) method.invoke( obj, args );
-                McpSchema.PromptMessage message = new McpSchema.PromptMessage(
-                    McpSchema.Role.USER, new McpSchema.TextContent( text ) );
-                return new McpSchema.GetPromptResult( description, List.of( message ) );
-            } catch( InvocationTargetException e ) {
-                throw new RuntimeException( e.getCause() );
-            } catch( IllegalAccessException e ) {
-                throw new RuntimeException( e );
-            }
+            String text = ( String ) invoker.invoke( request.arguments() );
+            McpSchema.PromptMessage message = new McpSchema.PromptMessage(
+                McpSchema.Role.USER, new McpSchema.TextContent( text ) );
+            return new McpSchema.GetPromptResult( description, List.of( message ) );
         } );
     }
 
-    private static List<McpServerFeatures.SyncToolSpecification> annotatedToolSpecs( Object tools ) {
+    private List<McpServerFeatures.SyncToolSpecification> annotatedToolSpecs( Object tools ) {
         return Arrays.stream( tools.getClass().getDeclaredMethods() )
             .filter( m -> m.isAnnotationPresent( McpTool.class ) )
             .sorted( Comparator.comparing( Method::getName ) )
@@ -113,10 +127,12 @@ public class McpService implements McpServerTransportProvider, Closeable {
             .toList();
     }
 
-    private static McpServerFeatures.SyncToolSpecification toSpec( Method method, Object tools ) {
+    private McpServerFeatures.SyncToolSpecification toSpec( Method method, Object tools ) {
         McpTool ann = method.getAnnotation( McpTool.class );
         String name = ann.name().isEmpty() ? method.getName() : ann.name();
         String description = ann.description().isEmpty() ? name : ann.description();
+        long timeout = ann.timeout() > 0 ? ann.timeout() : toolTimeout;
+        Semaphore permits = new Semaphore( ann.maxConcurrency() > 0 ? ann.maxConcurrency() : maxToolConcurrency );
 
         Map<String, Object> props = new LinkedHashMap<>();
         List<String> required = new ArrayList<>();
@@ -130,29 +146,65 @@ public class McpService implements McpServerTransportProvider, Closeable {
         McpSchema.JsonSchema schema = new McpSchema.JsonSchema( "object", props, required, null, null, null );
         McpSchema.Tool tool = McpSchema.Tool.builder().name( name ).description( description ).inputSchema( schema ).build();
 
+        Invoker invoker = Invoker.of( method, tools, p -> {
+            McpToolParam tp = p.getAnnotation( McpToolParam.class );
+            return tp != null ? tp.name() : null;
+        } );
+
         return McpServerFeatures.SyncToolSpecification.builder()
             .tool( tool )
-            .callHandler( ( exchange, request ) -> {
-                Object[] args = Arrays.stream( method.getParameters() )
-                    .map( p -> {
-                        McpToolParam tp = p.getAnnotation( McpToolParam.class );
-                        return tp != null ? request.arguments().get( tp.name() ) : null;
-                    } )
-                    .toArray();
-                try {
-                    Object result = method.invoke( tools, args );
-                    return McpSchema.CallToolResult.builder()
-                        .addTextContent( result != null ? result.toString() : "" )
-                        .build();
-                } catch( InvocationTargetException e ) {
-                    throw new RuntimeException( e.getCause() );
-                } catch( IllegalAccessException e ) {
-                    throw new RuntimeException( e );
-                }
-            } )
+            .callHandler( ( exchange, request ) -> call( name, invoker, request.arguments(), permits, timeout ) )
             .build();
     }
 
+    /**
+     * Waiting for a free slot counts against the timeout. A timed out call is interrupted and, like a call rejected
+     * for lack of a free slot, reported as a tool error; its slot is held until it actually ends.
+     */
+    private McpSchema.CallToolResult call( String name, Invoker invoker, Map<String, Object> arguments, Semaphore permits, long timeout ) {
+        long deadline = System.nanoTime() + MILLISECONDS.toNanos( timeout );
+        try {
+            if( !permits.tryAcquire( timeout, MILLISECONDS ) )
+                return toolError( "tool " + name + ": too many concurrent calls" );
+
+            Future<Object> future;
+            try {
+                future = executor.submit( () -> {
+                    try {
+                        return invoker.invoke( arguments );
+                    } finally {
+                        permits.release();
+                    }
+                } );
+            } catch( RuntimeException e ) {
+                permits.release();
+                throw e;
+            }
+
+            try {
+                Object result = future.get( deadline - System.nanoTime(), NANOSECONDS );
+                return McpSchema.CallToolResult.builder()
+                    .addTextContent( result != null ? result.toString() : "" )
+                    .build();
+            } catch( TimeoutException e ) {
+                future.cancel( true );
+                return toolError( "tool " + name + ": timed out after " + timeout + "ms" );
+            } catch( ExecutionException e ) {
+                if( e.getCause() instanceof RuntimeException re ) throw re;
+                if( e.getCause() instanceof Error er ) throw er;
+                throw new RuntimeException( e.getCause() );
+            }
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return toolError( "tool " + name + ": interrupted" );
+        }
+    }
+
+    private static McpSchema.CallToolResult toolError( String message ) {
+        log.warn( message );
+        return McpSchema.CallToolResult.builder().addTextContent( message ).isError( true ).build();
+    }
+
     @Start
     public void start() {
         this.server = buildServer();
@@ -189,9 +241,27 @@ public class McpService implements McpServerTransportProvider, Closeable {
         return sessions.get( sessionId );
     }
 
+    /**
+     * Returns as soon as the message is queued, the response is delivered through the session's SSE stream.
+     */
     public void dispatchMessage( McpSession mcpSession, String body ) throws IOException {
         McpSchema.JSONRPCMessage message = McpSchema.deserializeJsonRpcMessage( jsonMapper, body );
-        mcpSession.session().handle( message ).block();
+        boolean toolCall = message instanceof McpSchema.JSONRPCRequest request
+            && McpSchema.METHOD_TOOLS_CALL.equals( request.method() );
+
+        synchronized( mcpSession ) {
+            mcpSession.tail = toolCall
+                ? mcpSession.tail.thenRun( () -> executor.execute( () -> handle( mcpSession, message ) ) )
+                : mcpSession.tail.thenRunAsync( () -> handle( mcpSession, message ), executor );
+        }
+    }
+
+    private static void handle( McpSession mcpSession, McpSchema.JSONRPCMessage message ) {
+        try {
+            mcpSession.session().handle( message ).block();
+        } catch( Exception e ) {
+            log.error( "MCP session {}: cannot handle {}", mcpSession.session().getId(), message, e );
+        }
     }
 
     public void drainSse( McpSession mcpSession, OutputStream out ) {
@@ -224,18 +294,68 @@ public class McpService implements McpServerTransportProvider, Closeable {
     @Override
     public void close() {
         server.closeGracefully();
+        executor.shutdownNow();
     }
 
     private McpSyncServer buildServer() {
         return McpServer.sync( this )
             .serverInfo( name, version )
+            .immediateExecution( true )
             .capabilities( McpSchema.ServerCapabilities.builder().tools( true ).prompts( true ).build() )
             .tools( tools.stream().flatMap( t -> annotatedToolSpecs( t ).stream() ).toList() )
             .prompts( tools.stream().flatMap( t -> annotatedPromptSpecs( t ).stream() ).toList() )
             .build();
     }
 
-    public record McpSession( BlockingQueue<String> queue, McpServerSession session ) {}
+    public static final class McpSession {
+        private final BlockingQueue<String> queue;
+        private final McpServerSession session;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture( null );
+
+        public McpSession( BlockingQueue<String> queue, McpServerSession session ) {
+            this.queue = queue;
+            this.session = session;
+        }
+
+        public BlockingQueue<String> queue() {
+            return queue;
+        }
+
+        public McpServerSession session() {
+            return session;
+        }
+    }
+
+    /**
+     * Argument names are resolved once, calls go through a spreading {@link MethodHandle} bound to the instance.
+     */
+    private record Invoker( MethodHandle handle, String[] arguments ) {
+        static Invoker of( Method method, Object instance, Function<Parameter, String> argumentName ) {
+            method.trySetAccessible();
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflect( method ).bindTo( instance )
+                    .asSpreader( Object[].class, method.getParameterCount() )
+                    .asType( MethodType.methodType( Object.class, Object[].class ) );
+                return new Invoker( handle, Arrays.stream( method.getParameters() ).map( argumentName ).toArray( String[]::new ) );
+            } catch( IllegalAccessException e ) {
+                throw new IllegalArgumentException( "cannot access " + method, e );
+            }
+        }
+
+        Object invoke( Map<String, Object> values ) {
+            Object[] args = new Object[arguments.length];
+            for( int i = 0; i < arguments.length; i++ )
+                if( arguments[i] != null && values != null ) args[i] = values.get( arguments[i] );
+
+            try {
+                return ( Object ) handle.invokeExact( args );
+            } catch( RuntimeException | Error e ) {
+                throw e;
+            } catch( Throwable e ) {
+                throw new RuntimeException( e );
+            }
+        }
+    }
 
     private static class QueueBackedTransport implements McpServerTransport {
         private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger( QueueBackedTransport.class );
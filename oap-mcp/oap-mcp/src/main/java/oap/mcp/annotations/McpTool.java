@@ -58,4 +58,18 @@ public @interface McpTool {
      * @return the description of the tool
      */
     String description() default "";
+
+    /**
+     * Maximum duration of a call in milliseconds. Defaults to {@code McpService.toolTimeout}.
+     *
+     * @return the timeout of the tool
+     */
+    long timeout() default 0;
+
+    /**
+     * Maximum number of concurrent calls. Defaults to {@code McpService.maxToolConcurrency}.
+     *
+     * @return the concurrency limit of the tool
+     */
+    int maxConcurrency() default 0;
 }
@@ -10,7 +10,8 @@ import java.util.function.Consumer;
 public class MockNotificationTransport implements NotificationTransport {
     @Override
     public void publish( String topic, Qos qos, Notification notification ) {
-        log.trace( "publish topic {} qos {} notification {}", topic, qos, Binder.json.marshal( notification ) );
+        if( log.isTraceEnabled() )
+            log.trace( "publish topic {} qos {} notification {}", topic, qos, Binder.json.marshal( notification ) );
     }
 
     @Override
@@ -2,6 +2,7 @@ package oap.notification;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class NotificationService {
@@ -15,6 +16,10 @@ public class NotificationService {
         notificationTransport.publish( topic, qos, new Notification( message ) );
     }
 
+    public <TMessage extends Serializable> CompletableFuture<Void> sendNotificationAsync( String topic, Qos qos, TMessage message ) {
+        return notificationTransport.publishAsync( topic, qos, new Notification( message ) );
+    }
+
     public void subscribeToTopic( String topic, Consumer<NotificationPublish> notificationConsumer ) {
         notificationTransport.subscribe( topic, notificationConsumer );
     }
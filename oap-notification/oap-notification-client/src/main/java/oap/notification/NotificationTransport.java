@@ -1,11 +1,25 @@
 package oap.notification;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public interface NotificationTransport {
     void publish( String topic, Qos qos, Notification notification ) throws NotificationException;
 
+    /**
+     * Publishes without waiting for the delivery. The future fails with {@link NotificationException}.
+     * The default implementation publishes synchronously.
+     */
+    default CompletableFuture<Void> publishAsync( String topic, Qos qos, Notification notification ) {
+        try {
+            publish( topic, qos, notification );
+            return CompletableFuture.completedFuture( null );
+        } catch( NotificationException e ) {
+            return CompletableFuture.failedFuture( e );
+        }
+    }
+
     default void subscribe( String topic, Consumer<NotificationPublish> notificationConsumer ) {
         subscribe( List.of( topic ), notificationConsumer );
     }
@@ -4,7 +4,6 @@ import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5AsyncClient;
 import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
-import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishResult;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import lombok.extern.slf4j.Slf4j;
@@ -19,11 +18,18 @@ import oap.notification.Qos;
 import oap.util.Dates;
 import oap.util.Lists;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @Slf4j
 public class HivemqNotificationTransport implements NotificationTransport, AutoCloseable {
     private final String identifier;
@@ -31,6 +37,18 @@ public class HivemqNotificationTransport implements NotificationTransport, AutoC
     private final int port;
     public long connectTimeout = Dates.s( 10 );
     public long publishTimeout = Dates.s( 1 );
+    /**
+     * Bursts of publishes to the same topic and qos within this window (ms) are collapsed into one publish of the last
+     * notification; every caller's future completes with it. 0 disables coalescing. Only for topics carrying state,
+     * where intermediate notifications may be dropped.
+     */
+    public long coalesceWindow = 0;
+    public int maxInFlightAtMostOnce = 1024;
+    public int maxInFlightAtLeastOnce = 256;
+    public int maxInFlightExactlyOnce = 64;
+    private final EnumMap<Qos, Semaphore> inFlight = new EnumMap<>( Qos.class );
+    private final EnumMap<Qos, ConcurrentLinkedQueue<Queued>> waiting = new EnumMap<>( Qos.class );
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
     private Mqtt5AsyncClient client;
 
     public HivemqNotificationTransport( String identifier, String host, int port ) {
@@ -41,6 +59,11 @@ public class HivemqNotificationTransport implements NotificationTransport, AutoC
 
     @Start
     public void start() {
+        inFlight.put( Qos.AT_MOST_ONCE, new Semaphore( maxInFlightAtMostOnce ) );
+        inFlight.put( Qos.AT_LEAST_ONCE, new Semaphore( maxInFlightAtLeastOnce ) );
+        inFlight.put( Qos.EXACTLY_ONCE, new Semaphore( maxInFlightExactlyOnce ) );
+        for( Qos qos : Qos.values() ) waiting.put( qos, new ConcurrentLinkedQueue<>() );
+
         client = MqttClient
             .builder()
             .useMqttVersion5()
@@ -77,23 +100,128 @@ public class HivemqNotificationTransport implements NotificationTransport, AutoC
         }
     }
 
+    /**
+     * Waits at most {@link #publishTimeout}, plus {@link #coalesceWindow} when coalescing is enabled.
+     */
     @Override
     public void publish( String topic, Qos qos, Notification notification ) throws NotificationException {
         try {
-            log.trace( "publish topic {} qos {} notification {}", topic, qos, Binder.json.marshal( notification ) );
+            publishAsync( topic, qos, notification )
+                .orTimeout( publishTimeout + Math.max( 0, coalesceWindow ), TimeUnit.MILLISECONDS )
+                .join();
+        } catch( CompletionException e ) {
+            throw e.getCause() instanceof NotificationException ne ? ne : new NotificationException( e.getCause() );
+        }
+    }
+
+    /**
+     * Does not wait for the broker. When {@code maxInFlight} publishes of the same qos are already unacknowledged,
+     * the publish is queued for at most {@link #publishTimeout}, then the future fails.
+     */
+    @Override
+    public CompletableFuture<Void> publishAsync( String topic, Qos qos, Notification notification ) {
+        byte[] payload = Binder.json.marshal( notification ).getBytes( UTF_8 );
+
+        if( log.isTraceEnabled() )
+            log.trace( "publish topic {} qos {} notification {}", topic, qos, new String( payload, UTF_8 ) );
+
+        if( coalesceWindow > 0 ) return coalesce( topic, qos, payload );
+
+        return send( topic, qos, payload );
+    }
+
+    private CompletableFuture<Void> coalesce( String topic, Qos qos, byte[] payload ) {
+        String key = qos + ":" + topic;
+
+        Pending created = new Pending( payload );
+        Pending pending = this.pending.compute( key, ( _, current ) -> {
+            if( current == null ) return created;
+
+            current.payload = payload;
+            current.coalesced++;
+            return current;
+        } );
+
+        if( pending == created ) {
+            CompletableFuture.delayedExecutor( coalesceWindow, TimeUnit.MILLISECONDS ).execute( () -> {
+                this.pending.remove( key, pending );
+
+                if( pending.coalesced > 0 ) log.trace( "publish topic {} qos {}: {} notifications coalesced", topic, qos, pending.coalesced );
+
+                send( topic, qos, pending.payload ).whenComplete( ( _, e ) -> {
+                    if( e != null ) pending.future.completeExceptionally( e );
+                    else pending.future.complete( null );
+                } );
+            } );
+        }
+
+        return pending.future.copy();
+    }
+
+    /**
+     * Never blocks: without a free in-flight slot the publish is queued, sent when an earlier publish of the same qos
+     * is acknowledged, and failed if it is still queued after {@link #publishTimeout}.
+     */
+    private CompletableFuture<Void> send( String topic, Qos qos, byte[] payload ) {
+        Semaphore window = inFlight.get( qos );
+        if( window.tryAcquire() ) return send( topic, qos, payload, window );
 
-            Mqtt5PublishResult result = client
+        Queued queued = new Queued( topic, payload );
+        ConcurrentLinkedQueue<Queued> queue = waiting.get( qos );
+        queue.add( queued );
+        CompletableFuture.delayedExecutor( publishTimeout, TimeUnit.MILLISECONDS ).execute( () -> {
+            if( queue.remove( queued ) )
+                queued.future.completeExceptionally( new NotificationException( "too many in-flight publishes, qos " + qos ) );
+        } );
+
+        drain( qos );
+
+        return queued.future;
+    }
+
+    private void drain( Qos qos ) {
+        Semaphore window = inFlight.get( qos );
+        ConcurrentLinkedQueue<Queued> queue = waiting.get( qos );
+
+        while( !queue.isEmpty() && window.tryAcquire() ) {
+            Queued queued = queue.poll();
+            if( queued == null ) {
+                window.release();
+                continue;
+            }
+
+            send( queued.topic, qos, queued.payload, window ).whenComplete( ( _, e ) -> {
+                if( e != null ) queued.future.completeExceptionally( e );
+                else queued.future.complete( null );
+            } );
+        }
+    }
+
+    /**
+     * The caller holds a slot of the {@code window}.
+     */
+    private CompletableFuture<Void> send( String topic, Qos qos, byte[] payload, Semaphore window ) {
+        try {
+            return client
                 .publishWith()
                 .topic( topic )
                 .qos( convertQos( qos ) )
-                .payload( Binder.json.marshal( notification ).getBytes() )
+                .payload( payload )
                 .send()
-                .orTimeout( publishTimeout, TimeUnit.MILLISECONDS )
-                .join();
+                .whenComplete( ( _, _ ) -> {
+                    window.release();
+                    drain( qos );
+                } )
+                .thenAccept( result -> {
+                    log.trace( "publish topic {} qos {} result {}", topic, qos, result );
 
-            log.trace( "publish topic {} qos {} result {}", topic, qos, result );
-        } catch( CompletionException e ) {
-            throw new NotificationException( e.getCause() );
+                    result.getError().ifPresent( e -> {
+                        throw new CompletionException( new NotificationException( e ) );
+                    } );
+                } );
+        } catch( RuntimeException e ) {
+            window.release();
+            return CompletableFuture.failedFuture( new NotificationException( e ) );
         }
     }
 
@@ -124,4 +252,25 @@ public class HivemqNotificationTransport implements NotificationTransport, AutoC
             case AT_LEAST_ONCE -> MqttQos.AT_LEAST_ONCE;
         };
     }
+
+    private static class Queued {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final String topic;
+        private final byte[] payload;
+
+        private Queued( String topic, byte[] payload ) {
+            this.topic = topic;
+            this.payload = payload;
+        }
+    }
+
+    private static class Pending {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile byte[] payload;
+        private int coalesced;
+
+        private Pending( byte[] payload ) {
+            this.payload = payload;
+        }
+    }
 }
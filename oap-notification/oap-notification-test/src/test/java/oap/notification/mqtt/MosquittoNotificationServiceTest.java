@@ -1,15 +1,24 @@
 package oap.notification.mqtt;
 
+import lombok.extern.slf4j.Slf4j;
 import oap.notification.NotificationService;
 import oap.notification.Qos;
 import oap.notification.TestNotificationMessage;
 import oap.testng.Fixtures;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static oap.testng.Asserts.assertEventually;
 import static org.assertj.core.api.Assertions.assertThat;
 
+@Slf4j
 public class MosquittoNotificationServiceTest extends Fixtures {
     private final MosquittoFixture mosquittoFixture;
 
@@ -42,4 +51,63 @@ public class MosquittoNotificationServiceTest extends Fixtures {
             assertThat( msg ).hasToString( "val2" );
         }
     }
+
+    @Test
+    public void testPublishAsyncThroughput() {
+        int count = 10_000;
+        AtomicInteger received = new AtomicInteger();
+
+        try( HivemqNotificationTransport publisher = new HivemqNotificationTransport( "publisher", "127.0.0.1", mosquittoFixture.getPort() );
+             HivemqNotificationTransport subscriber = new HivemqNotificationTransport( "subscriber", "127.0.0.1", mosquittoFixture.getPort() ) ) {
+            publisher.start();
+            subscriber.start();
+
+            NotificationService notificationService = new NotificationService( publisher );
+            subscriber.subscribe( "/throughput", _ -> received.incrementAndGet() );
+
+            long start = System.nanoTime();
+            for( int i = 0; i < 100; i++ )
+                notificationService.sendNotification( "/throughput", Qos.AT_LEAST_ONCE, new TestNotificationMessage( "sync" + i ) );
+            long sync = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for( int i = 0; i < count; i++ )
+                futures.add( notificationService.sendNotificationAsync( "/throughput", Qos.AT_LEAST_ONCE, new TestNotificationMessage( "async" + i ) ) );
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).orTimeout( 1, TimeUnit.MINUTES ).join();
+            long async = System.nanoTime() - start;
+
+            log.info( "publish qos 1: sync {} msg/s, async {} msg/s",
+                100 * 1_000_000_000L / sync, count * 1_000_000_000L / async );
+
+            assertEventually( 100, 100, () -> assertThat( received.get() ).isEqualTo( 100 + count ) );
+        }
+    }
+
+    @Test
+    public void testCoalesce() {
+        AtomicInteger received = new AtomicInteger();
+        AtomicReference<String> last = new AtomicReference<>();
+
+        try( HivemqNotificationTransport publisher = new HivemqNotificationTransport( "publisher", "127.0.0.1", mosquittoFixture.getPort() );
+             HivemqNotificationTransport subscriber = new HivemqNotificationTransport( "subscriber", "127.0.0.1", mosquittoFixture.getPort() ) ) {
+            publisher.coalesceWindow = 500;
+            publisher.start();
+            subscriber.start();
+
+            subscriber.subscribe( "/state", notification -> {
+                received.incrementAndGet();
+                last.set( ( ( TestNotificationMessage ) notification.message ).value );
+            } );
+
+            NotificationService notificationService = new NotificationService( publisher );
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for( int i = 0; i < 100; i++ )
+                futures.add( notificationService.sendNotificationAsync( "/state", Qos.AT_LEAST_ONCE, new TestNotificationMessage( "val" + i ) ) );
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).orTimeout( 10, TimeUnit.SECONDS ).join();
+
+            assertEventually( 100, 50, () -> assertThat( last.get() ).isEqualTo( "val99" ) );
+            assertThat( received.get() ).isLessThan( 100 );
+        }
+    }
 }
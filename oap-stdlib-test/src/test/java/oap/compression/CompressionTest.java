@@ -28,6 +28,11 @@ import oap.io.content.ContentReader;
 import oap.io.content.ContentWriter;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class CompressionTest {
@@ -39,4 +44,52 @@ public class CompressionTest {
         String string = ContentReader.read( compressed, Compression.ContentReader.ofBytes().andThen( String::new ) );
         assertThat( string ).isEqualTo( "test" );
     }
+
+    @Test
+    public void parallelGzip() throws IOException {
+        byte[] bytes = new byte[3 * 1024 * 1024 + 17];
+        Random random = new Random( 1 );
+        for( int i = 0; i < bytes.length; i++ ) bytes[i] = ( byte ) ( 'a' + random.nextInt( 16 ) );
+
+        byte[] compressed = Compression.gzip( bytes, 0, bytes.length, true );
+
+        assertThat( Compression.ungzip( compressed ) ).isEqualTo( bytes );
+        assertThat( Compression.ungzip( compressed, 0, compressed.length, true ) ).isEqualTo( bytes );
+    }
+
+    @Test
+    public void parallelGzipSmallBlocksAndMixedMembers() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try( var gzip = new ParallelGzipOutputStream( out, 4, Deflater.BEST_SPEED, 2 ) ) {
+            gzip.write( "hello ".getBytes() );
+        }
+        Compression.gzip( out, "world".getBytes(), 0, 5 );
+        try( var gzip = new ParallelGzipOutputStream( out ) ) {
+            gzip.write( '!' );
+        }
+
+        byte[] compressed = out.toByteArray();
+        assertThat( new String( Compression.ungzip( compressed ) ) ).isEqualTo( "hello world!" );
+        assertThat( new String( Compression.ungzip( compressed, 0, compressed.length, true ) ) ).isEqualTo( "hello world!" );
+    }
+
+    @Test
+    public void parallelGzipUntrustedMemberSize() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try( var gzip = new ParallelGzipOutputStream( out ) ) {
+            gzip.write( "hello".getBytes() );
+        }
+        byte[] compressed = out.toByteArray();
+        compressed[ParallelGzip.SIZE_OFFSET + 3] = 0x7f;
+
+        assertThat( new String( Compression.ungzip( compressed, 0, compressed.length, true ) ) ).isEqualTo( "hello" );
+    }
+
+    @Test
+    public void parallelGzipEmpty() throws IOException {
+        byte[] compressed = Compression.gzip( new byte[0], 0, 0, true );
+
+        assertThat( Compression.ungzip( compressed ) ).isEmpty();
+        assertThat( Compression.ungzip( compressed, 0, compressed.length, true ) ).isEmpty();
+    }
 }
@@ -55,6 +55,48 @@ public class DictionaryTest {
         assertTrue( dictValues.get( 2 ).getTags().contains( "tag2" ) );
     }
 
+    @Test
+    public void lookup() {
+        var dense = new DictionaryRoot( "dense", List.of(
+            new DictionaryLeaf( "a", true, 0, Map.of() ),
+            new DictionaryLeaf( "b", true, 5, Map.of() ) ) );
+        var sparse = new DictionaryValue( "sparse", true, 1, List.of(
+            new DictionaryLeaf( "a", true, -1, Map.of() ),
+            new DictionaryLeaf( "b", true, 1_000_000, Map.of() ) ) );
+
+        for( Dictionary dictionary : List.of( dense, sparse ) ) {
+            var a = dictionary.getValues().get( 0 );
+            var b = dictionary.getValues().get( 1 );
+
+            assertThat( dictionary.getValue( a.getExternalId() ) ).isSameAs( a );
+            assertThat( dictionary.getValue( b.getExternalId() ) ).isSameAs( b );
+            assertThat( dictionary.getValue( 3 ) ).isNull();
+            assertThat( dictionary.getValue( Integer.MAX_VALUE ) ).isNull();
+            assertThat( dictionary.getOrDefault( b.getExternalId(), "unknown" ) ).isEqualTo( "b" );
+            assertThat( dictionary.getOrDefault( 3, "unknown" ) ).isEqualTo( "unknown" );
+            assertThat( dictionary.getOrDefault( "b", -2 ) ).isEqualTo( b.getExternalId() );
+            assertThat( dictionary.get( "c" ) ).isNull();
+            assertThat( dictionary.containsValueWithId( "a" ) ).isTrue();
+        }
+    }
+
+    @Test
+    public void lookupDuplicates() {
+        var a1 = new DictionaryLeaf( "a", true, 1, Map.of() );
+        var a2 = new DictionaryLeaf( "a", true, 2, Map.of() );
+        var b = new DictionaryLeaf( "b", true, 1, Map.of() );
+
+        var root = new DictionaryRoot( "root", List.of( a1, a2, b ) );
+        assertThat( root.getValue( "a" ) ).isSameAs( a2 );
+        assertThat( root.getValue( 1 ) ).isSameAs( b );
+        assertThat( root.getValue( 2 ) ).isSameAs( a2 );
+
+        var value = new DictionaryValue( "value", true, 1, List.of( a1, a2, b ) );
+        assertThat( value.getValue( "a" ) ).isSameAs( a1 );
+        assertThat( value.getValue( 1 ) ).isSameAs( a1 );
+        assertThat( value.getValue( 2 ) ).isSameAs( a2 );
+    }
+
     @Test
     public void extend() {
         var values = Dictionaries
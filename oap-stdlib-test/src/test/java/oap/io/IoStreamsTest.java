@@ -47,6 +47,7 @@ import java.util.Random;
 
 import static oap.io.IoStreams.Encoding.GZIP;
 import static oap.io.IoStreams.Encoding.LZ4;
+import static oap.io.IoStreams.Encoding.PGZIP;
 import static oap.io.IoStreams.Encoding.PLAIN;
 import static oap.io.IoStreams.Encoding.ZSTD;
 import static oap.io.content.ContentWriter.ofString;
@@ -108,6 +109,20 @@ public class IoStreamsTest extends Fixtures {
         assertFile( path ).hasContent( "12345", LZ4 );
     }
 
+    @Test
+    public void pgzip() throws IOException {
+        Path path = testDirectoryFixture.testPath( "test.gz" );
+        String content = "12345\n".repeat( 500_000 );
+
+        try( OutputStream out = IoStreams.out( path, PGZIP ) ) {
+            out.write( content.getBytes() );
+        }
+
+        assertThat( Encoding.from( path ) ).isEqualTo( GZIP );
+        assertFile( path ).hasContent( content, GZIP );
+        assertFile( path ).hasContent( content, PGZIP );
+    }
+
     @Test
     public void encodingResolve() {
         assertThat( LZ4.resolve( Paths.get( "/x/a.txt.gz" ) ) ).isEqualTo( Paths.get( "/x/a.txt.lz4" ) );
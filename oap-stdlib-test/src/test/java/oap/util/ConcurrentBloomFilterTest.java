@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentBloomFilterTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public ConcurrentBloomFilterTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    @Test
+    public void addContains() {
+        ConcurrentBloomFilter<String> filter = ConcurrentBloomFilter.create( 1000, 0.01 );
+
+        assertThat( filter.contains( "a" ) ).isFalse();
+        assertThat( filter.add( "a" ) ).isTrue();
+        assertThat( filter.add( "a" ) ).isFalse();
+        assertThat( filter.contains( "a" ) ).isTrue();
+        assertThat( filter.count() ).isEqualTo( 1 );
+
+        filter.clear();
+        assertThat( filter.contains( "a" ) ).isFalse();
+        assertThat( filter.count() ).isZero();
+    }
+
+    @Test
+    public void falsePositiveProbability() {
+        ConcurrentBloomFilter<String> filter = ConcurrentBloomFilter.create( 100_000, 0.01 );
+        for( int i = 0; i < 100_000; i++ ) filter.add( "in-" + i );
+
+        for( int i = 0; i < 100_000; i++ ) assertThat( filter.contains( "in-" + i ) ).isTrue();
+
+        int falsePositives = 0;
+        for( int i = 0; i < 100_000; i++ ) if( filter.contains( "out-" + i ) ) falsePositives++;
+
+        assertThat( falsePositives ).isLessThan( 2000 );
+        assertThat( filter.getFalsePositiveProbability() ).isLessThan( 0.02 );
+    }
+
+    @Test
+    public void concurrentAdd() throws InterruptedException {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>( 1 << 20, 5 );
+
+        ExecutorService pool = Executors.newFixedThreadPool( 8 );
+        for( int t = 0; t < 8; t++ ) {
+            int thread = t;
+            pool.execute( () -> {
+                for( int i = 0; i < 10_000; i++ ) filter.add( thread + "-" + i );
+            } );
+        }
+        pool.shutdown();
+        assertThat( pool.awaitTermination( 1, TimeUnit.MINUTES ) ).isTrue();
+
+        for( int t = 0; t < 8; t++ )
+            for( int i = 0; i < 10_000; i++ ) assertThat( filter.contains( t + "-" + i ) ).isTrue();
+    }
+
+    @Test
+    public void writeRead() {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>( 10_000_003, 3 );
+        for( int i = 0; i < 1000; i++ ) filter.add( "v" + i );
+
+        Path path = testDirectoryFixture.testPath( "bloom/filter.bin" );
+        filter.writeTo( path );
+
+        ConcurrentBloomFilter<String> restored = ConcurrentBloomFilter.readFrom( path );
+        assertThat( restored.bitSize() ).isEqualTo( filter.bitSize() );
+        assertThat( restored.getK() ).isEqualTo( 3 );
+        assertThat( restored.count() ).isEqualTo( filter.count() );
+        assertThat( restored.bitCount() ).isEqualTo( filter.bitCount() );
+        for( int i = 0; i < 1000; i++ ) assertThat( restored.contains( "v" + i ) ).isTrue();
+    }
+}
@@ -43,6 +43,26 @@ public class Compression {
         }
     }
 
+    /**
+     * @param parallel compress blocks in parallel, see {@link ParallelGzipOutputStream}
+     */
+    public static void gzip( OutputStream out, byte[] bytes, int offset, int length, boolean parallel ) throws IOException {
+        if( !parallel ) {
+            gzip( out, bytes, offset, length );
+            return;
+        }
+
+        try( OutputStream gos = new ParallelGzipOutputStream( out ) ) {
+            gos.write( bytes, offset, length );
+        }
+    }
+
+    public static byte[] gzip( byte[] bytes, int offset, int length, boolean parallel ) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        gzip( byteArrayOutputStream, bytes, offset, length, parallel );
+        return byteArrayOutputStream.toByteArray();
+    }
+
     public static byte[] gzip( byte[] bytes, int offset, int length ) throws IOException {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         gzip( byteArrayOutputStream, bytes, offset, length );
@@ -61,6 +81,17 @@ public class Compression {
         return new GZIPInputStream( new ByteArrayInputStream( bytes, offset, length ) ).readAllBytes();
     }
 
+    /**
+     * @param parallel inflate members written by {@link ParallelGzipOutputStream} in parallel
+     */
+    public static byte[] ungzip( byte[] bytes, int offset, int length, boolean parallel ) throws IOException {
+        if( !parallel ) return ungzip( bytes, offset, length );
+
+        try( InputStream in = new ParallelGzipInputStream( new ByteArrayInputStream( bytes, offset, length ) ) ) {
+            return in.readAllBytes();
+        }
+    }
+
     public static void ungzip( byte[] bytes, int offset, int length, OutputStream out ) throws IOException {
         GZIPInputStream gzipInputStream = new GZIPInputStream( new ByteArrayInputStream( bytes, offset, length ) );
         IOUtils.copy( gzipInputStream, out );
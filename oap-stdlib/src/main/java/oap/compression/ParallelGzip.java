@@ -0,0 +1,173 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.compression;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import oap.concurrent.Executors;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Block gzip format shared by {@link ParallelGzipOutputStream} and {@link ParallelGzipInputStream}.
+ * <p>
+ * Every block is an independent gzip member, so the output is a valid multi-member gzip file
+ * that any gzip reader can decompress. The member header carries an extra field (SI1 'O', SI2 'P')
+ * with the total member size, which lets {@link ParallelGzipInputStream} split the input into members
+ * without inflating them first.
+ */
+final class ParallelGzip {
+    static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    static final ExecutorService EXECUTOR = Executors.newFixedThreadPool( PARALLELISM,
+        new ThreadFactoryBuilder().setNameFormat( "parallel-gzip-%d" ).setDaemon( true ).build() );
+
+    static final int ID1 = 0x1f;
+    static final int ID2 = 0x8b;
+    static final int CM_DEFLATE = 8;
+    static final int FHCRC = 2;
+    static final int FEXTRA = 4;
+    static final int FNAME = 8;
+    static final int FCOMMENT = 16;
+    static final byte SI1 = 'O';
+    static final byte SI2 = 'P';
+    static final int HEADER_SIZE = 20;
+    static final int SIZE_OFFSET = 16;
+    static final int TRAILER_SIZE = 8;
+    /**
+     * Largest block {@link ParallelGzipOutputStream} writes.
+     */
+    static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+    /**
+     * Largest member {@link ParallelGzipInputStream} buffers: a stored (incompressible) {@link #MAX_BLOCK_SIZE} block
+     * with the deflate and gzip framing. Bigger sizes in a header are not trusted and decoded sequentially.
+     */
+    static final int MAX_MEMBER_SIZE = MAX_BLOCK_SIZE + ( MAX_BLOCK_SIZE >> 8 ) + 1024;
+
+    private ParallelGzip() {
+    }
+
+    static byte[] deflate( byte[] data, int length, int level ) {
+        var out = new ByteArrayOutputStream( length / 2 + HEADER_SIZE + TRAILER_SIZE );
+        out.write( ID1 );
+        out.write( ID2 );
+        out.write( CM_DEFLATE );
+        out.write( FEXTRA );
+        out.writeBytes( new byte[] {
+            0, 0, 0, 0, // MTIME
+            0, // XFL
+            ( byte ) 255, // OS unknown
+            8, 0, // XLEN
+            SI1, SI2, 4, 0, // subfield, LEN
+            0, 0, 0, 0 // member size, patched below
+        } );
+
+        var deflater = new Deflater( level, true );
+        try {
+            deflater.setInput( data, 0, length );
+            deflater.finish();
+            byte[] buffer = new byte[64 * 1024];
+            while( !deflater.finished() ) {
+                int n = deflater.deflate( buffer );
+                out.write( buffer, 0, n );
+            }
+        } finally {
+            deflater.end();
+        }
+
+        var crc = new CRC32();
+        crc.update( data, 0, length );
+        writeInt( out, ( int ) crc.getValue() );
+        writeInt( out, length );
+
+        byte[] member = out.toByteArray();
+        putInt( member, SIZE_OFFSET, member.length );
+
+        return member;
+    }
+
+    /**
+     * @param member    whole member
+     * @param dataStart offset of the deflate data (after the header)
+     */
+    static byte[] inflate( byte[] member, int dataStart ) throws ZipException {
+        int trailer = member.length - TRAILER_SIZE;
+        int expectedCrc = getInt( member, trailer );
+        int size = getInt( member, trailer + 4 );
+        if( size < 0 || size > MAX_BLOCK_SIZE ) throw new ZipException( "member is too big: " + Integer.toUnsignedLong( size ) );
+
+        byte[] data = new byte[size];
+        var inflater = new Inflater( true );
+        try {
+            inflater.setInput( member, dataStart, trailer - dataStart );
+            byte[] scratch = new byte[1];
+            int position = 0;
+            while( !inflater.finished() ) {
+                int n = position < size ? inflater.inflate( data, position, size - position ) : inflater.inflate( scratch );
+                if( position >= size && n > 0 ) throw new ZipException( "corrupt gzip member: more data than ISIZE" );
+                if( n == 0 && !inflater.finished() && ( inflater.needsInput() || inflater.needsDictionary() ) ) {
+                    throw new ZipException( "corrupt gzip member" );
+                }
+                position += n;
+            }
+            if( position != size ) throw new ZipException( "corrupt gzip member: size " + position + " != " + size );
+        } catch( DataFormatException e ) {
+            throw new ZipException( e.getMessage() );
+        } finally {
+            inflater.end();
+        }
+
+        var crc = new CRC32();
+        crc.update( data );
+        if( ( int ) crc.getValue() != expectedCrc ) throw new ZipException( "corrupt gzip member: crc mismatch" );
+
+        return data;
+    }
+
+    static int getInt( byte[] b, int offset ) {
+        return ( b[offset] & 0xFF )
+            | ( b[offset + 1] & 0xFF ) << 8
+            | ( b[offset + 2] & 0xFF ) << 16
+            | ( b[offset + 3] & 0xFF ) << 24;
+    }
+
+    private static void putInt( byte[] b, int offset, int v ) {
+        b[offset] = ( byte ) v;
+        b[offset + 1] = ( byte ) ( v >>> 8 );
+        b[offset + 2] = ( byte ) ( v >>> 16 );
+        b[offset + 3] = ( byte ) ( v >>> 24 );
+    }
+
+    private static void writeInt( ByteArrayOutputStream out, int v ) {
+        out.write( v );
+        out.write( v >>> 8 );
+        out.write( v >>> 16 );
+        out.write( v >>> 24 );
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.compression;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Multi-member gzip decoder.
+ * <p>
+ * Members written by {@link ParallelGzipOutputStream} carry their size in the header and are inflated
+ * on the shared worker pool, up to <code>parallelism</code> members ahead of the reader. Starting from the first
+ * member without the size (or with a size over {@link ParallelGzip#MAX_MEMBER_SIZE}), the rest of the input is decoded
+ * sequentially with {@link GZIPInputStream}.
+ */
+public class ParallelGzipInputStream extends InputStream {
+    private final InputStream in;
+    private final int parallelism;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private InputStream sequential;
+    private boolean eof;
+    private boolean first = true;
+    private byte[] current = new byte[0];
+    private int position;
+
+    public ParallelGzipInputStream( InputStream in ) {
+        this( in, ParallelGzip.PARALLELISM );
+    }
+
+    public ParallelGzipInputStream( InputStream in, int parallelism ) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream( in );
+        this.parallelism = Math.max( 1, parallelism );
+    }
+
+    @Override
+    public int read() throws IOException {
+        if( !ensure() ) return -1;
+
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+        if( len == 0 ) return 0;
+        if( !ensure() ) return -1;
+
+        int n = Math.min( len, current.length - position );
+        System.arraycopy( current, position, b, off, n );
+        position += n;
+
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    private boolean ensure() throws IOException {
+        while( position == current.length ) {
+            while( pending.size() < parallelism && !eof && sequential == null ) readMember();
+
+            if( !pending.isEmpty() ) {
+                current = next();
+                position = 0;
+            } else if( sequential != null ) {
+                current = sequential.readNBytes( ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE );
+                position = 0;
+                if( current.length == 0 ) return false;
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private byte[] next() throws IOException {
+        try {
+            return pending.removeFirst().get();
+        } catch( ExecutionException e ) {
+            throw e.getCause() instanceof IOException ioe ? ioe : new IOException( e.getCause() );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( e.getMessage() );
+        }
+    }
+
+    private void readMember() throws IOException {
+        var header = new ByteArrayOutputStream( ParallelGzip.HEADER_SIZE );
+
+        int id1 = in.read();
+        if( id1 < 0 ) {
+            eof = true;
+            return;
+        }
+        header.write( id1 );
+        int id2 = in.read();
+        header.write( id2 );
+        if( id1 != ParallelGzip.ID1 || id2 != ParallelGzip.ID2 ) {
+            // trailing garbage after the last member is ignored, as GZIPInputStream does
+            if( first ) throw new ZipException( "Not in GZIP format" );
+            eof = true;
+            return;
+        }
+        first = false;
+
+        if( readByte( header ) != ParallelGzip.CM_DEFLATE ) throw new ZipException( "Unsupported compression method" );
+        int flags = readByte( header );
+        for( int i = 0; i < 6; i++ ) readByte( header );
+
+        int memberSize = -1;
+        if( ( flags & ParallelGzip.FEXTRA ) != 0 ) {
+            int xlen = readByte( header ) | readByte( header ) << 8;
+            int start = header.size();
+            for( int i = 0; i < xlen; i++ ) readByte( header );
+            memberSize = findMemberSize( header.toByteArray(), start, xlen );
+        }
+
+        if( memberSize < 0 || memberSize > ParallelGzip.MAX_MEMBER_SIZE ) {
+            sequential = new GZIPInputStream( new SequenceInputStream( new ByteArrayInputStream( header.toByteArray() ), in ) );
+            return;
+        }
+
+        if( ( flags & ParallelGzip.FNAME ) != 0 ) skipZeroTerminated( header );
+        if( ( flags & ParallelGzip.FCOMMENT ) != 0 ) skipZeroTerminated( header );
+        if( ( flags & ParallelGzip.FHCRC ) != 0 ) {
+            readByte( header );
+            readByte( header );
+        }
+
+        int headerSize = header.size();
+        if( memberSize < headerSize + ParallelGzip.TRAILER_SIZE ) throw new ZipException( "corrupt gzip member size " + memberSize );
+
+        byte[] member = new byte[memberSize];
+        System.arraycopy( header.toByteArray(), 0, member, 0, headerSize );
+        int read = in.readNBytes( member, headerSize, memberSize - headerSize );
+        if( read != memberSize - headerSize ) throw new EOFException( "Unexpected end of gzip member" );
+
+        pending.add( ParallelGzip.EXECUTOR.submit( () -> ParallelGzip.inflate( member, headerSize ) ) );
+    }
+
+    private static int findMemberSize( byte[] header, int start, int xlen ) {
+        int i = start;
+        int end = start + xlen;
+        while( i + 4 <= end ) {
+            int len = ( header[i + 2] & 0xFF ) | ( header[i + 3] & 0xFF ) << 8;
+            if( header[i] == ParallelGzip.SI1 && header[i + 1] == ParallelGzip.SI2 && len == 4 && i + 8 <= end ) {
+                return ParallelGzip.getInt( header, i + 4 );
+            }
+            i += 4 + len;
+        }
+
+        return -1;
+    }
+
+    private void skipZeroTerminated( ByteArrayOutputStream header ) throws IOException {
+        int b;
+        do {
+            b = readByte( header );
+        } while( b != 0 );
+    }
+
+    private int readByte( ByteArrayOutputStream header ) throws IOException {
+        int b = in.read();
+        if( b < 0 ) throw new EOFException( "Unexpected end of gzip header" );
+        header.write( b );
+
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for( var future : pending ) future.cancel( true );
+        pending.clear();
+        if( sequential != null ) sequential.close();
+        else in.close();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.compression;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+/**
+ * pigz style gzip encoder: the input is split into blocks that are compressed on a shared worker pool
+ * and written as independent gzip members in the input order.
+ * <p>
+ * At most <code>parallelism + 1</code> blocks are buffered per stream. {@link #flush()} ends the current block.
+ *
+ * @see ParallelGzipInputStream
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final int level;
+    private final int parallelism;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int position;
+    private boolean written;
+    private boolean closed;
+
+    public ParallelGzipOutputStream( OutputStream out ) {
+        this( out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION, ParallelGzip.PARALLELISM );
+    }
+
+    /**
+     * @param blockSize at most 64 MB
+     */
+    public ParallelGzipOutputStream( OutputStream out, int blockSize, int level, int parallelism ) {
+        if( blockSize <= 0 || blockSize > ParallelGzip.MAX_BLOCK_SIZE )
+            throw new IllegalArgumentException( "blockSize must be in (0, " + ParallelGzip.MAX_BLOCK_SIZE + "]: " + blockSize );
+
+        this.out = out;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.parallelism = Math.max( 1, parallelism );
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+        if( position == blockSize ) submit();
+        block[position++] = ( byte ) b;
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while( remaining > 0 ) {
+            if( position == blockSize ) submit();
+
+            int n = Math.min( remaining, blockSize - position );
+            System.arraycopy( b, offset, block, position, n );
+            position += n;
+            offset += n;
+            remaining -= n;
+        }
+    }
+
+    private void submit() throws IOException {
+        byte[] data = block;
+        int length = position;
+        pending.add( ParallelGzip.EXECUTOR.submit( () -> ParallelGzip.deflate( data, length, level ) ) );
+        written = true;
+        block = new byte[blockSize];
+        position = 0;
+
+        while( pending.size() > parallelism ) writeNext();
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            out.write( pending.removeFirst().get() );
+        } catch( ExecutionException e ) {
+            throw new IOException( e.getCause() );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( e.getMessage() );
+        }
+    }
+
+    private void drain() throws IOException {
+        if( position > 0 || !written ) submit();
+        while( !pending.isEmpty() ) writeNext();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if( position > 0 ) submit();
+        while( !pending.isEmpty() ) writeNext();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( closed ) return;
+        closed = true;
+
+        try {
+            drain();
+        } finally {
+            for( var future : pending ) future.cancel( true );
+            pending.clear();
+            block = null;
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.dictionary;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Lookup of child values by id and by external id. External ids are kept in a plain array when they are
+ * non-negative and dense enough, otherwise in a primitive int map, so lookups never box.
+ * <p>
+ * Duplicates resolve as the lookups they replace: the first value wins for {@link DictionaryValue}
+ * (a scan over the values), the last one for {@link DictionaryRoot} (maps filled in order), where an external id
+ * resolves to the value currently indexed under the id of its last holder.
+ */
+final class DictionaryIndex {
+    private static final int DENSE_MIN_LENGTH = 64;
+    private static final int DENSE_FACTOR = 4;
+
+    private final Dictionary[] dense;
+    private final Int2ObjectOpenHashMap<Dictionary> sparse;
+    private final HashMap<String, Dictionary> byId;
+
+    private DictionaryIndex( Dictionary[] dense, Int2ObjectOpenHashMap<Dictionary> sparse, HashMap<String, Dictionary> byId ) {
+        this.dense = dense;
+        this.sparse = sparse;
+        this.byId = byId;
+    }
+
+    static DictionaryIndex firstWins( List<? extends Dictionary> values ) {
+        return of( values, false );
+    }
+
+    static DictionaryIndex lastWins( List<? extends Dictionary> values ) {
+        return of( values, true );
+    }
+
+    private static DictionaryIndex of( List<? extends Dictionary> values, boolean lastWins ) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        HashMap<String, Dictionary> byId = new HashMap<>( values.size() * 2 );
+        for( Dictionary value : values ) {
+            if( lastWins ) byId.put( value.getId(), value );
+            else byId.putIfAbsent( value.getId(), value );
+            min = Math.min( min, value.getExternalId() );
+            max = Math.max( max, value.getExternalId() );
+        }
+
+        if( values.isEmpty() || min >= 0 && max < Math.max( DENSE_MIN_LENGTH, values.size() * DENSE_FACTOR ) ) {
+            Dictionary[] dense = new Dictionary[values.isEmpty() ? 0 : max + 1];
+            for( Dictionary value : values ) {
+                if( lastWins ) dense[value.getExternalId()] = byId.get( value.getId() );
+                else if( dense[value.getExternalId()] == null ) dense[value.getExternalId()] = value;
+            }
+            return new DictionaryIndex( dense, null, byId );
+        }
+
+        Int2ObjectOpenHashMap<Dictionary> sparse = new Int2ObjectOpenHashMap<>( values.size() );
+        for( Dictionary value : values ) {
+            if( lastWins ) sparse.put( value.getExternalId(), byId.get( value.getId() ) );
+            else sparse.putIfAbsent( value.getExternalId(), value );
+        }
+        return new DictionaryIndex( null, sparse, byId );
+    }
+
+    Dictionary get( int externalId ) {
+        if( dense != null ) return externalId >= 0 && externalId < dense.length ? dense[externalId] : null;
+        return sparse.get( externalId );
+    }
+
+    Dictionary get( String id ) {
+        return byId.get( id );
+    }
+}
@@ -31,6 +31,7 @@ import oap.io.Files;
 import oap.io.Resources;
 import oap.io.content.ContentReader;
 import oap.json.Binder;
+import oap.util.Collections;
 import oap.util.Lists;
 import oap.util.function.Try;
 import org.apache.commons.io.FilenameUtils;
@@ -260,8 +261,9 @@ public class DictionaryParser {
     private static List<? extends Dictionary> getValues( DictionaryRoot dictionaryRoot, Extends anExtends ) {
         Dictionary value = dictionaryRoot;
 
+        // scan the live lists: they are being rewritten here, so lookup indexes must not be built yet
         for( String id : StringUtils.split( anExtends.path, "/" ) ) {
-            value = value.getValue( id );
+            value = Collections.find2( value.getValues(), v -> id.equals( v.getId() ) );
         }
         return value.getValues();
     }
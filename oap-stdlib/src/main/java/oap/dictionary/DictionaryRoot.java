@@ -30,7 +30,6 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -44,11 +43,10 @@ import static java.util.stream.Collectors.toList;
 public final class DictionaryRoot implements Dictionary {
     public final String name;
     private final List<? extends Dictionary> values;
-    @JsonIgnore
-    private final HashMap<Integer, String> indexByExternalId = new HashMap<>();
-    @JsonIgnore
-    private final LinkedHashMap<String, Dictionary> mapValues = new LinkedHashMap<>();
     private final Map<String, Object> properties;
+    @JsonIgnore
+    @ToString.Exclude
+    private transient volatile DictionaryIndex index;
 
     public DictionaryRoot( String name, List<? extends Dictionary> values ) {
         this( name, values, emptyMap() );
@@ -58,37 +56,44 @@ public final class DictionaryRoot implements Dictionary {
         this.name = name;
         this.values = values;
         this.properties = properties;
+    }
 
-        for( Dictionary dv : values ) {
-            mapValues.put( dv.getId(), dv );
-            indexByExternalId.put( dv.getExternalId(), dv.getId() );
+    /**
+     * Built on first lookup, the parser rewrites {@link #values} while resolving extends.
+     */
+    private DictionaryIndex index() {
+        DictionaryIndex index = this.index;
+        if( index == null ) {
+            index = DictionaryIndex.lastWins( values );
+            this.index = index;
         }
+        return index;
     }
 
     @Override
     public String getOrDefault( int externlId, String defaultValue ) {
-        final String id = indexByExternalId.get( externlId );
-        if( id == null ) return defaultValue;
-        return id;
+        final Dictionary rtb = index().get( externlId );
+        if( rtb == null ) return defaultValue;
+        return rtb.getId();
     }
 
     @Override
     public int getOrDefault( String id, int defaultValue ) {
-        final Dictionary rtb = mapValues.get( id );
+        final Dictionary rtb = index().get( id );
         if( rtb == null ) return defaultValue;
         return rtb.getExternalId();
     }
 
     @Override
     public Integer get( String id ) {
-        final Dictionary rtb = mapValues.get( id );
+        final Dictionary rtb = index().get( id );
         if( rtb == null ) return null;
         return rtb.getExternalId();
     }
 
     @Override
     public boolean containsValueWithId( String id ) {
-        return mapValues.containsKey( id );
+        return index().get( id ) != null;
     }
 
     @Override
@@ -124,19 +129,17 @@ public final class DictionaryRoot implements Dictionary {
 
     @Override
     public Optional<? extends Dictionary> getValueOpt( String name ) {
-        return Optional.ofNullable( mapValues.get( name ) );
+        return Optional.ofNullable( index().get( name ) );
     }
 
     @Override
     public Dictionary getValue( String name ) {
-        return mapValues.get( name );
+        return index().get( name );
     }
 
     @Override
     public Dictionary getValue( int externalId ) {
-        final String name = indexByExternalId.get( externalId );
-        if( name == null ) return null;
-        return mapValues.get( name );
+        return index().get( externalId );
     }
 
     @Override
@@ -24,6 +24,7 @@
 
 package oap.dictionary;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -42,6 +43,9 @@ import static java.util.stream.Collectors.toList;
 @JsonPropertyOrder( { "id", "externalId", "enabled", "properties", "values" } )
 public class DictionaryValue extends DictionaryLeaf implements Dictionary {
     public final List<? extends Dictionary> values;
+    @JsonIgnore
+    @ToString.Exclude
+    private transient volatile DictionaryIndex index;
 
     public DictionaryValue( String id, boolean enabled, int externalId ) {
         this( id, enabled, externalId, emptyList(), emptyMap() );
@@ -71,29 +75,39 @@ public class DictionaryValue extends DictionaryLeaf implements Dictionary {
         this.values = values;
     }
 
+    /**
+     * Built on first lookup, the parser rewrites {@link #values} while resolving extends.
+     */
+    private DictionaryIndex index() {
+        DictionaryIndex index = this.index;
+        if( index == null ) {
+            index = DictionaryIndex.firstWins( values );
+            this.index = index;
+        }
+        return index;
+    }
+
     @Override
     public Integer get( String id ) {
-        return getValueOpt( id ).map( Dictionary::getExternalId ).orElse( null );
+        Dictionary value = index().get( id );
+        return value != null ? value.getExternalId() : null;
     }
 
     @Override
     public int getOrDefault( String id, int defaultValue ) {
-        return getValueOpt( id ).map( Dictionary::getExternalId ).orElse( defaultValue );
+        Dictionary value = index().get( id );
+        return value != null ? value.getExternalId() : defaultValue;
     }
 
     @Override
     public String getOrDefault( int externlId, String defaultValue ) {
-        return values
-            .stream()
-            .filter( v -> v.getExternalId() == externlId )
-            .findAny()
-            .map( Dictionary::getId )
-            .orElse( defaultValue );
+        Dictionary value = index().get( externlId );
+        return value != null ? value.getId() : defaultValue;
     }
 
     @Override
     public boolean containsValueWithId( String id ) {
-        return getValueOpt( id ).isPresent();
+        return index().get( id ) != null;
     }
 
     @Override
@@ -113,17 +127,17 @@ public class DictionaryValue extends DictionaryLeaf implements Dictionary {
 
     @Override
     public Optional<? extends Dictionary> getValueOpt( String name ) {
-        return values.stream().filter( l -> l.getId().equals( name ) ).findAny();
+        return Optional.ofNullable( index().get( name ) );
     }
 
     @Override
     public Dictionary getValue( String name ) {
-        return getValueOpt( name ).orElse( null );
+        return index().get( name );
     }
 
     @Override
     public Dictionary getValue( int externalId ) {
-        return values.stream().filter( l -> l.getExternalId() == externalId ).findAny().orElse( null );
+        return index().get( externalId );
     }
 
     @Override
@@ -31,6 +31,8 @@ import io.airlift.compress.lz4.Lz4HadoopStreams;
 import io.airlift.compress.zstd.ZstdHadoopStreams;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import oap.compression.ParallelGzipInputStream;
+import oap.compression.ParallelGzipOutputStream;
 import oap.io.ProgressInputStream.Progress;
 import oap.util.Stream;
 import oap.util.Strings;
@@ -231,11 +233,12 @@ public class IoStreams {
                 : new FileOutputStream( path.toFile(), options.append );
 
             OutputStream fos =
-                options.bufferSize > 0 && options.encoding != Encoding.GZIP
+                options.bufferSize > 0 && options.encoding != Encoding.GZIP && options.encoding != Encoding.PGZIP
                     ? new BufferedOutputStream( outputStream, options.bufferSize )
                     : outputStream;
             return switch( options.encoding ) {
                 case GZIP -> GZIP_HADOOP_STREAMS.createOutputStream( fos );
+                case PGZIP -> new ParallelGzipOutputStream( fos );
                 case BZIP2 -> {
                     OutputStream os = BZIP2_HADOOP_STREAMS.createOutputStream( fos );
                     yield options.bufferSize > 0 ? new BufferedOutputStream( os, options.bufferSize ) : os;
@@ -319,6 +322,14 @@ public class IoStreams {
                         return GZIP_HADOOP_STREAMS.createInputStream( stream );
                     } catch( Exception e ) {
                         stream.close();
+                        throw e;
+                    }
+                case PGZIP:
+                    try {
+                        return new ParallelGzipInputStream( stream );
+                    } catch( Exception e ) {
+                        stream.close();
+                        throw e;
                     }
                 case BZIP2:
                     try {
@@ -364,6 +375,11 @@ public class IoStreams {
         PLAIN( "", false, true, true ),
         ZIP( ".zip", true, false, true ),
         GZIP( ".gz", true, true, true ),
+        /**
+         * gzip compressed in parallel blocks, see {@link ParallelGzipOutputStream}. Never detected by {@link #from(String)},
+         * the output is readable as {@link #GZIP}.
+         */
+        PGZIP( ".gz", true, true, true ),
         BZIP2( ".bz2", true, false, true ),
         ZSTD( ".zst", true, true, true ),
         LZ4( ".lz4", true, true, true ),
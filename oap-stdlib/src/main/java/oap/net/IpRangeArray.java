@@ -0,0 +1,186 @@
+package oap.net;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable IPv4 range lookup built once from a {@link Builder}. Ranges are kept in parallel primitive arrays
+ * sorted by low address; {@link #lookUp(long)} is a branch-free binary search, optionally narrowed by an index over
+ * the top {@code indexBits} of the address, and does not allocate.
+ * <p>
+ * Overlapping ranges resolve like {@link IpRangeTree}: the range with the greatest low address not above the
+ * looked up address wins if it covers it; of ranges with the same low address the last added wins.
+ */
+public final class IpRangeArray<Data> implements Serializable, Iterable<Data> {
+    @Serial
+    private static final long serialVersionUID = -6385011739640420592L;
+
+    private final long[] lows;
+    private final long[] highs;
+    private final Object[] data;
+    private final int indexShift;
+    private final int[] index;
+
+    private IpRangeArray( long[] lows, long[] highs, Object[] data, int indexBits ) {
+        this.lows = lows;
+        this.highs = highs;
+        this.data = data;
+        this.indexShift = 32 - indexBits;
+        this.index = indexBits > 0 ? buildIndex( lows, indexBits, indexShift ) : null;
+    }
+
+    public static <Data> Builder<Data> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * index[b] is the number of ranges starting below bucket b, index[buckets] is the number of ranges
+     */
+    private static int[] buildIndex( long[] lows, int indexBits, int indexShift ) {
+        int buckets = 1 << indexBits;
+        int[] index = new int[buckets + 1];
+        int position = 0;
+        for( int b = 0; b <= buckets; b++ ) {
+            long bucketStart = ( long ) b << indexShift;
+            while( position < lows.length && lows[position] < bucketStart ) position++;
+            index[b] = position;
+        }
+        return index;
+    }
+
+    /**
+     * @return position of the greatest element of {@code keys[from, to)} not above {@code key}, or {@code from - 1}
+     */
+    static int floor( long[] keys, int from, int to, long key ) {
+        int n = to - from;
+        if( n <= 0 ) return from - 1;
+
+        int base = from;
+        while( n > 1 ) {
+            int half = n >>> 1;
+            base = keys[base + half] <= key ? base + half : base;
+            n -= half;
+        }
+        return keys[base] <= key ? base : base - 1;
+    }
+
+    public int size() {
+        return lows.length;
+    }
+
+    /**
+     * @param ipv4 address as returned by {@link IpUtils#ipv4AsLong(String)}
+     */
+    @Nullable
+    @SuppressWarnings( "unchecked" )
+    public Data lookUp( long ipv4 ) {
+        int from = 0;
+        int to = lows.length;
+        if( index != null ) {
+            int bucket = ( int ) ( ipv4 >>> indexShift );
+            from = Math.max( index[bucket] - 1, 0 );
+            to = index[bucket + 1];
+        }
+
+        int i = floor( lows, from, to, ipv4 );
+        return i >= 0 && highs[i] >= ipv4 ? ( Data ) data[i] : null;
+    }
+
+    @Override
+    @Nonnull
+    @SuppressWarnings( "unchecked" )
+    public Iterator<Data> iterator() {
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < data.length;
+            }
+
+            @Override
+            public Data next() {
+                return ( Data ) data[position++];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public void forEach( Consumer<? super Data> action ) {
+        for( Object d : data ) action.accept( ( Data ) d );
+    }
+
+    public static final class Builder<Data> {
+        private final LongArrayList lows = new LongArrayList();
+        private final LongArrayList highs = new LongArrayList();
+        private final List<Data> data = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<Data> addRange( long lowAddress, long highAddress, Data data ) {
+            Preconditions.checkArgument( lowAddress >= 0 && highAddress <= 0xFFFFFFFFL && lowAddress <= highAddress,
+                "invalid range %s - %s", lowAddress, highAddress );
+
+            lows.add( lowAddress );
+            highs.add( highAddress );
+            this.data.add( data );
+
+            return this;
+        }
+
+        public IpRangeArray<Data> build() {
+            return build( 0 );
+        }
+
+        /**
+         * @param indexBits 0 disables the index, otherwise the number of leading address bits of the first level,
+         *                  {@code 2^indexBits + 1} ints of memory
+         */
+        public IpRangeArray<Data> build( int indexBits ) {
+            Preconditions.checkArgument( indexBits >= 0 && indexBits <= 24, "indexBits must be in [0, 24]" );
+
+            int[] order = sortedUnique( lows );
+
+            long[] l = new long[order.length];
+            long[] h = new long[order.length];
+            Object[] d = new Object[order.length];
+            for( int i = 0; i < order.length; i++ ) {
+                l[i] = lows.getLong( order[i] );
+                h[i] = highs.getLong( order[i] );
+                d[i] = data.get( order[i] );
+            }
+
+            return new IpRangeArray<>( l, h, d, indexBits );
+        }
+
+        /**
+         * stable sort of insertion positions by key, keeping the last added of equal keys
+         */
+        private static int[] sortedUnique( LongArrayList keys ) {
+            int size = keys.size();
+            int[] order = new int[size];
+            for( int i = 0; i < size; i++ ) order[i] = i;
+            IntArrays.mergeSort( order, ( a, b ) -> Long.compare( keys.getLong( a ), keys.getLong( b ) ) );
+
+            int unique = 0;
+            for( int i = 0; i < size; i++ ) {
+                if( i + 1 < size && keys.getLong( order[i] ) == keys.getLong( order[i + 1] ) ) continue;
+                order[unique++] = order[i];
+            }
+            return unique == size ? order : Arrays.copyOf( order, unique );
+        }
+    }
+}
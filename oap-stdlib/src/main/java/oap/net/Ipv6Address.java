@@ -0,0 +1,81 @@
+package oap.net;
+
+import com.google.common.net.InetAddresses;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 128-bit address as two unsigned longs. IPv4 addresses are stored IPv4-mapped ({@code ::ffff:a.b.c.d}),
+ * so one {@link Ipv6RangeArray} can hold both families.
+ */
+public record Ipv6Address( long high, long low ) implements Comparable<Ipv6Address>, Serializable {
+    @Serial
+    private static final long serialVersionUID = -3146372937845625731L;
+
+    public static final long IPV4_MAPPED_HIGH = 0L;
+    public static final long IPV4_MAPPED_LOW_PREFIX = 0xFFFFL << 32;
+
+    /**
+     * accepts IPv4 and IPv6 literals only, never resolves host names
+     */
+    public static Ipv6Address of( String address ) {
+        return of( InetAddresses.forString( address ) );
+    }
+
+    public static Ipv6Address of( InetAddress address ) {
+        return of( address.getAddress() );
+    }
+
+    public static Ipv6Address of( byte[] address ) {
+        if( address.length == 4 ) return ofIpv4( ( ( address[0] & 0xFFL ) << 24 ) | ( ( address[1] & 0xFFL ) << 16 ) | ( ( address[2] & 0xFFL ) << 8 ) | ( address[3] & 0xFFL ) );
+        if( address.length != 16 ) throw new IllegalArgumentException( "not an ip address, length " + address.length );
+
+        long high = 0;
+        long low = 0;
+        for( int i = 0; i < 8; i++ ) {
+            high = ( high << 8 ) | ( address[i] & 0xFFL );
+            low = ( low << 8 ) | ( address[i + 8] & 0xFFL );
+        }
+        return new Ipv6Address( high, low );
+    }
+
+    /**
+     * @param ipv4 address as returned by {@link IpUtils#ipv4AsLong(String)}
+     */
+    public static Ipv6Address ofIpv4( long ipv4 ) {
+        return new Ipv6Address( IPV4_MAPPED_HIGH, IPV4_MAPPED_LOW_PREFIX | ( ipv4 & 0xFFFFFFFFL ) );
+    }
+
+    public boolean isIpv4Mapped() {
+        return high == IPV4_MAPPED_HIGH && ( low & 0xFFFFFFFF00000000L ) == IPV4_MAPPED_LOW_PREFIX;
+    }
+
+    public InetAddress toInetAddress() {
+        byte[] bytes = new byte[16];
+        for( int i = 0; i < 8; i++ ) {
+            bytes[i] = ( byte ) ( high >>> ( 56 - i * 8 ) );
+            bytes[i + 8] = ( byte ) ( low >>> ( 56 - i * 8 ) );
+        }
+        try {
+            return InetAddress.getByAddress( bytes );
+        } catch( UnknownHostException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    @Override
+    public int compareTo( Ipv6Address o ) {
+        int ret = Long.compareUnsigned( high, o.high );
+        return ret != 0 ? ret : Long.compareUnsigned( low, o.low );
+    }
+
+    @Override
+    public String toString() {
+        InetAddress address = toInetAddress();
+        return address instanceof Inet4Address ? "::ffff:" + address.getHostAddress() : InetAddresses.toAddrString( address );
+    }
+}
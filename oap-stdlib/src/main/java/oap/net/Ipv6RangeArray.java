@@ -0,0 +1,202 @@
+package oap.net;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link IpRangeArray} over 128-bit keys. Addresses are {@link Ipv6Address}es or their two halves, IPv4 ranges
+ * are added IPv4-mapped (see {@link Ipv6Address#ofIpv4(long)}).
+ * <p>
+ * Halves are stored with the sign bit flipped so unsigned order becomes plain {@code long} order.
+ */
+public final class Ipv6RangeArray<Data> implements Serializable, Iterable<Data> {
+    @Serial
+    private static final long serialVersionUID = 4470915390745727906L;
+
+    private final long[] lowHighs;
+    private final long[] lowLows;
+    private final long[] highHighs;
+    private final long[] highLows;
+    private final Object[] data;
+    private final int indexShift;
+    private final int[] index;
+
+    private Ipv6RangeArray( long[] lowHighs, long[] lowLows, long[] highHighs, long[] highLows, Object[] data, int indexBits ) {
+        this.lowHighs = lowHighs;
+        this.lowLows = lowLows;
+        this.highHighs = highHighs;
+        this.highLows = highLows;
+        this.data = data;
+        this.indexShift = 64 - indexBits;
+        this.index = indexBits > 0 ? buildIndex( lowHighs, indexBits, indexShift ) : null;
+    }
+
+    public static <Data> Builder<Data> builder() {
+        return new Builder<>();
+    }
+
+    private static int[] buildIndex( long[] lowHighs, int indexBits, int indexShift ) {
+        int buckets = 1 << indexBits;
+        int[] index = new int[buckets + 1];
+        int position = 0;
+        for( int b = 0; b <= buckets; b++ ) {
+            while( position < lowHighs.length && ( ( lowHighs[position] ^ Long.MIN_VALUE ) >>> indexShift ) < b ) position++;
+            index[b] = position;
+        }
+        return index;
+    }
+
+    private static boolean lessOrEqual( long aHigh, long aLow, long bHigh, long bLow ) {
+        return aHigh < bHigh | ( aHigh == bHigh & aLow <= bLow );
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    @Nullable
+    public Data lookUp( Ipv6Address address ) {
+        return lookUp( address.high(), address.low() );
+    }
+
+    @Nullable
+    public Data lookUpIpv4( long ipv4 ) {
+        return lookUp( Ipv6Address.IPV4_MAPPED_HIGH, Ipv6Address.IPV4_MAPPED_LOW_PREFIX | ipv4 );
+    }
+
+    @Nullable
+    @SuppressWarnings( "unchecked" )
+    public Data lookUp( long high, long low ) {
+        int from = 0;
+        int to = data.length;
+        if( index != null ) {
+            int bucket = ( int ) ( high >>> indexShift );
+            from = Math.max( index[bucket] - 1, 0 );
+            to = index[bucket + 1];
+        }
+
+        long kh = high ^ Long.MIN_VALUE;
+        long kl = low ^ Long.MIN_VALUE;
+
+        int n = to - from;
+        if( n <= 0 ) return null;
+
+        int base = from;
+        while( n > 1 ) {
+            int half = n >>> 1;
+            int mid = base + half;
+            base = lessOrEqual( lowHighs[mid], lowLows[mid], kh, kl ) ? mid : base;
+            n -= half;
+        }
+        if( !lessOrEqual( lowHighs[base], lowLows[base], kh, kl ) ) base--;
+
+        return base >= 0 && lessOrEqual( kh, kl, highHighs[base], highLows[base] ) ? ( Data ) data[base] : null;
+    }
+
+    @Override
+    @Nonnull
+    @SuppressWarnings( "unchecked" )
+    public Iterator<Data> iterator() {
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < data.length;
+            }
+
+            @Override
+            public Data next() {
+                return ( Data ) data[position++];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public void forEach( Consumer<? super Data> action ) {
+        for( Object d : data ) action.accept( ( Data ) d );
+    }
+
+    public static final class Builder<Data> {
+        private final LongArrayList lowHighs = new LongArrayList();
+        private final LongArrayList lowLows = new LongArrayList();
+        private final LongArrayList highHighs = new LongArrayList();
+        private final LongArrayList highLows = new LongArrayList();
+        private final List<Data> data = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<Data> addRange( Ipv6Address lowAddress, Ipv6Address highAddress, Data data ) {
+            Preconditions.checkArgument( lowAddress.compareTo( highAddress ) <= 0, "invalid range %s - %s", lowAddress, highAddress );
+
+            lowHighs.add( lowAddress.high() ^ Long.MIN_VALUE );
+            lowLows.add( lowAddress.low() ^ Long.MIN_VALUE );
+            highHighs.add( highAddress.high() ^ Long.MIN_VALUE );
+            highLows.add( highAddress.low() ^ Long.MIN_VALUE );
+            this.data.add( data );
+
+            return this;
+        }
+
+        public Builder<Data> addIpv4Range( long lowAddress, long highAddress, Data data ) {
+            return addRange( Ipv6Address.ofIpv4( lowAddress ), Ipv6Address.ofIpv4( highAddress ), data );
+        }
+
+        public Ipv6RangeArray<Data> build() {
+            return build( 0 );
+        }
+
+        /**
+         * @param indexBits 0 disables the index, otherwise the number of leading address bits of the first level.
+         *                  IPv4-mapped addresses all share bucket 0.
+         */
+        public Ipv6RangeArray<Data> build( int indexBits ) {
+            Preconditions.checkArgument( indexBits >= 0 && indexBits <= 24, "indexBits must be in [0, 24]" );
+
+            int size = data.size();
+            int[] order = new int[size];
+            for( int i = 0; i < size; i++ ) order[i] = i;
+            IntArrays.mergeSort( order, ( a, b ) -> {
+                int ret = Long.compare( lowHighs.getLong( a ), lowHighs.getLong( b ) );
+                return ret != 0 ? ret : Long.compare( lowLows.getLong( a ), lowLows.getLong( b ) );
+            } );
+
+            int unique = 0;
+            for( int i = 0; i < size; i++ ) {
+                if( i + 1 < size
+                    && lowHighs.getLong( order[i] ) == lowHighs.getLong( order[i + 1] )
+                    && lowLows.getLong( order[i] ) == lowLows.getLong( order[i + 1] ) ) continue;
+                order[unique++] = order[i];
+            }
+            order = Arrays.copyOf( order, unique );
+
+            long[] lh = new long[unique];
+            long[] ll = new long[unique];
+            long[] hh = new long[unique];
+            long[] hl = new long[unique];
+            Object[] d = new Object[unique];
+            for( int i = 0; i < unique; i++ ) {
+                lh[i] = lowHighs.getLong( order[i] );
+                ll[i] = lowLows.getLong( order[i] );
+                hh[i] = highHighs.getLong( order[i] );
+                hl[i] = highLows.getLong( order[i] );
+                d[i] = data.get( order[i] );
+            }
+
+            return new Ipv6RangeArray<>( lh, ll, hh, hl, d, indexBits );
+        }
+    }
+}
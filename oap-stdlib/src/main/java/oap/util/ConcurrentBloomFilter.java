@@ -0,0 +1,337 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.util;
+
+import com.google.common.base.Preconditions;
+import oap.io.Files;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Thread-safe Bloom filter for large capacities, an alternative to {@link BloomFilter}.
+ * <ul>
+ *     <li>one murmur3 x64 128-bit hash per element, split into two 64-bit halves and combined by double hashing
+ *     (Kirsch-Mitzenmacher) into {@code k} bit positions</li>
+ *     <li>bits live in a {@code long[]} addressed by {@code long} bit index, up to {@link #MAX_BITS} bits</li>
+ *     <li>{@link #add(byte[])} is lock-free, bits are set with an atomic OR, lookups are plain reads</li>
+ *     <li>{@link #writeTo(Path)} / {@link #readFrom(Path)} persist the filter for warm restarts</li>
+ * </ul>
+ * Hash positions are not compatible with {@link BloomFilter}.
+ */
+public class ConcurrentBloomFilter<E> {
+    public static final long MAX_BITS = ( long ) ( Integer.MAX_VALUE - 8 ) * Long.SIZE;
+
+    private static final int MAGIC = 0x4f42_4631; // OBF1
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle( long[].class );
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long[] bits;
+    private final long bitSize;
+    private final int k;
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * @param bitSize number of bits
+     * @param k       number of hash functions
+     */
+    public ConcurrentBloomFilter( long bitSize, int k ) {
+        this( new long[words( bitSize )], bitSize, k );
+    }
+
+    private ConcurrentBloomFilter( long[] bits, long bitSize, int k ) {
+        Preconditions.checkArgument( k > 0, "k must be positive" );
+
+        this.bits = bits;
+        this.bitSize = bitSize;
+        this.k = k;
+    }
+
+    /**
+     * Sizes the filter for the expected number of elements and the desired false positive probability:
+     * {@code m = -n * ln(p) / ln(2)^2}, {@code k = m / n * ln(2)}.
+     */
+    public static <E> ConcurrentBloomFilter<E> create( long expectedElements, double falsePositiveProbability ) {
+        Preconditions.checkArgument( expectedElements > 0, "expectedElements must be positive" );
+        Preconditions.checkArgument( falsePositiveProbability > 0 && falsePositiveProbability < 1, "falsePositiveProbability must be in (0, 1)" );
+
+        long bitSize = ( long ) Math.ceil( -expectedElements * Math.log( falsePositiveProbability ) / ( Math.log( 2 ) * Math.log( 2 ) ) );
+        int k = Math.max( 1, ( int ) Math.round( ( double ) bitSize / expectedElements * Math.log( 2 ) ) );
+
+        return new ConcurrentBloomFilter<>( bitSize, k );
+    }
+
+    private static int words( long bitSize ) {
+        Preconditions.checkArgument( bitSize > 0 && bitSize <= MAX_BITS, "bitSize must be in (0, %s]", MAX_BITS );
+
+        return ( int ) ( ( bitSize + 63 ) >>> 6 );
+    }
+
+    private static long fmix( long k ) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long mixK1( long k1 ) {
+        return Long.rotateLeft( k1 * C1, 31 ) * C2;
+    }
+
+    private static long mixK2( long k2 ) {
+        return Long.rotateLeft( k2 * C2, 33 ) * C1;
+    }
+
+    /**
+     * @return true if any bit changed, i.e. the element was definitely not in the filter before
+     */
+    public boolean add( E element ) {
+        return add( element.toString().getBytes( UTF_8 ) );
+    }
+
+    public boolean add( byte[] bytes ) {
+        return add( bytes, 0, bytes.length );
+    }
+
+    public boolean add( byte[] bytes, int offset, int length ) {
+        boolean changed = apply( bytes, offset, length, true );
+        if( changed ) count.increment();
+        return changed;
+    }
+
+    public boolean contains( E element ) {
+        return contains( element.toString().getBytes( UTF_8 ) );
+    }
+
+    public boolean contains( byte[] bytes ) {
+        return contains( bytes, 0, bytes.length );
+    }
+
+    public boolean contains( byte[] bytes, int offset, int length ) {
+        return apply( bytes, offset, length, false );
+    }
+
+    /**
+     * murmur3 x64 128 (seed 0) followed by double hashing over the two halves. Kept in one method so the hash
+     * halves stay in registers.
+     *
+     * @return set: whether a bit changed; otherwise: whether all bits are set
+     */
+    @SuppressWarnings( { "fallthrough", "checkstyle:FallThrough" } )
+    private boolean apply( byte[] data, int offset, int length, boolean set ) {
+        long h1 = 0;
+        long h2 = 0;
+
+        int blocks = length >>> 4;
+        for( int i = 0; i < blocks; i++ ) {
+            int p = offset + ( i << 4 );
+            long k1 = ( long ) LONG_LE.get( data, p );
+            long k2 = ( long ) LONG_LE.get( data, p + 8 );
+
+            h1 ^= mixK1( k1 );
+            h1 = Long.rotateLeft( h1, 27 ) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2( k2 );
+            h2 = Long.rotateLeft( h2, 31 ) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = offset + ( blocks << 4 );
+        long k1 = 0;
+        long k2 = 0;
+        switch( length & 15 ) {
+            case 15: k2 ^= ( long ) ( data[tail + 14] & 0xFF ) << 48;
+            case 14: k2 ^= ( long ) ( data[tail + 13] & 0xFF ) << 40;
+            case 13: k2 ^= ( long ) ( data[tail + 12] & 0xFF ) << 32;
+            case 12: k2 ^= ( long ) ( data[tail + 11] & 0xFF ) << 24;
+            case 11: k2 ^= ( long ) ( data[tail + 10] & 0xFF ) << 16;
+            case 10: k2 ^= ( long ) ( data[tail + 9] & 0xFF ) << 8;
+            case 9: k2 ^= data[tail + 8] & 0xFF;
+            case 8: k1 ^= ( long ) ( data[tail + 7] & 0xFF ) << 56;
+            case 7: k1 ^= ( long ) ( data[tail + 6] & 0xFF ) << 48;
+            case 6: k1 ^= ( long ) ( data[tail + 5] & 0xFF ) << 40;
+            case 5: k1 ^= ( long ) ( data[tail + 4] & 0xFF ) << 32;
+            case 4: k1 ^= ( long ) ( data[tail + 3] & 0xFF ) << 24;
+            case 3: k1 ^= ( long ) ( data[tail + 2] & 0xFF ) << 16;
+            case 2: k1 ^= ( long ) ( data[tail + 1] & 0xFF ) << 8;
+            case 1: k1 ^= data[tail] & 0xFF;
+            default:
+        }
+        h1 ^= mixK1( k1 );
+        h2 ^= mixK2( k2 );
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix( h1 );
+        h2 = fmix( h2 );
+        h1 += h2;
+        h2 += h1;
+
+        boolean result = !set;
+        long combined = h1;
+        for( int i = 0; i < k; i++ ) {
+            long bit = ( combined & Long.MAX_VALUE ) % bitSize;
+            int word = ( int ) ( bit >>> 6 );
+            long mask = 1L << bit;
+
+            if( set ) {
+                if( ( ( long ) BITS.getOpaque( bits, word ) & mask ) == 0
+                    && ( ( long ) BITS.getAndBitwiseOr( bits, word, mask ) & mask ) == 0 ) result = true;
+            } else if( ( ( long ) BITS.getOpaque( bits, word ) & mask ) == 0 ) {
+                return false;
+            }
+
+            combined += h2;
+        }
+
+        return result;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * @return number of {@code add} calls that changed the filter, an estimate of the distinct elements added
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    public long bitCount() {
+        long ret = 0;
+        for( int i = 0; i < bits.length; i++ ) ret += Long.bitCount( ( long ) BITS.getOpaque( bits, i ) );
+        return ret;
+    }
+
+    /**
+     * @return {@code (1 - e^(-k * n / m))^k} for the current {@link #count()}
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow( 1 - Math.exp( -k * ( double ) count() / bitSize ), k );
+    }
+
+    /**
+     * Not atomic with respect to concurrent {@code add} calls.
+     */
+    public void clear() {
+        for( int i = 0; i < bits.length; i++ ) BITS.setOpaque( bits, i, 0L );
+        count.reset();
+    }
+
+    /**
+     * Writes the filter to a temporary file next to {@code path} and atomically renames it. Concurrent {@code add}
+     * calls may or may not be included.
+     */
+    public void writeTo( Path path ) {
+        Path tmp = path.resolveSibling( path.getFileName() + ".tmp" );
+        Files.ensureFile( tmp );
+
+        try( FileChannel channel = FileChannel.open( tmp, CREATE, WRITE, TRUNCATE_EXISTING ) ) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect( 1024 * 1024 ).order( ByteOrder.LITTLE_ENDIAN );
+            buffer.putInt( MAGIC ).putInt( k ).putLong( bitSize ).putLong( count() );
+
+            for( int i = 0; i < bits.length; i++ ) {
+                if( buffer.remaining() < Long.BYTES ) {
+                    writeFully( channel, buffer );
+                }
+                buffer.putLong( ( long ) BITS.getOpaque( bits, i ) );
+            }
+            writeFully( channel, buffer );
+            channel.force( false );
+        } catch( IOException e ) {
+            throw new oap.io.IOException( "cannot write bloom filter to " + path, e );
+        }
+
+        Files.rename( tmp, path );
+    }
+
+    private static void writeFully( FileChannel channel, ByteBuffer buffer ) throws IOException {
+        buffer.flip();
+        while( buffer.hasRemaining() ) channel.write( buffer );
+        buffer.clear();
+    }
+
+    public static <E> ConcurrentBloomFilter<E> readFrom( Path path ) {
+        try( FileChannel channel = FileChannel.open( path, READ ) ) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect( 1024 * 1024 ).order( ByteOrder.LITTLE_ENDIAN );
+            readFully( channel, buffer, HEADER_SIZE, path );
+
+            int magic = buffer.getInt();
+            if( magic != MAGIC ) throw new oap.io.IOException( path + " is not a bloom filter file" );
+            int k = buffer.getInt();
+            long bitSize = buffer.getLong();
+            long count = buffer.getLong();
+            buffer.clear();
+
+            var filter = new ConcurrentBloomFilter<E>( new long[words( bitSize )], bitSize, k );
+            long[] bits = filter.bits;
+            int i = 0;
+            while( i < bits.length ) {
+                int n = Math.min( bits.length - i, buffer.capacity() / Long.BYTES );
+                readFully( channel, buffer, n * Long.BYTES, path );
+                for( int j = 0; j < n; j++ ) bits[i++] = buffer.getLong();
+                buffer.clear();
+            }
+            filter.count.add( count );
+
+            return filter;
+        } catch( IOException e ) {
+            throw new oap.io.IOException( "cannot read bloom filter from " + path, e );
+        }
+    }
+
+    private static void readFully( FileChannel channel, ByteBuffer buffer, int length, Path path ) throws IOException {
+        buffer.limit( length );
+        while( buffer.hasRemaining() ) {
+            if( channel.read( buffer ) < 0 ) throw new oap.io.IOException( path + ": unexpected end of file" );
+        }
+        buffer.flip();
+    }
+}
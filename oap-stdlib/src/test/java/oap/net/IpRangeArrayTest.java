@@ -0,0 +1,83 @@
+package oap.net;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IpRangeArrayTest {
+    @Test
+    public void testMinMax() {
+        IpRangeArray<String> array = IpRangeArray.<String>builder()
+            .addRange( IpUtils.ipv4AsLong( "0.0.0.0" ), IpUtils.ipv4AsLong( "255.255.255.255" ), "1" )
+            .build( 8 );
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "0.0.0.0" ) ) ).isEqualTo( "1" );
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "255.255.255.255" ) ) ).isEqualTo( "1" );
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "1.2.3.4" ) ) ).isEqualTo( "1" );
+    }
+
+    @Test
+    public void testIntersection() {
+        for( int indexBits : new int[] { 0, 8 } ) {
+            IpRangeArray<String> array = IpRangeArray.<String>builder()
+                .addRange( IpUtils.ipv4AsLong( "0.0.0.0" ), IpUtils.ipv4AsLong( "200.255.255.255" ), "1" )
+                .addRange( IpUtils.ipv4AsLong( "100.0.0.0" ), IpUtils.ipv4AsLong( "255.255.255.200" ), "2" )
+                .build( indexBits );
+            assertThat( array.lookUp( IpUtils.ipv4AsLong( "0.0.0.0" ) ) ).isEqualTo( "1" );
+            assertThat( array.lookUp( IpUtils.ipv4AsLong( "255.255.255.200" ) ) ).isEqualTo( "2" );
+            assertThat( array.lookUp( IpUtils.ipv4AsLong( "120.100.100.100" ) ) ).isEqualTo( "2" );
+
+            assertThat( array.lookUp( IpUtils.ipv4AsLong( "255.255.255.245" ) ) ).isNull();
+        }
+    }
+
+    @Test
+    public void testIp() {
+        IpRangeArray<String> array = IpRangeArray.<String>builder()
+            .addRange( IpUtils.ipv4AsLong( "126.126.126.126" ), IpUtils.ipv4AsLong( "126.126.126.126" ), "1" )
+            .build( 4 );
+
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "126.126.126.126" ) ) ).isEqualTo( "1" );
+
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "126.126.126.125" ) ) ).isNull();
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "126.126.126.127" ) ) ).isNull();
+    }
+
+    @Test
+    public void testSameLowLastAddedWins() {
+        IpRangeArray<String> array = IpRangeArray.<String>builder()
+            .addRange( IpUtils.ipv4AsLong( "10.0.0.0" ), IpUtils.ipv4AsLong( "10.0.0.255" ), "1" )
+            .addRange( IpUtils.ipv4AsLong( "10.0.0.0" ), IpUtils.ipv4AsLong( "10.0.0.10" ), "2" )
+            .build();
+
+        assertThat( array.size() ).isEqualTo( 1 );
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "10.0.0.5" ) ) ).isEqualTo( "2" );
+        assertThat( array.lookUp( IpUtils.ipv4AsLong( "10.0.0.50" ) ) ).isNull();
+        assertThat( array ).containsExactly( "2" );
+    }
+
+    @Test
+    public void testSameAsTree() {
+        var random = new Random( 1 );
+        var tree = new IpRangeTree<Integer>( 8 );
+        var builder = IpRangeArray.<Integer>builder();
+
+        long step = ( 1L << 32 ) / 10000;
+        for( int i = 0; i < 10000; i++ ) {
+            long low = i * step + random.nextLong( step / 2 );
+            long high = low + random.nextLong( step / 2 );
+            tree.addRange( low, high, i );
+            builder.addRange( low, high, i );
+        }
+        var array = builder.build();
+        var indexed = builder.build( 12 );
+
+        for( int i = 0; i < 100000; i++ ) {
+            long ip = random.nextLong( 1L << 32 );
+            Integer expected = tree.lookUp( ip );
+            assertThat( array.lookUp( ip ) ).isEqualTo( expected );
+            assertThat( indexed.lookUp( ip ) ).isEqualTo( expected );
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package oap.net;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Ipv6RangeArrayTest {
+    @Test
+    public void testIpv6() {
+        for( int indexBits : new int[] { 0, 16 } ) {
+            Ipv6RangeArray<String> array = Ipv6RangeArray.<String>builder()
+                .addRange( Ipv6Address.of( "2001:db8::" ), Ipv6Address.of( "2001:db8::ffff:ffff:ffff:ffff" ), "doc" )
+                .addRange( Ipv6Address.of( "fe80::" ), Ipv6Address.of( "febf:ffff:ffff:ffff:ffff:ffff:ffff:ffff" ), "link-local" )
+                .build( indexBits );
+
+            assertThat( array.lookUp( Ipv6Address.of( "2001:db8::1" ) ) ).isEqualTo( "doc" );
+            assertThat( array.lookUp( Ipv6Address.of( "2001:db8::ffff:ffff:ffff:ffff" ) ) ).isEqualTo( "doc" );
+            assertThat( array.lookUp( Ipv6Address.of( "2001:db8:0:1::" ) ) ).isNull();
+            assertThat( array.lookUp( Ipv6Address.of( "fe80::1ff:fe23:4567:890a" ) ) ).isEqualTo( "link-local" );
+            assertThat( array.lookUp( Ipv6Address.of( "ffff::" ) ) ).isNull();
+            assertThat( array.lookUp( Ipv6Address.of( "::" ) ) ).isNull();
+        }
+    }
+
+    @Test
+    public void testIpv4Mapped() {
+        Ipv6RangeArray<String> array = Ipv6RangeArray.<String>builder()
+            .addIpv4Range( IpUtils.ipv4AsLong( "10.0.0.0" ), IpUtils.ipv4AsLong( "10.255.255.255" ), "v4" )
+            .addRange( Ipv6Address.of( "2001:db8::" ), Ipv6Address.of( "2001:db8::ffff" ), "v6" )
+            .build();
+
+        assertThat( array.lookUpIpv4( IpUtils.ipv4AsLong( "10.1.2.3" ) ) ).isEqualTo( "v4" );
+        assertThat( array.lookUp( Ipv6Address.of( "10.1.2.3" ) ) ).isEqualTo( "v4" );
+        assertThat( array.lookUp( Ipv6Address.of( "::ffff:10.1.2.3" ) ) ).isEqualTo( "v4" );
+        assertThat( array.lookUpIpv4( IpUtils.ipv4AsLong( "11.0.0.0" ) ) ).isNull();
+        assertThat( array.lookUp( Ipv6Address.of( "2001:db8::10" ) ) ).isEqualTo( "v6" );
+    }
+
+    @Test
+    public void testAddress() {
+        assertThat( Ipv6Address.of( "::ffff:1.2.3.4" ) ).isEqualTo( Ipv6Address.ofIpv4( IpUtils.ipv4AsLong( "1.2.3.4" ) ) );
+        assertThat( Ipv6Address.of( "1.2.3.4" ).isIpv4Mapped() ).isTrue();
+        assertThat( Ipv6Address.of( "2001:db8::1" ).isIpv4Mapped() ).isFalse();
+        assertThat( Ipv6Address.of( "2001:db8::1" ) ).hasToString( "2001:db8::1" );
+        assertThat( Ipv6Address.of( "ffff::" ).compareTo( Ipv6Address.of( "::1" ) ) ).isPositive();
+    }
+}
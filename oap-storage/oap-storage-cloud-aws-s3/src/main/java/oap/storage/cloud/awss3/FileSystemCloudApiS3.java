@@ -1,6 +1,9 @@
 package oap.storage.cloud.awss3;
 
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
+import oap.concurrent.Executors;
 import oap.io.Closeables;
 import oap.storage.cloud.BlobData;
 import oap.storage.cloud.CloudException;
@@ -41,6 +44,7 @@ import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
@@ -53,9 +57,11 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.s3.model.Tag;
 import software.amazon.awssdk.services.s3.model.Tagging;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -63,21 +69,38 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Slf4j
 public class FileSystemCloudApiS3 implements FileSystemCloudApi {
-    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final long DEFAULT_MULTIPART_COPY_THRESHOLD = 256L * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PARTS = 10_000;
 
     private final S3Client s3Client;
+    private final int partSize;
+    private final int parallelism;
+    private final long multipartCopyThreshold;
+    private final ExecutorService transferExecutor;
 
     public FileSystemCloudApiS3( FileSystemConfiguration fileSystemConfiguration, String bucketName ) {
         S3ClientBuilder builder = S3Client.builder()
@@ -108,6 +131,20 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
         s3Client = builder
             .region( region )
             .build();
+
+        Object partSizeObj = fileSystemConfiguration.get( "s3", bucketName, "clouds.s3.part-size" );
+        partSize = partSizeObj != null ? Integer.parseInt( partSizeObj.toString() ) : DEFAULT_PART_SIZE;
+        Preconditions.checkArgument( partSize >= MIN_PART_SIZE, "clouds.s3.part-size must be at least " + MIN_PART_SIZE );
+
+        Object parallelismObj = fileSystemConfiguration.get( "s3", bucketName, "clouds.s3.parallelism" );
+        parallelism = parallelismObj != null ? Integer.parseInt( parallelismObj.toString() ) : DEFAULT_PARALLELISM;
+        Preconditions.checkArgument( parallelism > 0, "clouds.s3.parallelism must be positive" );
+
+        Object multipartCopyThresholdObj = fileSystemConfiguration.get( "s3", bucketName, "clouds.s3.multipart-copy-threshold" );
+        multipartCopyThreshold = multipartCopyThresholdObj != null ? Long.parseLong( multipartCopyThresholdObj.toString() ) : DEFAULT_MULTIPART_COPY_THRESHOLD;
+
+        transferExecutor = Executors.newFixedThreadPool( parallelism,
+            new ThreadFactoryBuilder().setNameFormat( "s3-transfer-" + bucketName + "-%d" ).setDaemon( true ).build() );
     }
 
     private static Tagging getTagging( Map<String, String> tags ) {
@@ -268,14 +305,23 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
 
     @Override
     public void downloadFile( CloudURI source, Path destination ) throws CloudException {
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket( source.container ).key( source.path ).build();
-
         try {
             oap.io.Files.ensureFile( destination );
 
-            try( ResponseInputStream<GetObjectResponse> in = s3Client.getObject( getObjectRequest ) ) {
-                Files.copy( in, destination, StandardCopyOption.REPLACE_EXISTING );
+            HeadObjectResponse head = parallelism > 1
+                ? s3Client.headObject( HeadObjectRequest.builder().bucket( source.container ).key( source.path ).build() )
+                : null;
+
+            if( head == null || head.contentLength() <= partSize ) {
+                GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket( source.container ).key( source.path ).build();
+
+                try( ResponseInputStream<GetObjectResponse> in = s3Client.getObject( getObjectRequest ) ) {
+                    Files.copy( in, destination, StandardCopyOption.REPLACE_EXISTING );
+                }
+                return;
             }
+
+            downloadRanges( source, destination, head.contentLength(), head.eTag() );
         } catch( IOException e ) {
             throw new CloudException( e );
         } catch( SdkException e ) {
@@ -283,22 +329,168 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
         }
     }
 
+    /**
+     * Parallel byte-range GETs written into a preallocated file. <code>If-Match</code> fails the download
+     * if the object is replaced in the middle.
+     */
+    private void downloadRanges( CloudURI source, Path destination, long size, String eTag ) throws IOException {
+        try( FileChannel channel = FileChannel.open( destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING ) ) {
+            channel.write( ByteBuffer.allocate( 1 ), size - 1 );
+
+            var futures = new ArrayList<Future<Long>>();
+            for( long start = 0; start < size; start += partSize ) {
+                long end = Math.min( size, start + partSize ) - 1;
+                long rangeStart = start;
+
+                futures.add( transferExecutor.submit( () -> {
+                    GetObjectRequest request = GetObjectRequest.builder()
+                        .bucket( source.container )
+                        .key( source.path )
+                        .range( "bytes=" + rangeStart + "-" + end )
+                        .ifMatch( eTag )
+                        .build();
+
+                    try( ResponseInputStream<GetObjectResponse> in = s3Client.getObject( request ) ) {
+                        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                        long position = rangeStart;
+                        int read;
+                        while( ( read = in.read( buffer ) ) >= 0 ) {
+                            ByteBuffer byteBuffer = ByteBuffer.wrap( buffer, 0, read );
+                            while( byteBuffer.hasRemaining() ) {
+                                position += channel.write( byteBuffer, position );
+                            }
+                        }
+                        if( position != end + 1 ) {
+                            throw new CloudException( source + ": range " + rangeStart + "-" + end + " ended at " + position );
+                        }
+                        return position - rangeStart;
+                    }
+                } ) );
+            }
+
+            awaitAll( futures );
+        }
+    }
+
     @Override
     public void copy( CloudURI source, CloudURI destination ) {
-        CopyObjectRequest copyObjectRequest = CopyObjectRequest.builder()
-            .sourceBucket( source.container )
-            .destinationBucket( destination.container )
-            .sourceKey( source.path )
-            .destinationKey( destination.path )
-            .build();
-
         try {
+            HeadObjectResponse head = s3Client.headObject( HeadObjectRequest.builder().bucket( source.container ).key( source.path ).build() );
+
+            if( head.contentLength() > multipartCopyThreshold ) {
+                multipartCopy( source, destination, head );
+                return;
+            }
+
+            CopyObjectRequest copyObjectRequest = CopyObjectRequest.builder()
+                .sourceBucket( source.container )
+                .destinationBucket( destination.container )
+                .sourceKey( source.path )
+                .destinationKey( destination.path )
+                .build();
+
             s3Client.copyObject( copyObjectRequest );
         } catch( SdkException e ) {
             throw new CloudException( e );
         }
     }
 
+    /**
+     * Server-side copy of <code>partSize</code> ranges in parallel (larger ranges for objects over
+     * {@value #MAX_PARTS} parts). The metadata, the content headers and the tags of the source are copied, as with CopyObject.
+     */
+    private void multipartCopy( CloudURI source, CloudURI destination, HeadObjectResponse head ) {
+        List<Tag> tags = s3Client.getObjectTagging( GetObjectTaggingRequest.builder()
+            .bucket( source.container )
+            .key( source.path )
+            .build() ).tagSet();
+
+        CreateMultipartUploadRequest.Builder createBuilder = CreateMultipartUploadRequest.builder()
+            .bucket( destination.container )
+            .key( destination.path )
+            .metadata( head.metadata() )
+            .contentType( head.contentType() )
+            .contentEncoding( head.contentEncoding() )
+            .contentLanguage( head.contentLanguage() )
+            .contentDisposition( head.contentDisposition() )
+            .cacheControl( head.cacheControl() );
+        if( !tags.isEmpty() ) {
+            createBuilder.tagging( Tagging.builder().tagSet( tags ).build() );
+        }
+        String uploadId = s3Client.createMultipartUpload( createBuilder.build() ).uploadId();
+
+        try {
+            long size = head.contentLength();
+            long copyPartSize = Math.max( partSize, ( size + MAX_PARTS - 1 ) / MAX_PARTS );
+            var futures = new ArrayList<Future<CompletedPart>>();
+            int partNumber = 1;
+            for( long start = 0; start < size; start += copyPartSize, partNumber++ ) {
+                long end = Math.min( size, start + copyPartSize ) - 1;
+                long rangeStart = start;
+                int number = partNumber;
+
+                futures.add( transferExecutor.submit( () -> {
+                    UploadPartCopyRequest request = UploadPartCopyRequest.builder()
+                        .sourceBucket( source.container )
+                        .sourceKey( source.path )
+                        .copySourceIfMatch( head.eTag() )
+                        .copySourceRange( "bytes=" + rangeStart + "-" + end )
+                        .destinationBucket( destination.container )
+                        .destinationKey( destination.path )
+                        .uploadId( uploadId )
+                        .partNumber( number )
+                        .build();
+
+                    String eTag = s3Client.uploadPartCopy( request ).copyPartResult().eTag();
+                    return CompletedPart.builder().partNumber( number ).eTag( eTag ).build();
+                } ) );
+            }
+
+            List<CompletedPart> parts = awaitAll( futures );
+
+            s3Client.completeMultipartUpload( CompleteMultipartUploadRequest.builder()
+                .bucket( destination.container )
+                .key( destination.path )
+                .uploadId( uploadId )
+                .multipartUpload( CompletedMultipartUpload.builder().parts( parts ).build() )
+                .build() );
+        } catch( CloudException | SdkException e ) {
+            abortQuietly( destination, uploadId );
+            throw e;
+        }
+    }
+
+    private static <T> List<T> awaitAll( List<Future<T>> futures ) {
+        var results = new ArrayList<T>( futures.size() );
+        try {
+            for( Future<T> future : futures ) {
+                results.add( future.get() );
+            }
+            return results;
+        } catch( ExecutionException e ) {
+            throw e.getCause() instanceof CloudException ce ? ce : new CloudException( e.getCause() );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new CloudException( e );
+        } finally {
+            for( Future<T> future : futures ) {
+                future.cancel( true );
+            }
+        }
+    }
+
+    private void abortQuietly( CloudURI cloudURI, String uploadId ) {
+        try {
+            s3Client.abortMultipartUpload( AbortMultipartUploadRequest.builder()
+                .bucket( cloudURI.container )
+                .key( cloudURI.path )
+                .uploadId( uploadId )
+                .build() );
+        } catch( SdkException e ) {
+            log.error( e.getMessage(), e );
+        }
+    }
+
     @Override
     public InputStream getInputStream( CloudURI path ) {
         try {
@@ -410,16 +602,23 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
 
     @Override
     public void close() {
+        transferExecutor.shutdownNow();
         Closeables.close( s3Client );
     }
 
+    /**
+     * Buffers <code>partSize</code> parts and uploads up to <code>parallelism</code> of them concurrently.
+     * The writer blocks while all of them are in flight, so at most <code>parallelism + 1</code> part buffers exist.
+     */
     private final class MultipartUploadOutputStream extends OutputStream {
         private final CloudURI cloudURI;
         private final Map<String, String> tags;
         private final String contentType;
-        private final List<CompletedPart> completedParts = new ArrayList<>();
-        private final byte[] buffer = new byte[ PART_SIZE ];
+        private final List<Future<CompletedPart>> parts = new ArrayList<>();
+        private final Semaphore inFlight = new Semaphore( parallelism );
+        private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
 
+        private byte[] buffer;
         private int position = 0;
         private int partNumber = 1;
         private String uploadId;
@@ -431,11 +630,19 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
             this.contentType = contentType;
         }
 
-        @Override
-        public void write( int b ) {
-            if( position == buffer.length ) {
+        private void ensureBuffer() {
+            if( buffer != null && position == buffer.length ) {
                 flushPart();
             }
+            if( buffer == null ) {
+                byte[] free = freeBuffers.poll();
+                buffer = free != null ? free : new byte[ partSize ];
+            }
+        }
+
+        @Override
+        public void write( int b ) {
+            ensureBuffer();
             buffer[ position++ ] = ( byte ) b;
         }
 
@@ -443,9 +650,7 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
         public void write( byte[] b, int off, int len ) {
             int written = 0;
             while( written < len ) {
-                if( position == buffer.length ) {
-                    flushPart();
-                }
+                ensureBuffer();
                 int toCopy = Math.min( len - written, buffer.length - position );
                 System.arraycopy( b, off + written, buffer, position, toCopy );
                 position += toCopy;
@@ -459,9 +664,8 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
                     uploadId = createMultipartUpload();
                 }
                 uploadCurrentBuffer();
-                position = 0;
             } catch( SdkException e ) {
-                abortQuietly();
+                abort();
                 throw new CloudException( e );
             }
         }
@@ -478,31 +682,64 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
         }
 
         private void uploadCurrentBuffer() {
-            UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
-                .bucket( cloudURI.container )
-                .key( cloudURI.path )
-                .uploadId( uploadId )
-                .partNumber( partNumber )
-                .build();
+            failFast();
+            inFlight.acquireUninterruptibly();
 
-            UploadPartResponse response = s3Client.uploadPart( uploadPartRequest, RequestBody.fromByteBuffer( ByteBuffer.wrap( buffer, 0, position ) ) );
+            byte[] part = buffer;
+            int length = position;
+            int number = partNumber++;
+            String id = uploadId;
+            buffer = null;
+            position = 0;
 
-            completedParts.add( CompletedPart.builder().partNumber( partNumber ).eTag( response.eTag() ).build() );
-            partNumber++;
+            try {
+                parts.add( transferExecutor.submit( () -> {
+                    try {
+                        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                            .bucket( cloudURI.container )
+                            .key( cloudURI.path )
+                            .uploadId( id )
+                            .partNumber( number )
+                            .build();
+
+                        UploadPartResponse response = s3Client.uploadPart( uploadPartRequest,
+                            RequestBody.fromContentProvider( () -> new ByteArrayInputStream( part, 0, length ), length, "application/octet-stream" ) );
+
+                        return CompletedPart.builder().partNumber( number ).eTag( response.eTag() ).build();
+                    } finally {
+                        freeBuffers.add( part );
+                        inFlight.release();
+                    }
+                } ) );
+            } catch( RuntimeException e ) {
+                inFlight.release();
+                throw e;
+            }
         }
 
-        private void abortQuietly() {
-            if( uploadId == null ) {
-                return;
+        private void failFast() {
+            for( Future<CompletedPart> part : parts ) {
+                if( part.isDone() ) {
+                    try {
+                        part.get();
+                    } catch( ExecutionException e ) {
+                        abort();
+                        throw e.getCause() instanceof CloudException ce ? ce : new CloudException( e.getCause() );
+                    } catch( InterruptedException e ) {
+                        Thread.currentThread().interrupt();
+                        throw new CloudException( e );
+                    }
+                }
             }
-            try {
-                s3Client.abortMultipartUpload( AbortMultipartUploadRequest.builder()
-                    .bucket( cloudURI.container )
-                    .key( cloudURI.path )
-                    .uploadId( uploadId )
-                    .build() );
-            } catch( SdkException e ) {
-                log.error( e.getMessage(), e );
+        }
+
+        private void abort() {
+            closed = true;
+            for( Future<CompletedPart> part : parts ) {
+                part.cancel( true );
+            }
+            if( uploadId != null ) {
+                abortQuietly( cloudURI, uploadId );
             }
         }
 
@@ -522,7 +759,10 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
                     if( contentType != null ) {
                         putObjectRequestBuilder.contentType( contentType );
                     }
-                    s3Client.putObject( putObjectRequestBuilder.build(), RequestBody.fromByteBuffer( ByteBuffer.wrap( buffer, 0, position ) ) );
+                    RequestBody body = buffer == null
+                        ? RequestBody.empty()
+                        : RequestBody.fromByteBuffer( ByteBuffer.wrap( buffer, 0, position ) );
+                    s3Client.putObject( putObjectRequestBuilder.build(), body );
                     return;
                 }
 
@@ -530,6 +770,9 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
                     uploadCurrentBuffer();
                 }
 
+                List<CompletedPart> completedParts = awaitAll( parts );
+                completedParts.sort( Comparator.comparing( CompletedPart::partNumber ) );
+
                 s3Client.completeMultipartUpload( CompleteMultipartUploadRequest.builder()
                     .bucket( cloudURI.container )
                     .key( cloudURI.path )
@@ -537,8 +780,14 @@ public class FileSystemCloudApiS3 implements FileSystemCloudApi {
                     .multipartUpload( CompletedMultipartUpload.builder().parts( completedParts ).build() )
                     .build() );
             } catch( SdkException e ) {
-                abortQuietly();
+                abort();
                 throw new CloudException( e );
+            } catch( CloudException e ) {
+                abort();
+                throw e;
+            } finally {
+                buffer = null;
+                freeBuffers.clear();
             }
         }
     }
@@ -5,6 +5,7 @@ import oap.io.IoStreams;
 import oap.io.IoStreams.Encoding;
 import oap.io.content.ContentReader;
 import oap.io.content.ContentWriter;
+import oap.storage.cloud.awss3.FileSystemCloudApiS3;
 import oap.testng.Fixtures;
 import oap.testng.SystemTimerFixture;
 import oap.testng.TestDirectoryFixture;
@@ -173,6 +174,52 @@ public class FileSystemS3Test extends Fixtures {
         }
     }
 
+    @Test
+    public void testParallelMultipartUploadDownloadAndCopy() throws IOException {
+        int partSize = 5 * 1024 * 1024;
+        byte[] chunk = new byte[ 1024 * 1024 ];
+        for( int i = 0; i < chunk.length; i++ ) {
+            chunk[i] = ( byte ) ( i % 251 );
+        }
+        int chunks = 3 * 5 + 2;
+
+        FileSystemConfiguration configuration = getFileSystemConfiguration().copyWith( Map.of(
+            "fs.s3.clouds.s3.part-size", String.valueOf( partSize ),
+            "fs.s3.clouds.s3.parallelism", "3",
+            "fs.s3.clouds.s3.multipart-copy-threshold", String.valueOf( partSize )
+        ) );
+
+        try( FileSystemCloudApiS3 s3 = new FileSystemCloudApiS3( configuration, TEST_BUCKET ) ) {
+            CloudURI uri = new CloudURI( "s3://" + TEST_BUCKET + "/logs/big-file.bin" );
+            try( OutputStream outputStream = s3.getOutputStream( uri, Map.of( "test-tag", "tag-val" ) ) ) {
+                for( int i = 0; i < chunks; i++ ) {
+                    outputStream.write( chunk );
+                }
+            }
+
+            assertThat( s3mockFixture.readTags( TEST_BUCKET, "logs/big-file.bin" ) ).contains( entry( "test-tag", "tag-val" ) );
+
+            Path downloaded = testDirectoryFixture.testPath( "big-file.bin" );
+            s3.downloadFile( uri, downloaded );
+            assertContent( downloaded, chunk, chunks );
+
+            CloudURI copyUri = new CloudURI( "s3://" + TEST_BUCKET + "/logs/big-file-copy.bin" );
+            s3.copy( uri, copyUri );
+            Path copied = testDirectoryFixture.testPath( "big-file-copy.bin" );
+            s3.downloadFile( copyUri, copied );
+            assertContent( copied, chunk, chunks );
+            assertThat( s3mockFixture.readTags( TEST_BUCKET, "logs/big-file-copy.bin" ) ).contains( entry( "test-tag", "tag-val" ) );
+        }
+    }
+
+    private static void assertContent( Path path, byte[] chunk, int chunks ) throws IOException {
+        byte[] content = java.nio.file.Files.readAllBytes( path );
+        assertThat( content.length ).isEqualTo( chunk.length * chunks );
+        for( int i = 0; i < chunks; i++ ) {
+            assertThat( java.util.Arrays.equals( content, i * chunk.length, ( i + 1 ) * chunk.length, chunk, 0, chunk.length ) ).isTrue();
+        }
+    }
+
     @NotNull
     private FileSystemConfiguration getFileSystemConfiguration() {
         return s3mockFixture.getFileSystemConfiguration( TEST_BUCKET );
@@ -25,61 +25,84 @@
 package oap.ws.admin;
 
 import com.google.common.base.Throwables;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import oap.application.Kernel;
 import oap.application.ModuleItem;
 import oap.json.Binder;
 import oap.reflect.Reflect;
 import oap.reflect.Reflection;
+import oap.ws.Response;
 import oap.ws.WsMethod;
 import oap.ws.WsParam;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
 
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Modifier;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static oap.http.Http.ContentType.TEXT_HTML;
 import static oap.http.server.nio.HttpServerExchange.HttpMethod.GET;
 import static oap.ws.WsParam.From.PATH;
 import static oap.ws.WsParam.From.QUERY;
 import static org.apache.velocity.runtime.RuntimeConstants.RESOURCE_LOADER;
 
+/**
+ * Field and method tables are built once per class and only the field values are read per request. Tables are split
+ * into pages of {@link #pageSize} members, pages are written straight to the response.
+ */
 @Slf4j
 public class InspectorWS {
+    private static final Set<Class<?>> JPATH_LITERAL_TYPES = Set.of( String.class, int.class, Integer.class, long.class, Long.class );
+
+    public int pageSize = 200;
     private final JPathWS jPathWS;
     private final Kernel kernel;
     private final VelocityEngine engine = new VelocityEngine();
+    private final Template uiTemplate;
+    private final Template serviceTemplate;
+    private final Template valueTemplate;
+    private final ConcurrentHashMap<Class<?>, Inspection> inspections = new ConcurrentHashMap<>();
 
     public InspectorWS( JPathWS jPathWS, Kernel kernel ) {
         this.jPathWS = jPathWS;
         this.kernel = kernel;
         engine.setProperty( RESOURCE_LOADER, "classpath" );
         engine.setProperty( "classpath.resource.loader.class", ClasspathResourceLoader.class.getName() );
+        engine.setProperty( "classpath.resource.loader.cache", true );
         engine.init();
+
+        uiTemplate = engine.getTemplate( "oap/ws/admin/inspector-ui.html.vm" );
+        serviceTemplate = engine.getTemplate( "oap/ws/admin/inspector-service.html.vm" );
+        valueTemplate = engine.getTemplate( "oap/ws/admin/inspector-value.html.vm" );
     }
 
     @WsMethod( method = GET, path = "/ui", produces = "text/html" )
-    public String ui() {
+    public Response ui() {
         List<String> services = jPathWS.listServices( "*" );
         VelocityContext context = new VelocityContext();
         context.put( "services", services );
-        StringWriter writer = new StringWriter();
-        engine.getTemplate( "oap/ws/admin/inspector-ui.html.vm" ).merge( context, writer );
-        return writer.toString();
+        return html( uiTemplate, context );
     }
 
     @WsMethod( method = GET, path = "/ui/{serviceReference}", produces = "text/html" )
-    public String service( @WsParam( from = PATH ) String serviceReference ) {
+    public Response service( @WsParam( from = PATH ) String serviceReference, @WsParam( from = QUERY ) Optional<Integer> page ) {
         int dot = serviceReference.indexOf( '.' );
         ModuleItem.ServiceItem item = dot < 0 ? null
             : kernel.services.get( serviceReference.substring( 0, dot ), serviceReference.substring( dot + 1 ) );
@@ -101,38 +124,52 @@ public class InspectorWS {
             context.put( "parameters", item.service.parameters );
 
             putInspectTables( context, item.instance, item.getReflection(),
-                item.getModuleName() + "." + item.serviceName + ".instance" );
+                item.getModuleName() + "." + item.serviceName + ".instance", page.orElse( 0 ), "?page=" );
         }
-        StringWriter writer = new StringWriter();
-        engine.getTemplate( "oap/ws/admin/inspector-service.html.vm" ).merge( context, writer );
-        return writer.toString();
+        return html( serviceTemplate, context );
     }
 
     @WsMethod( method = GET, path = "/ui/value", produces = "text/html" )
-    public String value( @WsParam( from = QUERY ) String query, @WsParam( from = QUERY ) Optional<String> mode ) {
+    public Response value( @WsParam( from = QUERY ) String query, @WsParam( from = QUERY ) Optional<String> mode,
+                           @WsParam( from = QUERY ) Optional<Integer> page ) {
         String effectiveMode = mode.filter( m -> !m.isEmpty() ).orElse( "inspect" );
+        String encodedQuery = URLEncoder.encode( query, StandardCharsets.UTF_8 );
         VelocityContext context = new VelocityContext();
         context.put( "query", query );
         context.put( "mode", effectiveMode );
-        context.put( "encodedQuery", URLEncoder.encode( query, StandardCharsets.UTF_8 ) );
+        context.put( "encodedQuery", encodedQuery );
         try {
             Object result = jPathWS.evaluatePath( query );
             context.put( "error", false );
-            context.put( "json", Binder.json.marshal( result, true ) );
 
             boolean inspectable = result != null && !isLeaf( result.getClass() );
             context.put( "inspectable", inspectable );
-            if( inspectable ) {
-                putInspectTables( context, result, Reflect.reflect( result.getClass() ), query );
+            if( inspectable && "inspect".equals( effectiveMode ) ) {
+                putInspectTables( context, result, Reflect.reflect( result.getClass() ), query, page.orElse( 0 ),
+                    "value?query=" + encodedQuery + "&mode=inspect&page=" );
+            } else {
+                context.put( "json", Binder.json.marshal( result, true ) );
             }
         } catch( Exception e ) {
             log.error( e.getMessage(), e );
             context.put( "error", true );
             context.put( "stackTrace", Throwables.getStackTraceAsString( e ) );
         }
-        StringWriter writer = new StringWriter();
-        engine.getTemplate( "oap/ws/admin/inspector-value.html.vm" ).merge( context, writer );
-        return writer.toString();
+        return html( valueTemplate, context );
+    }
+
+    private static Response html( Template template, VelocityContext context ) {
+        Consumer<OutputStream> body = out -> {
+            try {
+                Writer writer = new OutputStreamWriter( out, StandardCharsets.UTF_8 );
+                template.merge( context, writer );
+                writer.flush();
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        };
+
+        return Response.ok().withContentType( TEXT_HTML ).withBody( body, true );
     }
 
     private static boolean isLeaf( Class<?> type ) {
@@ -145,64 +182,104 @@ public class InspectorWS {
             || type.getName().startsWith( "javax." );
     }
 
-    private void putInspectTables( VelocityContext context, Object instance, Reflection reflection, String queryPrefix ) {
-        List<Map<String, String>> fields = reflection.fields.values().stream()
-            .sorted()
-            .map( f -> {
-                Class<?> type = f.underlying.getType();
-                String value = "";
-                if( type.isPrimitive() || type == String.class ) {
-                    try {
-                        value = String.valueOf( f.get( instance ) );
-                    } catch( Exception e ) {
-                        value = "";
-                    }
-                }
-                return Map.of(
-                    "name", f.name(),
-                    "modifier", Modifier.toString( f.underlying.getModifiers() ),
-                    "type", type.getName(),
-                    "query", queryPrefix + "." + f.name(),
-                    "value", value
-                );
-            } )
-            .collect( Collectors.toList() );
-        context.put( "fields", fields );
-
-        Set<Class<?>> jpathLiteralTypes = Set.of( String.class, int.class, Integer.class, long.class, Long.class );
-        List<Map<String, Object>> methods = reflection.methods.stream()
-            .filter( m -> m.underlying.getDeclaringClass() != Object.class )
-            .filter( m -> m.parameters.stream().allMatch( p -> jpathLiteralTypes.contains( p.underlying.getType() ) ) )
-            .collect( Collectors.toMap(
-                m -> m.name() + "(" + m.parameters.stream()
-                    .map( p -> p.underlying.getType().getName() )
-                    .collect( Collectors.joining( "," ) ) + ")",
-                m -> m,
-                ( a, b ) -> a,
-                LinkedHashMap::new
-            ) )
-            .values().stream()
-            .sorted( Comparator.comparing( m -> m.name() ) )
-            .map( m -> {
-                List<Map<String, String>> params = m.parameters.stream()
-                    .map( p -> Map.of(
-                        "name", p.name(),
-                        "kind", p.underlying.getType() == String.class ? "string" : "number"
-                    ) )
-                    .collect( Collectors.toList() );
-                Map<String, Object> row = new LinkedHashMap<>();
-                row.put( "name", m.name() );
-                row.put( "modifier", Modifier.toString( m.underlying.getModifiers() ) );
-                row.put( "returnType", m.underlying.getReturnType().getName() );
-                row.put( "parameters", m.parameters.stream()
-                    .map( p -> p.underlying.getType().getSimpleName() + " " + p.name() )
-                    .collect( Collectors.joining( ", " ) ) );
-                row.put( "zeroArg", m.parameters.isEmpty() );
-                row.put( "query", m.parameters.isEmpty() ? queryPrefix + "." + m.name() + "()" : queryPrefix + "." + m.name() );
-                row.put( "params", params );
-                return row;
-            } )
-            .collect( Collectors.toList() );
-        context.put( "methods", methods );
+    private void putInspectTables( VelocityContext context, Object instance, Reflection reflection, String queryPrefix,
+                                   int page, String pageLink ) {
+        Inspection inspection = inspections.computeIfAbsent( reflection.underlying, _ -> Inspection.of( reflection ) );
+
+        int pages = Math.max( 1, ( Math.max( inspection.fields.size(), inspection.methods.size() ) + pageSize - 1 ) / pageSize );
+        int current = Math.clamp( page, 0, pages - 1 );
+
+        context.put( "instance", instance );
+        context.put( "queryPrefix", queryPrefix );
+        context.put( "fields", slice( inspection.fields, current ) );
+        context.put( "fieldCount", inspection.fields.size() );
+        context.put( "methods", slice( inspection.methods, current ) );
+        context.put( "methodCount", inspection.methods.size() );
+        context.put( "page", current );
+        context.put( "pages", pages );
+        context.put( "pageLink", pageLink );
+    }
+
+    private <T> List<T> slice( List<T> members, int page ) {
+        int from = Math.min( members.size(), page * pageSize );
+        return members.subList( from, Math.min( members.size(), from + pageSize ) );
+    }
+
+    private record Inspection( List<FieldRow> fields, List<MethodRow> methods ) {
+        static Inspection of( Reflection reflection ) {
+            List<FieldRow> fields = reflection.fields.values().stream()
+                .sorted()
+                .map( f -> {
+                    Class<?> type = f.underlying.getType();
+                    return new FieldRow( f.name(), Modifier.toString( f.underlying.getModifiers() ), type.getName(),
+                        type.isPrimitive() || type == String.class, f );
+                } )
+                .toList();
+
+            List<MethodRow> methods = reflection.methods.stream()
+                .filter( m -> m.underlying.getDeclaringClass() != Object.class )
+                .filter( m -> m.parameters.stream().allMatch( p -> JPATH_LITERAL_TYPES.contains( p.underlying.getType() ) ) )
+                .collect( Collectors.toMap(
+                    m -> m.name() + "(" + m.parameters.stream()
+                        .map( p -> p.underlying.getType().getName() )
+                        .collect( Collectors.joining( "," ) ) + ")",
+                    m -> m,
+                    ( a, b ) -> a,
+                    LinkedHashMap::new
+                ) )
+                .values().stream()
+                .sorted( Comparator.comparing( m -> m.name() ) )
+                .map( m -> new MethodRow(
+                    m.name(),
+                    Modifier.toString( m.underlying.getModifiers() ),
+                    m.underlying.getReturnType().getName(),
+                    m.parameters.stream()
+                        .map( p -> p.underlying.getType().getSimpleName() + " " + p.name() )
+                        .collect( Collectors.joining( ", " ) ),
+                    m.parameters.isEmpty(),
+                    m.parameters.stream()
+                        .map( p -> new ParameterRow( p.name(), p.underlying.getType() == String.class ? "string" : "number" ) )
+                        .toList()
+                ) )
+                .toList();
+
+            return new Inspection( fields, methods );
+        }
+    }
+
+    @Value
+    public static class FieldRow {
+        String name;
+        String modifier;
+        String type;
+        boolean leaf;
+        Reflection.Field field;
+
+        /**
+         * @return the value of a primitive or String field, other fields are inspected by a link
+         */
+        public String value( Object instance ) {
+            try {
+                return String.valueOf( field.get( instance ) );
+            } catch( Exception e ) {
+                return "";
+            }
+        }
+    }
+
+    @Value
+    public static class MethodRow {
+        String name;
+        String modifier;
+        String returnType;
+        String parameters;
+        boolean zeroArg;
+        List<ParameterRow> params;
+    }
+
+    @Value
+    public static class ParameterRow {
+        String name;
+        String kind;
     }
 }
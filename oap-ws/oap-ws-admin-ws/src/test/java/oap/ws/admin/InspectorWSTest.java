@@ -138,4 +138,23 @@ public class InspectorWSTest extends Fixtures {
             .bodyContains( "testv" )
             .bodyDoesNotContain( "Methods" );
     }
+
+    @Test
+    public void testServiceUiPages() {
+        InspectorWS inspector = kernel.service( "oap-ws-admin-ws", InspectorWS.class );
+        int pageSize = inspector.pageSize;
+        inspector.pageSize = 1;
+        try {
+            assertGet( kernel.httpUrl( "/system/admin/inspector/ui/oap-ws-admin-ws-test.test-service?page=1" ) )
+                .isOk()
+                .hasContentType( TEXT_HTML )
+                .bodyContains( "page 2 of 3" )
+                .bodyContains( "href=\"?page=0\"" )
+                .bodyContains( "href=\"?page=2\"" )
+                .bodyContains( "setV2" )
+                .bodyDoesNotContain( "getV2" );
+        } finally {
+            inspector.pageSize = pageSize;
+        }
+    }
 }
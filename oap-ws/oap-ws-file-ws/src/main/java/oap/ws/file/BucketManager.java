@@ -26,19 +26,27 @@ package oap.ws.file;
 
 import oap.io.Files;
 import oap.io.content.ContentReader;
-import oap.io.content.ContentWriter;
 import oap.util.Cuid;
 import oap.util.Strings;
+import oap.util.function.Try;
+import oap.ws.WsClientException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Files are written through a temporary file and a fixed {@link #bufferSize} buffer, then renamed into place, so a
+ * transfer never holds more than one buffer of the file in memory and readers never see a partial file.
+ */
 public class BucketManager {
     public static final String DEFAULT_BUCKET = Strings.DEFAULT;
     public final Map<String, Path> buckets = new LinkedHashMap<>();
+    public int bufferSize = 64 * 1024;
     protected Cuid cuid = Cuid.UNIQUE;
 
     public BucketManager( Map<String, Path> buckets ) {
@@ -51,18 +59,63 @@ public class BucketManager {
 
     public String put( String bucket, Data data ) {
         String name = data.nameOrConstruct( cuid.next() );
-        Path path = getBucket( bucket ).resolve( name );
-        Files.write( path, data.decoded(), ContentWriter.ofBytes() );
+        write( bucket, name, out -> data.writeDecoded( out, bufferSize ) );
+        return name;
+    }
+
+    public String put( String name, InputStream in ) {
+        return put( DEFAULT_BUCKET, name, in );
+    }
+
+    public String put( String bucket, String name, InputStream in ) {
+        write( bucket, name, out -> {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while( ( read = in.read( buffer ) ) >= 0 ) out.write( buffer, 0, read );
+        } );
         return name;
     }
 
+    private void write( String bucket, String name, Try.ThrowingConsumer<OutputStream> content ) {
+        Path path = resolvePath( bucket, name )
+            .orElseThrow( () -> new WsClientException( "path " + name + " is outside of bucket " + bucket ) );
+        Path tmp = path.resolveSibling( "." + path.getFileName() + "." + cuid.next() + ".tmp" );
+        Files.ensureFile( tmp );
+
+        try( OutputStream out = java.nio.file.Files.newOutputStream( tmp ) ) {
+            content.accept( out );
+        } catch( Exception e ) {
+            Files.deleteSafely( tmp );
+            if( e instanceof RuntimeException re ) throw re;
+            throw new oap.io.IOException( "cannot write " + path, e );
+        }
+
+        Files.rename( tmp, path );
+    }
+
     public Path getBucket( String bucket ) {
         return buckets.getOrDefault( bucket, Paths.get( "/tmp" ) );
     }
 
+    /**
+     * @return the file if it exists in the bucket, empty for paths outside of the bucket
+     */
+    public Optional<Path> resolve( String bucket, String relativePath ) {
+        return resolvePath( bucket, relativePath ).filter( java.nio.file.Files::isRegularFile );
+    }
+
+    public Optional<Path> resolve( String relativePath ) {
+        return resolve( DEFAULT_BUCKET, relativePath );
+    }
+
+    private Optional<Path> resolvePath( String bucket, String relativePath ) {
+        Path root = getBucket( bucket ).toAbsolutePath().normalize();
+        Path path = root.resolve( relativePath ).normalize();
+        return path.startsWith( root ) && !path.equals( root ) ? Optional.of( path ) : Optional.empty();
+    }
+
     public Optional<byte[]> get( String bucket, String relativePath ) {
-        Path path = getBucket( bucket ).resolve( relativePath );
-        return Files.exists( path ) ? Optional.of( Files.read( path, ContentReader.ofBytes() ) ) : Optional.empty();
+        return resolve( bucket, relativePath ).map( path -> Files.read( path, ContentReader.ofBytes() ) );
     }
 
     public Optional<byte[]> get( String relativePath ) {
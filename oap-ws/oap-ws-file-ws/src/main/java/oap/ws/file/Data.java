@@ -27,6 +27,8 @@ package oap.ws.file;
 import oap.io.MimeTypes;
 import oap.util.Pair;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Base64;
 
 import static oap.util.Strings.split;
@@ -58,6 +60,28 @@ public class Data {
         return Base64.getDecoder().decode( content );
     }
 
+    /**
+     * Decodes {@code content} in chunks of at most {@code bufferSize} decoded bytes instead of materializing it.
+     */
+    public void writeDecoded( OutputStream out, int bufferSize ) throws IOException {
+        Base64.Decoder decoder = Base64.getDecoder();
+        int chunk = Math.max( 1, bufferSize / 3 ) * 4;
+        byte[] encoded = new byte[chunk];
+        byte[] decoded = new byte[chunk / 4 * 3];
+
+        for( int offset = 0; offset < content.length(); offset += chunk ) {
+            int length = Math.min( chunk, content.length() - offset );
+            byte[] src = length == chunk ? encoded : new byte[length];
+            for( int i = 0; i < length; i++ ) {
+                char c = content.charAt( offset + i );
+                if( c > 0x7f ) throw new IllegalArgumentException( "Illegal base64 character " + c );
+                src[i] = ( byte ) c;
+            }
+
+            out.write( decoded, 0, decoder.decode( src, decoded ) );
+        }
+    }
+
     public String extension() {
         return MimeTypes.extensionOf( mimeType ).orElse( "bin" );
     }
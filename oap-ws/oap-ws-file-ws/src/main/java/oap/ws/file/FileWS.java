@@ -25,18 +25,34 @@
 package oap.ws.file;
 
 import oap.http.Http;
+import oap.http.Https;
+import oap.ws.FileRegion;
 import oap.ws.Response;
 import oap.ws.WsMethod;
 import oap.ws.WsParam;
 import oap.ws.validate.WsValidateJson;
 import org.apache.commons.io.FilenameUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Optional;
 
+import static oap.http.Http.Headers.ACCEPT_RANGES;
+import static oap.http.Http.Headers.CONTENT_RANGE;
+import static oap.http.Http.Headers.ETAG;
+import static oap.http.Http.StatusCode.NOT_MODIFIED;
+import static oap.http.Http.StatusCode.PARTIAL_CONTENT;
+import static oap.http.Http.StatusCode.REQUEST_RANGE_NOT_SATISFIABLE;
 import static oap.http.server.nio.HttpServerExchange.HttpMethod.GET;
 import static oap.http.server.nio.HttpServerExchange.HttpMethod.POST;
+import static oap.http.server.nio.HttpServerExchange.HttpMethod.PUT;
 import static oap.io.MimeTypes.mimetypeOf;
 import static oap.ws.WsParam.From.BODY;
+import static oap.ws.WsParam.From.HEADER;
 import static oap.ws.WsParam.From.QUERY;
 
 public class FileWS {
@@ -53,18 +69,92 @@ public class FileWS {
             .orElseGet( () -> bucketManager.put( data ) );
     }
 
+    /**
+     * Raw body, streamed to disk.
+     */
+    @WsMethod( method = PUT, path = "/", produces = "text/plain" )
+    public String uploadRaw( @WsParam( from = BODY ) InputStream body, @WsParam( from = QUERY ) String name, Optional<String> bucket ) {
+        return bucket.map( b -> bucketManager.put( b, name, body ) )
+            .orElseGet( () -> bucketManager.put( name, body ) );
+    }
+
     @WsMethod( method = GET, path = "/" )
-    public Response download( @WsParam( from = QUERY ) String path, Optional<String> bucket ) {
-        byte[] bytes = bucket.map( b -> bucketManager.get( b, path ) )
-            .orElseGet( () -> bucketManager.get( path ) )
+    public Response download( @WsParam( from = QUERY ) String path, Optional<String> bucket,
+                              @WsParam( from = HEADER ) Optional<String> range,
+                              @WsParam( from = HEADER ) Optional<String> ifNoneMatch ) {
+        Path file = bucket.map( b -> bucketManager.resolve( b, path ) )
+            .orElseGet( () -> bucketManager.resolve( path ) )
             .orElse( null );
-        if( bytes == null ) {
+        if( file == null ) {
             return Response.notFound();
-        } else {
-            var contentType = mimetypeOf( FilenameUtils.getExtension( path ) ).orElse( Http.ContentType.APPLICATION_OCTET_STREAM );
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes( file, BasicFileAttributes.class );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        long size = attributes.size();
+        String etag = "\"" + Long.toHexString( size ) + "-" + Long.toHexString( attributes.lastModifiedTime().toMillis() ) + "\"";
+
+        if( ifNoneMatch.filter( value -> Https.ifNoneMatch( value, etag ) ).isPresent() ) {
+            return new Response( NOT_MODIFIED ).withHeader( ETAG, etag );
+        }
+
+        var contentType = mimetypeOf( FilenameUtils.getExtension( path ) ).orElse( Http.ContentType.APPLICATION_OCTET_STREAM );
+        Response response = Response.ok()
+            .withContentType( contentType )
+            .withHeader( ETAG, etag )
+            .withHeader( ACCEPT_RANGES, "bytes" );
 
-            return Response.ok().withContentType( contentType ).withBody( bytes );
+        ByteRange byteRange = range.map( r -> ByteRange.parse( r, size ) ).orElse( null );
+        if( byteRange == null ) {
+            return response.withBody( new FileRegion( file, 0, size ) );
         }
+        if( byteRange == ByteRange.UNSATISFIABLE ) {
+            return new Response( REQUEST_RANGE_NOT_SATISFIABLE ).withHeader( CONTENT_RANGE, "bytes */" + size );
+        }
+
+        return response
+            .withStatusCode( PARTIAL_CONTENT )
+            .withHeader( CONTENT_RANGE, "bytes " + byteRange.first() + "-" + byteRange.last() + "/" + size )
+            .withBody( new FileRegion( file, byteRange.first(), byteRange.last() - byteRange.first() + 1 ) );
     }
 
+    /**
+     * Inclusive byte positions of a single {@code Range: bytes=...} request.
+     */
+    record ByteRange( long first, long last ) {
+        static final ByteRange UNSATISFIABLE = new ByteRange( -1, -1 );
+
+        /**
+         * @return null if the header is not a single byte range, such headers are ignored and the whole file is sent
+         */
+        static ByteRange parse( String header, long size ) {
+            String value = header.trim();
+            if( !value.startsWith( "bytes=" ) || value.indexOf( ',' ) >= 0 ) return null;
+
+            int dash = value.indexOf( '-' );
+            if( dash < 0 ) return null;
+            String from = value.substring( "bytes=".length(), dash ).trim();
+            String to = value.substring( dash + 1 ).trim();
+
+            try {
+                if( from.isEmpty() ) {
+                    long suffix = Long.parseLong( to );
+                    if( suffix <= 0 || size == 0 ) return UNSATISFIABLE;
+                    return new ByteRange( Math.max( 0, size - suffix ), size - 1 );
+                }
+
+                long first = Long.parseLong( from );
+                long last = to.isEmpty() ? size - 1 : Long.parseLong( to );
+                if( first < 0 || last < first ) return null;
+                if( first >= size ) return UNSATISFIABLE;
+                return new ByteRange( first, Math.min( last, size - 1 ) );
+            } catch( NumberFormatException e ) {
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.ws.file;
+
+import oap.testng.Fixtures;
+import oap.testng.TestDirectoryFixture;
+import oap.ws.WsClientException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import static oap.ws.file.BucketManager.DEFAULT_BUCKET;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BucketManagerTest extends Fixtures {
+    private final TestDirectoryFixture testDirectoryFixture;
+
+    public BucketManagerTest() {
+        testDirectoryFixture = fixture( new TestDirectoryFixture() );
+    }
+
+    private BucketManager bucketManager() {
+        BucketManager bucketManager = new BucketManager( Map.of( DEFAULT_BUCKET, testDirectoryFixture.testPath( "default" ) ) );
+        bucketManager.bufferSize = 7;
+        return bucketManager;
+    }
+
+    @Test
+    public void putStream() {
+        BucketManager bucketManager = bucketManager();
+        byte[] content = new byte[1000];
+        new Random( 1 ).nextBytes( content );
+
+        assertThat( bucketManager.put( "dir/file.bin", new ByteArrayInputStream( content ) ) ).isEqualTo( "dir/file.bin" );
+
+        assertThat( testDirectoryFixture.testPath( "default/dir/file.bin" ) ).hasBinaryContent( content );
+        assertThat( testDirectoryFixture.testPath( "default/dir" ).toFile().list() ).containsExactly( "file.bin" );
+        assertThat( bucketManager.get( "dir/file.bin" ) ).contains( content );
+        assertThat( bucketManager.resolve( "dir" ) ).isEmpty();
+        assertThat( bucketManager.resolve( "unknown" ) ).isEmpty();
+    }
+
+    @Test
+    public void traversal() {
+        BucketManager bucketManager = bucketManager();
+
+        assertThat( bucketManager.resolve( "../outside.txt" ) ).isEmpty();
+        assertThatThrownBy( () -> bucketManager.put( "a/../../outside.txt", new ByteArrayInputStream( new byte[0] ) ) )
+            .isInstanceOf( WsClientException.class );
+        assertThat( testDirectoryFixture.testPath( "outside.txt" ) ).doesNotExist();
+    }
+
+    @Test
+    public void writeDecoded() throws IOException {
+        byte[] content = new byte[1001];
+        new Random( 2 ).nextBytes( content );
+
+        Data data = new Data( null, "application/octet-stream", Base64.getEncoder().encodeToString( content ) );
+        for( int bufferSize : new int[] { 1, 3, 4, 5, 1000, 4096 } ) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            data.writeDecoded( out, bufferSize );
+            assertThat( out.toByteArray() ).isEqualTo( content );
+        }
+    }
+}
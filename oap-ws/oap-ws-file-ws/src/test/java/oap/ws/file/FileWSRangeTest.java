@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.ws.file;
+
+import oap.ws.file.FileWS.ByteRange;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileWSRangeTest {
+    @Test
+    public void parse() {
+        assertThat( ByteRange.parse( "bytes=0-9", 100 ) ).isEqualTo( new ByteRange( 0, 9 ) );
+        assertThat( ByteRange.parse( "bytes=90-", 100 ) ).isEqualTo( new ByteRange( 90, 99 ) );
+        assertThat( ByteRange.parse( "bytes=90-1000", 100 ) ).isEqualTo( new ByteRange( 90, 99 ) );
+        assertThat( ByteRange.parse( "bytes=-10", 100 ) ).isEqualTo( new ByteRange( 90, 99 ) );
+        assertThat( ByteRange.parse( "bytes=-1000", 100 ) ).isEqualTo( new ByteRange( 0, 99 ) );
+    }
+
+    @Test
+    public void unsatisfiable() {
+        assertThat( ByteRange.parse( "bytes=100-", 100 ) ).isSameAs( ByteRange.UNSATISFIABLE );
+        assertThat( ByteRange.parse( "bytes=-0", 100 ) ).isSameAs( ByteRange.UNSATISFIABLE );
+        assertThat( ByteRange.parse( "bytes=-5", 0 ) ).isSameAs( ByteRange.UNSATISFIABLE );
+    }
+
+    @Test
+    public void ignored() {
+        assertThat( ByteRange.parse( "bytes=0-1,5-6", 100 ) ).isNull();
+        assertThat( ByteRange.parse( "bytes=9-0", 100 ) ).isNull();
+        assertThat( ByteRange.parse( "bytes=a-b", 100 ) ).isNull();
+        assertThat( ByteRange.parse( "items=0-9", 100 ) ).isNull();
+    }
+}
@@ -30,17 +30,19 @@ import oap.io.Files;
 import oap.io.content.ContentWriter;
 import oap.testng.Fixtures;
 import oap.testng.TestDirectoryFixture;
-import org.testng.annotations.Ignore;
 import org.testng.annotations.Test;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static oap.http.test.HttpAsserts.assertGet;
 import static oap.http.test.HttpAsserts.assertPost;
+import static oap.http.test.HttpAsserts.assertPut;
 import static oap.io.content.ContentReader.ofString;
 import static oap.testng.Asserts.contentOfTestResource;
 import static oap.testng.Asserts.urlOfTestResource;
 import static org.assertj.core.api.Assertions.assertThat;
 
-@Ignore
 public class FileWSTest extends Fixtures {
 
     private final KernelFixture kernel;
@@ -72,4 +74,81 @@ public class FileWSTest extends Fixtures {
         assertGet( kernel.httpUrl( "/file?path=test.txt&bucket=b1" ) )
             .responded( Http.StatusCode.OK, "OK", Http.ContentType.TEXT_PLAIN, "b1test" );
     }
+
+    @Test
+    public void uploadRaw() {
+        assertPut( kernel.httpUrl( "/file?name=raw.txt" ), "raw content", Http.ContentType.APPLICATION_OCTET_STREAM )
+            .responded( Http.StatusCode.OK, "OK", Http.ContentType.TEXT_PLAIN, "raw.txt" );
+        assertThat( testDirectoryFixture.testPath( "default/raw.txt" ) ).hasContent( "raw content" );
+
+        assertPut( kernel.httpUrl( "/file?name=raw.txt&bucket=b1" ), "b1 raw content", Http.ContentType.APPLICATION_OCTET_STREAM )
+            .responded( Http.StatusCode.OK, "OK", Http.ContentType.TEXT_PLAIN, "raw.txt" );
+        assertThat( testDirectoryFixture.testPath( "b1/raw.txt" ) ).hasContent( "b1 raw content" );
+
+        assertPut( kernel.httpUrl( "/file?name=../outside.txt" ), "outside", Http.ContentType.APPLICATION_OCTET_STREAM )
+            .hasCode( Http.StatusCode.BAD_REQUEST );
+        assertThat( testDirectoryFixture.testPath( "outside.txt" ) ).doesNotExist();
+    }
+
+    @Test
+    public void downloadRange() {
+        Files.write( testDirectoryFixture.testPath( "default/range.txt" ), "0123456789", ContentWriter.ofString() );
+
+        assertGet( kernel.httpUrl( "/file?path=range.txt" ), Map.of(), Map.of( Http.Headers.RANGE, "bytes=2-5" ) )
+            .hasCode( Http.StatusCode.PARTIAL_CONTENT )
+            .containsHeader( Http.Headers.CONTENT_RANGE, "bytes 2-5/10" )
+            .containsHeader( Http.Headers.ACCEPT_RANGES, "bytes" )
+            .hasBody( "2345" );
+
+        assertGet( kernel.httpUrl( "/file?path=range.txt" ), Map.of(), Map.of( Http.Headers.RANGE, "bytes=-3" ) )
+            .hasCode( Http.StatusCode.PARTIAL_CONTENT )
+            .containsHeader( Http.Headers.CONTENT_RANGE, "bytes 7-9/10" )
+            .hasBody( "789" );
+
+        assertGet( kernel.httpUrl( "/file?path=range.txt" ), Map.of(), Map.of( Http.Headers.RANGE, "bytes=10-" ) )
+            .hasCode( Http.StatusCode.REQUEST_RANGE_NOT_SATISFIABLE )
+            .containsHeader( Http.Headers.CONTENT_RANGE, "bytes */10" );
+    }
+
+    @Test
+    public void downloadNotModified() {
+        Files.write( testDirectoryFixture.testPath( "default/etag.txt" ), "etag", ContentWriter.ofString() );
+
+        AtomicReference<String> etag = new AtomicReference<>();
+        assertGet( kernel.httpUrl( "/file?path=etag.txt" ) )
+            .hasCode( Http.StatusCode.OK )
+            .containsHeader( Http.Headers.ETAG )
+            .hasBody( "etag" )
+            .is( response -> etag.set( response.header( Http.Headers.ETAG ).orElseThrow() ) );
+
+        assertGet( kernel.httpUrl( "/file?path=etag.txt" ), Map.of(), Map.of( Http.Headers.IF_NONE_MATCH, etag.get() ) )
+            .hasCode( Http.StatusCode.NOT_MODIFIED )
+            .containsHeader( Http.Headers.ETAG, etag.get() );
+
+        assertGet( kernel.httpUrl( "/file?path=etag.txt" ), Map.of(), Map.of( Http.Headers.IF_NONE_MATCH, "\"other\"" ) )
+            .hasCode( Http.StatusCode.OK )
+            .hasBody( "etag" );
+    }
+
+    @Test
+    public void downloadCompressed() {
+        String content = "compressed ".repeat( 1024 );
+        Files.write( testDirectoryFixture.testPath( "default/large.txt" ), content, ContentWriter.ofString() );
+
+        assertGet( kernel.httpUrl( "/file?path=large.txt" ), Map.of(), Map.of( Http.Headers.ACCEPT_ENCODING, "gzip" ) )
+            .responded( Http.StatusCode.OK, "OK", Http.ContentType.TEXT_PLAIN, content );
+
+        assertGet( kernel.httpUrl( "/file?path=large.txt" ), Map.of(), Map.of( Http.Headers.ACCEPT_ENCODING, "gzip", Http.Headers.RANGE, "bytes=0-9" ) )
+            .hasCode( Http.StatusCode.PARTIAL_CONTENT )
+            .containsHeader( Http.Headers.CONTENT_RANGE, "bytes 0-9/" + content.length() )
+            .hasBody( "compressed" );
+    }
+
+    @Test
+    public void downloadOutsideOfBucket() {
+        Files.write( testDirectoryFixture.testPath( "outside.txt" ), "outside", ContentWriter.ofString() );
+
+        assertGet( kernel.httpUrl( "/file?path=../outside.txt" ) )
+            .hasCode( Http.StatusCode.NOT_FOUND );
+    }
 }
@@ -3,6 +3,7 @@ package oap.openapi.maven;
 import com.google.common.base.Joiner;
 import oap.application.ApplicationException;
 import oap.io.Files;
+import oap.io.content.ContentWriter;
 import oap.ws.openapi.OpenapiGenerator;
 import oap.ws.openapi.WebServicesWalker;
 import org.apache.maven.plugin.AbstractMojo;
@@ -45,6 +46,12 @@ public class OpenApiGeneratorPlugin extends AbstractMojo {
     @Parameter( required = false, readonly = true )
     private List<String> excludeModules;
 
+    /**
+     * Also write a gzipped copy ({@code <output>.gz}), served as is by {@code oap-ws-openapi-ws}.
+     */
+    @Parameter( required = false, readonly = true, defaultValue = "false" )
+    private String gzip;
+
     @Override
     public void execute() {
         Objects.requireNonNull( outputPath );
@@ -69,8 +76,13 @@ public class OpenApiGeneratorPlugin extends AbstractMojo {
             }
             openapiGenerator.afterProcesingServices();
             getLog().info( "OpenAPI " + settings.outputType + " generated -> " + outputPath );
-            Files.write( Paths.get( outputPath ), openapiGenerator.build(), settings.outputType.writer );
+            byte[] content = settings.outputType.writer.write( openapiGenerator.build() );
+            Files.write( Paths.get( outputPath ), content, ContentWriter.ofBytes() );
             getLog().info( "OpenAPI " + settings.outputType + " is written to " + outputPath );
+            if( Boolean.parseBoolean( gzip ) ) {
+                Files.write( Paths.get( outputPath + ".gz" ), content, ContentWriter.ofBytes() );
+                getLog().info( "OpenAPI " + settings.outputType + " is written to " + outputPath + ".gz" );
+            }
         } catch( Exception e ) {
             if ( ReflectiveOperationException.class.isAssignableFrom( e.getClass() ) ) {
                 getLog().error( "OpenAPI generator plugin error: " + e.getMessage() );
@@ -94,4 +106,8 @@ public class OpenApiGeneratorPlugin extends AbstractMojo {
     void setExcludeModules( List<String> excludeModules ) {
         this.excludeModules = excludeModules;
     }
+
+    void setGzip( String gzip ) {
+        this.gzip = gzip;
+    }
 }
@@ -26,16 +26,29 @@ package oap.ws.openapi;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import lombok.extern.slf4j.Slf4j;
+import oap.io.Resources;
+import oap.io.content.ContentReader;
 import oap.ws.WebServices;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Documents are generated once per {@code skipDeprecated} and port and then served from memory: web services do not
+ * change once the kernel is started. Concurrent first requests wait for the same generation.
+ * <p>
+ * A document generated by {@code oap-ws-openapi-maven-plugin} can be set as {@link #prebuilt} (classpath resource, JSON
+ * output type). It is served for the default port with deprecated methods skipped, without generation at runtime.
+ * A gzipped copy next to it ({@code <prebuilt>.gz}) is used if present.
+ */
 @Slf4j
 public class Openapi {
 
     private final WebServices webServices;
     public ApiInfo info;
+    public String prebuilt;
+    private final ConcurrentHashMap<Key, OpenapiDocument> documents = new ConcurrentHashMap<>();
 
     public Openapi( WebServices webServices ) {
         this.webServices = webServices;
@@ -53,7 +66,31 @@ public class Openapi {
         return generateOpenApi( skipDeprecated, Optional.empty() );
     }
 
+    /**
+     * @return the cached document, it must not be modified
+     */
     public OpenAPI generateOpenApi( boolean skipDeprecated, Optional<String> port ) {
+        return document( skipDeprecated, port ).api();
+    }
+
+    public OpenapiDocument document( boolean skipDeprecated, Optional<String> port ) {
+        return documents.computeIfAbsent( new Key( skipDeprecated, port ), key -> prebuilt( key )
+            .orElseGet( () -> OpenapiDocument.of( generate( key.skipDeprecated, key.port ) ) ) );
+    }
+
+    private Optional<OpenapiDocument> prebuilt( Key key ) {
+        if( prebuilt == null || !key.skipDeprecated || key.port.isPresent() ) return Optional.empty();
+
+        Optional<byte[]> json = Resources.read( getClass(), prebuilt, ContentReader.ofBytes() );
+        if( json.isEmpty() ) {
+            log.warn( "prebuilt OpenAPI document {} not found, generating", prebuilt );
+            return Optional.empty();
+        }
+        log.info( "serving prebuilt OpenAPI document {}", prebuilt );
+        return Optional.of( OpenapiDocument.of( json.get(), Resources.read( getClass(), prebuilt + ".gz", ContentReader.ofBytes() ).orElse( null ) ) );
+    }
+
+    private OpenAPI generate( boolean skipDeprecated, Optional<String> port ) {
         OpenapiGenerator openapiGenerator = new OpenapiGenerator(
             info.title,
             info.description,
@@ -66,4 +103,6 @@ public class Openapi {
         openapiGenerator.afterProcesingServices();
         return openapiGenerator.build();
     }
+
+    private record Key( boolean skipDeprecated, Optional<String> port ) {}
 }
@@ -26,6 +26,8 @@ package oap.ws.openapi;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import lombok.extern.slf4j.Slf4j;
+import oap.http.Https;
+import oap.ws.Response;
 import oap.ws.WsMethod;
 import oap.ws.WsParam;
 import oap.ws.validate.ValidationErrors;
@@ -33,13 +35,21 @@ import oap.ws.validate.WsValidate;
 
 import java.util.Optional;
 
+import static oap.http.Http.ContentType.APPLICATION_JSON;
+import static oap.http.Http.Headers.ACCEPT_ENCODING;
+import static oap.http.Http.Headers.CONTENT_ENCODING;
+import static oap.http.Http.Headers.ETAG;
+import static oap.http.Http.Headers.VARY;
+import static oap.http.Http.StatusCode.NOT_MODIFIED;
 import static oap.http.server.nio.HttpServerExchange.HttpMethod.GET;
+import static oap.ws.WsParam.From.HEADER;
 
 /**
  * Web service for openapi documentation
  */
 @Slf4j
 public class OpenapiWS {
+    public static final String APPLICATION_YAML = "application/yaml";
 
     private final Openapi openapi;
     private final Optional<String> port;
@@ -64,6 +74,45 @@ public class OpenapiWS {
         return openapi.generateOpenApi( skipDeprecated.orElse( true ), port );
     }
 
+    /**
+     * The same document as {@link #openapi(Optional)}, serialized once and gzipped if the client accepts it
+     */
+    @WsMethod( path = "/openapi.json", method = GET )
+    @OpenapiIgnore
+    public Response json( @WsParam Optional<Boolean> skipDeprecated,
+                          @WsParam( from = HEADER ) Optional<String> ifNoneMatch,
+                          @WsParam( from = HEADER ) Optional<String> acceptEncoding ) {
+        OpenapiDocument document = openapi.document( skipDeprecated.orElse( true ), port );
+        return response( APPLICATION_JSON, document.json, document.jsonGzipped, document.etag, ifNoneMatch, acceptEncoding );
+    }
+
+    @WsMethod( path = "/openapi.yaml", method = GET )
+    @OpenapiIgnore
+    public Response yaml( @WsParam Optional<Boolean> skipDeprecated,
+                          @WsParam( from = HEADER ) Optional<String> ifNoneMatch,
+                          @WsParam( from = HEADER ) Optional<String> acceptEncoding ) {
+        OpenapiDocument document = openapi.document( skipDeprecated.orElse( true ), port );
+        return response( APPLICATION_YAML, document.yaml, document.yamlGzipped, document.etag + "-yaml", ifNoneMatch, acceptEncoding );
+    }
+
+    private static Response response( String contentType, byte[] content, byte[] gzipped, String tag,
+                                      Optional<String> ifNoneMatch, Optional<String> acceptEncoding ) {
+        boolean gzip = acceptEncoding.filter( value -> value.contains( "gzip" ) ).isPresent();
+        String etag = "\"" + tag + ( gzip ? "-gzip" : "" ) + "\"";
+
+        if( ifNoneMatch.filter( value -> Https.ifNoneMatch( value, etag ) ).isPresent() ) {
+            return new Response( NOT_MODIFIED ).withHeader( ETAG, etag );
+        }
+
+        Response response = Response.ok()
+            .withContentType( contentType )
+            .withHeader( ETAG, etag )
+            .withHeader( VARY, ACCEPT_ENCODING );
+        return gzip
+            ? response.withHeader( CONTENT_ENCODING, "gzip" ).withBody( gzipped, true )
+            : response.withBody( content, true );
+    }
+
     @OpenapiIgnore
     public ValidationErrors isValid( Optional<Boolean> skipDeprecated ) {
         return ValidationErrors.empty();
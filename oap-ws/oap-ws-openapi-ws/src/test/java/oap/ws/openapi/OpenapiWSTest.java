@@ -32,10 +32,12 @@ import oap.testng.TestDirectoryFixture;
 import org.testng.annotations.Test;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static oap.http.test.HttpAsserts.assertGet;
 import static oap.io.Resources.urlOrThrow;
 import static oap.testng.Asserts.contentOfTestResource;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @Slf4j
 public class OpenapiWSTest extends Fixtures {
@@ -69,4 +71,26 @@ public class OpenapiWSTest extends Fixtures {
             .bodyContains( "/private-api" )
             .bodyDoesNotContain( "\"/api" );
     }
+
+    @Test
+    public void openapiJsonNotModified() {
+        AtomicReference<String> etag = new AtomicReference<>();
+        assertGet( kernel.httpUrl( "/system/openapi/openapi.json" ) )
+            .hasCode( Http.StatusCode.OK )
+            .bodyContains( "\"/api" )
+            .containsHeader( "ETag" )
+            .is( response -> etag.set( response.header( "ETag" ).orElseThrow() ) );
+
+        assertGet( kernel.httpUrl( "/system/openapi/openapi.json" ), Map.of(), Map.of( "If-None-Match", etag.get() ) )
+            .hasCode( Http.StatusCode.NOT_MODIFIED );
+    }
+
+    @Test
+    public void openapiYaml() {
+        assertGet( kernel.httpUrl( "/system/openapi/openapi.yaml" ) )
+            .hasCode( Http.StatusCode.OK )
+            .hasContentType( OpenapiWS.APPLICATION_YAML )
+            .bodyContains( "openapi: " )
+            .is( response -> assertThat( response.header( "ETag" ) ).hasValueSatisfying( etag -> assertThat( etag ).contains( "-yaml" ) ) );
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.ws.openapi;
+
+import com.google.common.hash.Hashing;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Yaml;
+import io.swagger.v3.oas.models.OpenAPI;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An OpenAPI document serialized once: JSON in the format written by {@link OpenapiGenerator.Settings.OutputType#JSON}
+ * (the maven plugin default, so a document generated at build time has the same bytes), YAML converted from that JSON,
+ * both also gzipped, and an ETag derived from the JSON.
+ */
+public final class OpenapiDocument {
+    public final byte[] json;
+    public final byte[] jsonGzipped;
+    public final byte[] yaml;
+    public final byte[] yamlGzipped;
+    public final String etag;
+    private volatile OpenAPI api;
+
+    private OpenapiDocument( OpenAPI api, byte[] json, byte[] jsonGzipped ) {
+        this.api = api;
+        this.json = json;
+        this.jsonGzipped = jsonGzipped != null ? jsonGzipped : gzip( json );
+        try {
+            this.yaml = Yaml.mapper().writeValueAsBytes( Json.mapper().readTree( json ) );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        this.yamlGzipped = gzip( yaml );
+        this.etag = Hashing.murmur3_128().hashBytes( json ).toString();
+    }
+
+    public static OpenapiDocument of( OpenAPI api ) {
+        return new OpenapiDocument( api, OpenapiGenerator.Settings.OutputType.JSON.writer.write( api ), null );
+    }
+
+    /**
+     * @param jsonGzipped gzipped json if it is available, null otherwise
+     */
+    public static OpenapiDocument of( byte[] json, byte[] jsonGzipped ) {
+        return new OpenapiDocument( null, json, jsonGzipped );
+    }
+
+    /**
+     * The same instance is returned for every call and must not be modified.
+     * A document created from json is parsed on the first call.
+     */
+    public OpenAPI api() {
+        OpenAPI api = this.api;
+        if( api == null ) {
+            try {
+                this.api = api = Json.mapper().readValue( json, OpenAPI.class );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+        return api;
+    }
+
+    public static byte[] gzip( byte[] content ) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( content.length / 4 + 64 );
+        try( GZIPOutputStream gzip = new GZIPOutputStream( out ) ) {
+            gzip.write( content );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        return out.toByteArray();
+    }
+}
@@ -29,21 +29,43 @@ import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import lombok.extern.slf4j.Slf4j;
 import oap.time.JodaClock;
+import org.joda.time.DateTimeUtils;
+
+import java.util.Date;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Slf4j
 public class JWTExtractor {
 
     public static final String BEARER = "Bearer ";
-    private final String secret;
-    private final String issuer;
     private final SecurityRoles roles;
+    private final JWTVerifier verifier;
+    /**
+     * already verified tokens, keyed by a hash of the raw token. The raw token is compared on every hit,
+     * so a hash collision can never return someone else's claims.
+     */
+    private final Cache<HashCode, DecodedJWT> verified;
 
     public JWTExtractor( String secret, String issuer, SecurityRoles roles ) {
-        this.secret = secret;
-        this.issuer = issuer;
+        this( secret, issuer, roles, 10_000 );
+    }
+
+    public JWTExtractor( String secret, String issuer, SecurityRoles roles, long verifiedCacheSize ) {
         this.roles = roles;
+
+        JWTVerifier.BaseVerification verification = ( JWTVerifier.BaseVerification ) JWT.require( Algorithm.HMAC256( secret ) ).withIssuer( issuer );
+        this.verifier = verification.build( new JodaClock() );
+        this.verified = CacheBuilder.newBuilder()
+            .maximumSize( verifiedCacheSize )
+            .build();
     }
 
     public static String extractBearerToken( String authorization ) {
@@ -57,10 +79,20 @@ public class JWTExtractor {
         if( token == null ) {
             return null;
         }
-        Algorithm algorithm = Algorithm.HMAC256( secret );
-        JWTVerifier.BaseVerification verification = ( JWTVerifier.BaseVerification ) JWT.require( algorithm ).withIssuer( issuer );
-        JWTVerifier verifier = verification.build( new JodaClock() );
-        return new JwtToken( verifier.verify( token ), roles );
+        HashCode key = Hashing.murmur3_128().hashString( token, UTF_8 );
+        DecodedJWT decodedJWT = verified.getIfPresent( key );
+        if( decodedJWT == null || !token.equals( decodedJWT.getToken() ) || isExpired( decodedJWT ) ) {
+            if( decodedJWT != null ) verified.invalidate( key );
+
+            decodedJWT = verifier.verify( token );
+            verified.put( key, decodedJWT );
+        }
+        return new JwtToken( decodedJWT, roles );
+    }
+
+    private static boolean isExpired( DecodedJWT decodedJWT ) {
+        Date expiresAt = decodedJWT.getExpiresAt();
+        return expiresAt != null && expiresAt.getTime() <= DateTimeUtils.currentTimeMillis();
     }
 
     public TokenStatus verifyToken( String token ) {
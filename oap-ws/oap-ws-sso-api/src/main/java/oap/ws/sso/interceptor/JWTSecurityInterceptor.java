@@ -37,8 +37,10 @@ import oap.ws.sso.UserProvider;
 import oap.ws.sso.UserWithCookies;
 import oap.ws.sso.WsSecurity;
 
+import java.lang.reflect.Method;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static oap.http.Http.StatusCode.FORBIDDEN;
 import static oap.http.Http.StatusCode.UNAUTHORIZED;
@@ -51,6 +53,7 @@ import static oap.ws.sso.WsSecurity.USER;
 public class JWTSecurityInterceptor implements Interceptor {
     private final SecurityRoles roles;
     private final UserProvider userProvider;
+    private final ConcurrentHashMap<Method, Optional<WsSecurity>> securityByMethod = new ConcurrentHashMap<>();
 
     public JWTSecurityInterceptor( SecurityRoles roles, UserProvider userProvider ) {
         this.roles = roles;
@@ -59,7 +62,7 @@ public class JWTSecurityInterceptor implements Interceptor {
 
     @Override
     public Optional<Response> before( InvocationContext context ) {
-        Optional<WsSecurity> wss = context.method.findAnnotation( WsSecurity.class );
+        Optional<WsSecurity> wss = securityByMethod.computeIfAbsent( context.method.underlying, _ -> context.method.findAnnotation( WsSecurity.class ) );
         if( wss.isEmpty() ) {
             return Optional.empty();
         }
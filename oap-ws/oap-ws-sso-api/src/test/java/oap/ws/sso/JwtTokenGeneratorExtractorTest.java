@@ -26,12 +26,15 @@ package oap.ws.sso;
 
 import oap.testng.Fixtures;
 import oap.testng.SystemTimerFixture;
+import oap.util.Dates;
 import oap.util.Pair;
 import oap.ws.sso.AbstractUserTest.TestSecurityRolesProvider;
 import oap.ws.sso.AbstractUserTest.TestUser;
 import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
+import static oap.ws.sso.JWTExtractor.TokenStatus.EXPIRED;
+import static oap.ws.sso.JWTExtractor.TokenStatus.INVALID;
 import static oap.ws.sso.JWTExtractor.TokenStatus.VALID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.joda.time.DateTimeZone.UTC;
@@ -61,4 +64,22 @@ public class JwtTokenGeneratorExtractorTest extends Fixtures {
         assertThat( jwtToken.getUserEmail() ).isEqualTo( "email@email.com" );
         assertThat( jwtToken.getPermissions( "org1" ) ).containsExactlyInAnyOrder( "accounts:list", "accounts:create" );
     }
+
+    @Test
+    public void cachedTokenRespectsExpiration() {
+        Authentication.Token token = jwtTokenGenerator.generateAccessToken( new TestUser( "email@email.com", "password", Pair.of( "org1", "ADMIN" ) ) );
+        assertThat( jwtExtractor.verifyToken( token.jwt ) ).isEqualTo( VALID );
+        assertThat( jwtExtractor.verifyToken( token.jwt ) ).isEqualTo( VALID );
+        assertThat( jwtExtractor.decodeJWT( token.jwt ).getUserEmail() ).isEqualTo( "email@email.com" );
+
+        Dates.setTimeFixed( System.currentTimeMillis() + 16 * 60 * 1000 );
+        assertThat( jwtExtractor.verifyToken( token.jwt ) ).isEqualTo( EXPIRED );
+    }
+
+    @Test
+    public void cachedTokenDoesNotAcceptTamperedToken() {
+        Authentication.Token token = jwtTokenGenerator.generateAccessToken( new TestUser( "email@email.com", "password", Pair.of( "org1", "ADMIN" ) ) );
+        assertThat( jwtExtractor.verifyToken( token.jwt ) ).isEqualTo( VALID );
+        assertThat( jwtExtractor.verifyToken( token.jwt + "x" ) ).isEqualTo( INVALID );
+    }
 }
@@ -29,8 +29,11 @@ import oap.http.Cookie;
 import oap.http.server.nio.HttpServerExchange;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.function.Consumer;
@@ -152,6 +155,16 @@ public class Response {
         } else if( body instanceof String str ) {
             if( raw ) return str;
             else return HttpServerExchange.contentToString( false, str, contentType );
+        } else if( body instanceof FileRegion region ) {
+            try( FileChannel channel = FileChannel.open( region.path() ) ) {
+                ByteBuffer buffer = ByteBuffer.allocate( Math.toIntExact( region.count() ) );
+                while( buffer.hasRemaining() ) {
+                    if( channel.read( buffer, region.position() + buffer.position() ) < 0 ) break;
+                }
+                return new String( buffer.array(), 0, buffer.position() );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
         } else if( body instanceof Consumer ) {
             @SuppressWarnings( "unchecked" )
             var cons = ( Consumer<ByteArrayOutputStream> ) body;
@@ -180,10 +193,19 @@ public class Response {
                 if( raw ) exchange.send( string );
                 else exchange.send( HttpServerExchange.contentToString( false, string, contentType ) );
             else if( body instanceof Consumer cons ) cons.accept( exchange.getOutputStream() );
+            else if( body instanceof FileRegion region ) send( exchange, region );
             else {
                 Preconditions.checkArgument( !raw );
                 exchange.send( HttpServerExchange.contentToString( false, body, contentType ) );
             }
         else exchange.endExchange();
     }
+
+    private static void send( HttpServerExchange exchange, FileRegion region ) {
+        try( FileChannel channel = FileChannel.open( region.path() ) ) {
+            exchange.send( channel, region.position(), region.count() );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
 }